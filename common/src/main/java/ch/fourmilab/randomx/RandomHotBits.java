@@ -2,36 +2,96 @@ package ch.fourmilab.randomx;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Implementation of a <b>randomX</b>-compliant class which obtains genuine random data from
  * <a href="http://www.fourmilab.ch/">John Walker</a>'s <a href="http://www.fourmilab.ch/hotbits/">HotBits</a>
  * radioactive decay random sequence generator.
  * <p/>
+ * Data are downloaded in blocks of a configurable size. Unless disabled, the next block is prefetched in the background
+ * as soon as the current block is taken into use, so that callers rarely wait for the server. Bulk requests and multi-
+ * byte values are served under a single lock acquisition.
+ * <p/>
  * <p/>
  * Designed and implemented in July 1996 by <a href="http://www.fourmilab.ch/">John Walker</a>.
  */
 
 public class RandomHotBits extends RandomX
 {
-  private final byte[] buffer;
+  /**
+   * The maximum number of bytes served by HotBits per request.
+   */
+
+  public static final int MAX_BLOCK_SIZE = 2048;
+
+  /**
+   * The number of bytes downloaded per request by generators created with the default constructor.
+   */
+
+  public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+  private static final String URL_FORMAT = "http://www.fourmilab.ch/cgi-bin/uncgi/Hotbits?nbytes=%d&fmt=bin";
+  private static final ExecutorService PREFETCHER = Executors.newCachedThreadPool (new ThreadFactory ()
+  {
+    @Override
+    public Thread newThread (final Runnable runnable)
+    {
+      final Thread thread = new Thread (runnable, "RandomHotBits-prefetch");
+
+      thread.setDaemon (true);
+
+      return thread;
+    }
+  });
+
+  private final Object lock = new Object ();
+  private final int blockSize;
+  private final boolean prefetch;
+  private byte[] buffer = new byte [0];
   private int buflen = 0;
-  private int nuflen = 256;
-  private int bufptr = -1;
+  private int bufptr = 0;
+  private Future <byte[]> nextBlock = null;
 
   // Constructors
 
   /**
-   * Creates a new random sequence generator.
+   * Creates a new random sequence generator, downloading blocks of {@link #DEFAULT_BLOCK_SIZE} bytes, and prefetching
+   * the next block in the background.
    */
 
   public RandomHotBits ()
   {
-    buffer = new byte [nuflen];
+    this (DEFAULT_BLOCK_SIZE, true);
   }
 
-  /* Private method to fill buffer from HotBits server. */
+  /**
+   * Creates a new random sequence generator.
+   *
+   * @param blockSize
+   *          number of bytes to download per request, from 1 to {@link #MAX_BLOCK_SIZE}.
+   * @param prefetch
+   *          whether to download the next block in the background while the current block is being consumed.
+   */
+
+  public RandomHotBits (final int blockSize, final boolean prefetch)
+  {
+    if (blockSize < 1 || blockSize > MAX_BLOCK_SIZE)
+    {
+      throw new IllegalArgumentException ("blockSize must be from 1 to " + MAX_BLOCK_SIZE + ", but was " + blockSize);
+    }
+
+    this.blockSize = blockSize;
+    this.prefetch = prefetch;
+  }
 
   /**
    * Get next byte from generator.
@@ -42,35 +102,171 @@ public class RandomHotBits extends RandomX
   @Override
   public byte nextByte ()
   {
+    return (byte) nextBits (1);
+  }
+
+  @Override
+  public short nextShort ()
+  {
+    return (short) nextBits (2);
+  }
+
+  @Override
+  public int nextInt ()
+  {
+    return (int) nextBits (4);
+  }
+
+  @Override
+  public long nextLong ()
+  {
+    return nextBits (8);
+  }
+
+  /**
+   * Fill a range of an array of bytes with random data, copying whole blocks at a time.
+   */
+
+  @Override
+  public void nextBytes (final byte buf[], final int offset, final int length)
+  {
+    if (offset < 0 || length < 0 || length > buf.length - offset)
+    {
+      throw new IndexOutOfBoundsException ("offset: " + offset + ", length: " + length + ", array length: "
+              + buf.length);
+    }
+
     try
     {
-      synchronized (buffer)
+      synchronized (lock)
       {
-        if (bufptr < 0 || bufptr >= buflen)
+        int i = offset;
+
+        while (i < offset + length)
         {
-          fillBuffer ();
+          ensureBufferNotEmpty ();
+
+          final int count = Math.min (offset + length - i, buflen - bufptr);
+
+          System.arraycopy (buffer, bufptr, buf, i, count);
+          bufptr += count;
+          i += count;
         }
-        return buffer [bufptr++];
       }
     }
-    catch (IOException e)
+    catch (final IOException e)
     {
       throw new RuntimeException ("Cannot obtain HotBits", e);
     }
   }
 
-  private void fillBuffer () throws java.io.IOException
+  /* Returns the specified number of bytes, most significant first, as the low-order bytes of a long. */
+
+  private long nextBits (final int byteCount)
   {
-    URL u = new URL ("http://www.fourmilab.ch/cgi-bin/uncgi/Hotbits?nbytes=128&fmt=bin");
-    InputStream s = u.openStream ();
-    int l;
+    try
+    {
+      synchronized (lock)
+      {
+        long bits = 0;
 
-    buflen = 0;
-    while ((l = s.read ()) != -1)
+        for (int i = 0; i < byteCount; ++i)
+        {
+          ensureBufferNotEmpty ();
+          bits = (bits << 8) | (buffer [bufptr++] & 0xFF);
+        }
+
+        return bits;
+      }
+    }
+    catch (final IOException e)
     {
-      buffer [buflen++] = (byte) l;
+      throw new RuntimeException ("Cannot obtain HotBits", e);
     }
-    s.close ();
+  }
+
+  /* Replaces the buffer with the next block once it is used up, & starts prefetching the block after it. Must be called
+   * while holding the lock. */
+
+  private void ensureBufferNotEmpty () throws IOException
+  {
+    if (bufptr < buflen) return;
+
+    final Future <byte[]> prefetchedBlock = nextBlock;
+
+    nextBlock = null;
+
+    final byte[] block = prefetchedBlock != null ? await (prefetchedBlock) : fetchBlock (blockSize);
+
+    if (block.length == 0) throw new IOException ("HotBits returned no data.");
+
+    buffer = block;
+    buflen = block.length;
     bufptr = 0;
+
+    if (prefetch)
+    {
+      nextBlock = PREFETCHER.submit (new Callable <byte[]> ()
+      {
+        @Override
+        public byte[] call () throws IOException
+        {
+          return fetchBlock (blockSize);
+        }
+      });
+    }
+  }
+
+  private static byte[] await (final Future <byte[]> block) throws IOException
+  {
+    try
+    {
+      return block.get ();
+    }
+    catch (final InterruptedException e)
+    {
+      Thread.currentThread ().interrupt ();
+
+      throw new InterruptedIOException ("Interrupted while waiting for HotBits.");
+    }
+    catch (final ExecutionException e)
+    {
+      if (e.getCause () instanceof IOException) throw (IOException) e.getCause ();
+
+      throw new IOException (e.getCause ());
+    }
+  }
+
+  /**
+   * Download a block of random data from the HotBits server, reading the response in bulk. Subclasses may override it
+   * to obtain blocks from elsewhere, e.g., to test offline.
+   * <p/>
+   * When prefetching, it is called on a background thread without holding the generator's lock. Otherwise, it is called
+   * on the consuming thread while holding the lock, so every other consumer of this generator waits for it, & it must
+   * never wait for another thread that consumes this generator. Consumers waiting for a prefetched block also hold the
+   * lock.
+   *
+   * @param size
+   *          number of bytes requested, from 1 to the block size.
+   *
+   * @return the block, which may be shorter than requested, but must not be empty.
+   */
+
+  protected byte[] fetchBlock (final int size) throws IOException
+  {
+    final byte[] block = new byte [size];
+    int length = 0;
+
+    try (final InputStream s = new URL (String.format (URL_FORMAT, size)).openStream ())
+    {
+      int l;
+
+      while (length < size && (l = s.read (block, length, size - length)) != -1)
+      {
+        length += l;
+      }
+    }
+
+    return length == size ? block : Arrays.copyOf (block, length);
   }
 }
@@ -1,5 +1,10 @@
 package ch.fourmilab.randomx;
 
+import com.forerunnergames.tools.common.random.Ziggurat;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
 /**
  * Abstract superclass for emulations of java.util.Random with various underlying generators. These generators provide a
  * superset of the methods of the built-in Java generator, and allow easy replacement of the low-level byte-stream
@@ -17,11 +22,36 @@ package ch.fourmilab.randomx;
 
 public abstract class RandomX
 {
+  private static final int MAX_CHUNK_SIZE = 4096;
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
   private int nbits = 0;
-  private boolean iset = false;
-  private double gset;
   private byte b;
 
+  /* Presents this generator as a java.util.Random, for the distribution samplers of Ziggurat. */
+
+  private final Random bits = new Random ()
+  {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected int next (final int n)
+    {
+      return RandomX.this.nextInt () >>> (32 - n);
+    }
+
+    @Override
+    public long nextLong ()
+    {
+      return RandomX.this.nextLong ();
+    }
+
+    @Override
+    public double nextDouble ()
+    {
+      return (RandomX.this.nextLong () >>> 11) * DOUBLE_UNIT;
+    }
+  };
+
   /*
    * Emulation of standard java.util.Random methods. Given an implementation of nextByte() in the derived class, these
    * methods provide all the other forms of results. A derived class is, of course, free to reimplement any of these.
@@ -33,8 +63,7 @@ public abstract class RandomX
   /**
    * Reset when seed changes. A generator which supports seed must call this method by <tt>super.setSeed()</tt> when its
    * own <tt>setSeed(</tt><i>long</i><tt>)</tt> method is called. This allows randomX to discard any buffered data in
-   * the <tt>nextBit()</tt> and <tt>nextGaussian()</tt> methods so that subsequent calls will immediately reflect the
-   * new seed.
+   * the <tt>nextBit()</tt> method so that subsequent calls will immediately reflect the new seed.
    * <p/>
    * <p/>
    * If a derived class does not permit specification of a seed (hardware-based generators, for example), it should
@@ -50,7 +79,6 @@ public abstract class RandomX
   public void setSeed ()
   {
     nbits = 0;
-    iset = false;
   }
 
   /**
@@ -100,32 +128,60 @@ public abstract class RandomX
 
   /**
    * @return the next Gaussian (normal, or bell-curve) distributed random value, with mean of 0.0 and standard deviation
-   *         1.0.
+   *         1.0, sampled with the ziggurat method, which nearly always takes a single <tt>nextLong()</tt>.
    */
 
   public double nextGaussian ()
   {
-    double fac, rsq, v1, v2;
+    return Ziggurat.nextGaussian (bits);
+  }
 
-    if (!iset)
-    {
-      do
-      {
-        v1 = 2 * nextDouble () - 1;
-        v2 = 2 * nextDouble () - 1;
-        rsq = v1 * v1 + v2 * v2;
-      }
-      while (rsq > 1.0 || rsq == 0.0);
-      fac = Math.sqrt (-2.0 * Math.log (rsq) / rsq);
-      gset = v1 * fac;
-      iset = true;
-      return v2 * fac;
-    }
-    else
-    {
-      iset = false;
-      return gset;
-    }
+  /**
+   * @return the next exponentially distributed random value, with rate (and mean) 1.0, sampled with the ziggurat
+   *         method.
+   */
+
+  public double nextExponential ()
+  {
+    return Ziggurat.nextExponential (bits);
+  }
+
+  /**
+   * Fill a range of an array of <tt>double</tt>s with Gaussian distributed random values.
+   *
+   * @param buf
+   *          array of <tt>double</tt> to fill.
+   * @param offset
+   *          index of the first value to store.
+   * @param length
+   *          number of values to store.
+   * @param mean
+   *          mean of the distribution.
+   * @param standardDeviation
+   *          standard deviation of the distribution.
+   */
+
+  public void nextGaussians (double buf[], int offset, int length, double mean, double standardDeviation)
+  {
+    Ziggurat.nextGaussians (bits, buf, offset, length, mean, standardDeviation);
+  }
+
+  /**
+   * Fill a range of an array of <tt>double</tt>s with exponentially distributed random values.
+   *
+   * @param buf
+   *          array of <tt>double</tt> to fill.
+   * @param offset
+   *          index of the first value to store.
+   * @param length
+   *          number of values to store.
+   * @param mean
+   *          mean of the distribution, i.e., the reciprocal of its rate.
+   */
+
+  public void nextExponentials (double buf[], int offset, int length, double mean)
+  {
+    Ziggurat.nextExponentials (bits, buf, offset, length, mean);
   }
 
   /**
@@ -158,12 +214,7 @@ public abstract class RandomX
 
   public void nextByte (byte buf[], int buflen)
   {
-    int i = 0;
-
-    while (buflen-- > 0)
-    {
-      buf [i++] = nextByte ();
-    }
+    nextBytes (buf, 0, buflen);
   }
 
   /**
@@ -186,4 +237,123 @@ public abstract class RandomX
   {
     return (short) ((((short) nextByte ()) << 8) | ((short) (nextByte () & 0xFF)));
   }
+
+  // Bulk generation methods. The default implementations are built on nextBytes(byte[], int, int), so a derived class
+  // that produces many bytes at once only needs to override that method.
+
+  /**
+   * Fill a range of an array of bytes with random data. The default implementation calls <tt>nextByte()</tt> once per
+   * byte; generators that obtain their data in blocks should override it.
+   *
+   * @param buf
+   *          array of <tt>byte</tt> to fill.
+   * @param offset
+   *          index of the first byte to store.
+   * @param length
+   *          number of bytes to store.
+   */
+
+  public void nextBytes (byte buf[], int offset, int length)
+  {
+    checkRange (buf.length, offset, length);
+
+    for (int i = offset; i < offset + length; ++i)
+    {
+      buf [i] = nextByte ();
+    }
+  }
+
+  /**
+   * Fill the remaining bytes of a buffer with random data, advancing its position to its limit.
+   *
+   * @param buf
+   *          buffer to fill.
+   */
+
+  public void nextBytes (ByteBuffer buf)
+  {
+    if (buf.hasArray ())
+    {
+      nextBytes (buf.array (), buf.arrayOffset () + buf.position (), buf.remaining ());
+      buf.position (buf.limit ());
+      return;
+    }
+
+    final byte[] chunk = new byte [Math.min (buf.remaining (), MAX_CHUNK_SIZE)];
+
+    while (buf.hasRemaining ())
+    {
+      final int length = Math.min (buf.remaining (), chunk.length);
+
+      nextBytes (chunk, 0, length);
+      buf.put (chunk, 0, length);
+    }
+  }
+
+  /**
+   * Fill a range of an array of <tt>int</tt>s with random, uniformly distributed values, the same values that
+   * successive calls of <tt>nextInt()</tt> would return.
+   *
+   * @param buf
+   *          array of <tt>int</tt> to fill.
+   * @param offset
+   *          index of the first value to store.
+   * @param length
+   *          number of values to store.
+   */
+
+  public void nextInts (int buf[], int offset, int length)
+  {
+    checkRange (buf.length, offset, length);
+
+    final ByteBuffer chunk = ByteBuffer.allocate (Math.min (length, MAX_CHUNK_SIZE / 4) * 4);
+    int i = offset;
+
+    while (i < offset + length)
+    {
+      final int count = Math.min (offset + length - i, chunk.capacity () / 4);
+
+      nextBytes (chunk.array (), 0, count * 4);
+      chunk.asIntBuffer ().get (buf, i, count);
+      i += count;
+    }
+  }
+
+  /**
+   * Fill a range of an array of <tt>long</tt>s with random, uniformly distributed values, the same values that
+   * successive calls of <tt>nextLong()</tt> would return.
+   *
+   * @param buf
+   *          array of <tt>long</tt> to fill.
+   * @param offset
+   *          index of the first value to store.
+   * @param length
+   *          number of values to store.
+   */
+
+  public void nextLongs (long buf[], int offset, int length)
+  {
+    checkRange (buf.length, offset, length);
+
+    final ByteBuffer chunk = ByteBuffer.allocate (Math.min (length, MAX_CHUNK_SIZE / 8) * 8);
+    int i = offset;
+
+    while (i < offset + length)
+    {
+      final int count = Math.min (offset + length - i, chunk.capacity () / 8);
+
+      nextBytes (chunk.array (), 0, count * 8);
+      chunk.asLongBuffer ().get (buf, i, count);
+      i += count;
+    }
+  }
+
+  private static void checkRange (int arrayLength, int offset, int length)
+  {
+    if (offset < 0 || length < 0 || length > arrayLength - offset)
+    {
+      throw new IndexOutOfBoundsException ("offset: " + offset + ", length: " + length + ", array length: "
+              + arrayLength);
+    }
+  }
 }
@@ -0,0 +1,339 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.util.Arrays;
+
+/**
+ * Exact odds of dice battles between an attacker & a defender, so that AI players can look them up instead of
+ * simulating them.
+ * <p/>
+ * In each round, the attacker rolls up to maxAttackerDice dice & the defender rolls up to maxDefenderDice dice, each
+ * limited by their number of armies. The highest dice of both sides are compared pairwise, & the side with the lower
+ * die of each pair loses one army, the attacker losing ties. A battle consists of rounds until one side has no armies
+ * left.
+ * <p/>
+ * The outcome distribution of every possible round is computed exactly on construction, by enumerating all rolls. The
+ * win probabilities of whole battles are computed by dynamic programming, & cached in a table that grows as needed.
+ * <p/>
+ * Thread-safe.
+ */
+public final class BattleOdds
+{
+  private static final int MAX_TOTAL_DICE = 8;
+  private static final int INITIAL_ARMIES = 32;
+  private static final BattleOdds STANDARD = new BattleOdds (3, 2);
+  private final int maxAttackerDice;
+  private final int maxDefenderDice;
+  // [attackerDice][defenderDice][attackerLosses], the defender losing the remaining compared dice.
+  private final double[][][] roundOutcomes;
+  // [attackerArmies][defenderArmies], only ever replaced by a larger table, which is never modified once published.
+  private volatile double[][] attackerWinProbabilities = new double [0][0];
+
+  /**
+   * @return The odds for the standard rules, in which the attacker rolls up to 3 dice & the defender up to 2 dice.
+   */
+  public static BattleOdds standard ()
+  {
+    return STANDARD;
+  }
+
+  /**
+   * @param maxAttackerDice
+   *          The maximum number of dice the attacker rolls per round, must be > 0.
+   * @param maxDefenderDice
+   *          The maximum number of dice the defender rolls per round, must be > 0.
+   */
+  public BattleOdds (final int maxAttackerDice, final int maxDefenderDice)
+  {
+    Arguments.checkLowerInclusiveBound (maxAttackerDice, 1, "maxAttackerDice");
+    Arguments.checkLowerInclusiveBound (maxDefenderDice, 1, "maxDefenderDice");
+    Arguments.checkUpperInclusiveBound (maxAttackerDice + maxDefenderDice, MAX_TOTAL_DICE,
+                                        "maxAttackerDice + maxDefenderDice");
+
+    this.maxAttackerDice = maxAttackerDice;
+    this.maxDefenderDice = maxDefenderDice;
+
+    roundOutcomes = new double [maxAttackerDice + 1][maxDefenderDice + 1][];
+
+    for (int attackerDice = 1; attackerDice <= maxAttackerDice; ++attackerDice)
+    {
+      for (int defenderDice = 1; defenderDice <= maxDefenderDice; ++defenderDice)
+      {
+        roundOutcomes [attackerDice][defenderDice] = enumerateRoundOutcomes (attackerDice, defenderDice);
+      }
+    }
+  }
+
+  public int getMaxAttackerDice ()
+  {
+    return maxAttackerDice;
+  }
+
+  public int getMaxDefenderDice ()
+  {
+    return maxDefenderDice;
+  }
+
+  /**
+   * Gets the probability that the attacker loses the specified number of armies in a single round, in which case the
+   * defender loses min (attackerDice, defenderDice) - attackerLosses armies.
+   *
+   * @param attackerDice
+   *          The number of dice the attacker rolls, must be > 0 and <= getMaxAttackerDice ().
+   * @param defenderDice
+   *          The number of dice the defender rolls, must be > 0 and <= getMaxDefenderDice ().
+   * @param attackerLosses
+   *          The number of armies the attacker loses, must be >= 0 and <= min (attackerDice, defenderDice).
+   */
+  public double getRoundProbability (final int attackerDice, final int defenderDice, final int attackerLosses)
+  {
+    final double[] outcomes = roundOutcomesFor (attackerDice, defenderDice);
+
+    Arguments.checkIsNotNegative (attackerLosses, "attackerLosses");
+    Arguments.checkUpperExclusiveBound (attackerLosses, outcomes.length, "attackerLosses", "comparedDice + 1");
+
+    return outcomes [attackerLosses];
+  }
+
+  /**
+   * Gets the outcome distribution of a single round, indexed by the number of armies the attacker loses.
+   *
+   * @param attackerDice
+   *          The number of dice the attacker rolls, must be > 0 and <= getMaxAttackerDice ().
+   * @param defenderDice
+   *          The number of dice the defender rolls, must be > 0 and <= getMaxDefenderDice ().
+   *
+   * @return A new array of length min (attackerDice, defenderDice) + 1.
+   */
+  public double[] getRoundDistribution (final int attackerDice, final int defenderDice)
+  {
+    return roundOutcomesFor (attackerDice, defenderDice).clone ();
+  }
+
+  /**
+   * Gets the probability that the attacker eliminates all armies of the defender, attacking until it wins or has no
+   * attacking armies left.
+   *
+   * @param attackerArmies
+   *          The number of armies the attacker attacks with, must be >= 0.
+   * @param defenderArmies
+   *          The number of armies of the defender, must be >= 0.
+   */
+  public double getAttackerWinProbability (final int attackerArmies, final int defenderArmies)
+  {
+    Arguments.checkIsNotNegative (attackerArmies, "attackerArmies");
+    Arguments.checkIsNotNegative (defenderArmies, "defenderArmies");
+
+    return attackerWinProbabilitiesFor (attackerArmies, defenderArmies) [attackerArmies][defenderArmies];
+  }
+
+  /**
+   * Gets the distribution of the armies that are left when a battle ends, attacking until either side has no armies
+   * left.
+   *
+   * @param attackerArmies
+   *          The number of armies the attacker attacks with, must be >= 0.
+   * @param defenderArmies
+   *          The number of armies of the defender, must be >= 0.
+   *
+   * @return A new [attackerArmies + 1][defenderArmies + 1] table of the probability of ending with the attacker having
+   *         [a] & the defender having [d] armies left, which is zero unless either a or d is zero.
+   */
+  public double[][] getFinalStateDistribution (final int attackerArmies, final int defenderArmies)
+  {
+    Arguments.checkIsNotNegative (attackerArmies, "attackerArmies");
+    Arguments.checkIsNotNegative (defenderArmies, "defenderArmies");
+
+    final double[][] probabilities = new double [attackerArmies + 1][defenderArmies + 1];
+
+    probabilities [attackerArmies][defenderArmies] = 1.0;
+
+    // Armies are only ever lost, so visiting states from the most to the fewest armies propagates all probability
+    // mass into a state before it is propagated out of it.
+    for (int a = attackerArmies; a >= 1; --a)
+    {
+      for (int d = defenderArmies; d >= 1; --d)
+      {
+        final double probability = probabilities [a][d];
+
+        if (probability == 0.0) continue;
+
+        final double[] outcomes = roundOutcomes [Math.min (a, maxAttackerDice)][Math.min (d, maxDefenderDice)];
+        final int comparedDice = outcomes.length - 1;
+
+        for (int attackerLosses = 0; attackerLosses <= comparedDice; ++attackerLosses)
+        {
+          final int defenderLosses = comparedDice - attackerLosses;
+
+          probabilities [a - attackerLosses][d - defenderLosses] += probability * outcomes [attackerLosses];
+        }
+
+        probabilities [a][d] = 0.0;
+      }
+    }
+
+    return probabilities;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return Strings.format ("{}: Max attacker dice: {} | Max defender dice: {} | Round outcomes: {}",
+                           getClass ().getSimpleName (), maxAttackerDice, maxDefenderDice,
+                           Arrays.deepToString (roundOutcomes));
+  }
+
+  private double[] roundOutcomesFor (final int attackerDice, final int defenderDice)
+  {
+    Arguments.checkLowerInclusiveBound (attackerDice, 1, "attackerDice");
+    Arguments.checkUpperInclusiveBound (attackerDice, maxAttackerDice, "attackerDice", "maxAttackerDice");
+    Arguments.checkLowerInclusiveBound (defenderDice, 1, "defenderDice");
+    Arguments.checkUpperInclusiveBound (defenderDice, maxDefenderDice, "defenderDice", "maxDefenderDice");
+
+    return roundOutcomes [attackerDice][defenderDice];
+  }
+
+  private double[][] attackerWinProbabilitiesFor (final int attackerArmies, final int defenderArmies)
+  {
+    final double[][] table = attackerWinProbabilities;
+
+    if (attackerArmies < table.length && defenderArmies < table [0].length) return table;
+
+    synchronized (this)
+    {
+      final double[][] currentTable = attackerWinProbabilities;
+      final int currentAttackerArmies = currentTable.length - 1;
+      final int currentDefenderArmies = currentTable.length > 0 ? currentTable [0].length - 1 : -1;
+
+      if (attackerArmies <= currentAttackerArmies && defenderArmies <= currentDefenderArmies) return currentTable;
+
+      final double[][] grownTable = computeAttackerWinProbabilities (
+              grow (currentAttackerArmies, attackerArmies), grow (currentDefenderArmies, defenderArmies));
+
+      attackerWinProbabilities = grownTable;
+
+      return grownTable;
+    }
+  }
+
+  /**
+   * P (a, d) = sum over the outcomes of the first round of P (outcome) * P (a - attackerLosses, d - defenderLosses),
+   * where P (a, 0) = 1 for a > 0 and P (0, d) = 0.
+   */
+  private double[][] computeAttackerWinProbabilities (final int maxAttackerArmies, final int maxDefenderArmies)
+  {
+    final double[][] probabilities = new double [maxAttackerArmies + 1][maxDefenderArmies + 1];
+
+    for (int a = 1; a <= maxAttackerArmies; ++a)
+    {
+      probabilities [a][0] = 1.0;
+
+      for (int d = 1; d <= maxDefenderArmies; ++d)
+      {
+        final double[] outcomes = roundOutcomes [Math.min (a, maxAttackerDice)][Math.min (d, maxDefenderDice)];
+        final int comparedDice = outcomes.length - 1;
+        double probability = 0.0;
+
+        for (int attackerLosses = 0; attackerLosses <= comparedDice; ++attackerLosses)
+        {
+          final int defenderLosses = comparedDice - attackerLosses;
+
+          probability += outcomes [attackerLosses] * probabilities [a - attackerLosses][d - defenderLosses];
+        }
+
+        probabilities [a][d] = probability;
+      }
+    }
+
+    return probabilities;
+  }
+
+  private static int grow (final int currentMax, final int requiredMax)
+  {
+    return Math.max (requiredMax, Math.max (INITIAL_ARMIES, currentMax * 2));
+  }
+
+  private static double[] enumerateRoundOutcomes (final int attackerDice, final int defenderDice)
+  {
+    final int comparedDice = Math.min (attackerDice, defenderDice);
+    final int totalDice = attackerDice + defenderDice;
+    final int[] dice = new int [totalDice];
+    final long[] counts = new long [comparedDice + 1];
+    final int[] attackerRolls = new int [attackerDice];
+    final int[] defenderRolls = new int [defenderDice];
+    long rollCount = 0;
+
+    Arrays.fill (dice, 1);
+
+    do
+    {
+      System.arraycopy (dice, 0, attackerRolls, 0, attackerDice);
+      System.arraycopy (dice, attackerDice, defenderRolls, 0, defenderDice);
+      DiceUtils.sortDescending (attackerRolls, 0, attackerDice);
+      DiceUtils.sortDescending (defenderRolls, 0, defenderDice);
+
+      int attackerLosses = 0;
+
+      for (int i = 0; i < comparedDice; ++i)
+      {
+        if (attackerRolls [i] <= defenderRolls [i]) ++attackerLosses;
+      }
+
+      ++counts [attackerLosses];
+      ++rollCount;
+    }
+    while (nextRoll (dice));
+
+    final double[] outcomes = new double [comparedDice + 1];
+
+    for (int i = 0; i < outcomes.length; ++i)
+    {
+      outcomes [i] = counts [i] / (double) rollCount;
+    }
+
+    return outcomes;
+  }
+
+  /**
+   * Advances the specified dice to the next combination of faces, like an odometer.
+   *
+   * @return False if all combinations have been visited.
+   */
+  private static boolean nextRoll (final int[] dice)
+  {
+    for (int i = 0; i < dice.length; ++i)
+    {
+      if (dice [i] < DiceUtils.FACES_PER_DIE)
+      {
+        ++dice [i];
+
+        return true;
+      }
+
+      dice [i] = 1;
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,532 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import com.forerunnergames.tools.common.graph.GraphModel;
+import com.forerunnergames.tools.common.random.FastRandom;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Estimates the outcomes of attack chains by Monte-Carlo rollouts, run in parallel on a fork-join pool, for AI players
+ * evaluating attacks that are too long for the exact tables of {@link BattleOdds}.
+ * <p/>
+ * An attack chain is a sequence of defending territories, e.g., a path through a {@link GraphModel} (see
+ * {@link #defenderArmiesAlong(GraphModel, List, Map)}), which the attacker conquers one after another, until it has
+ * conquered the whole chain, or has no attacking armies left.
+ * <p/>
+ * Each territory is conquered in a battle by the rules of {@link BattleOdds}: in each round, the attacker rolls up to
+ * maxAttackerDice dice & the defender rolls up to maxDefenderDice dice, each limited by their number of armies. The
+ * highest dice of both sides are compared pairwise, & the side with the lower die of each pair loses one army, the
+ * attacker losing ties. Once a territory is conquered, armiesLeftBehind of the remaining attacking armies stay behind
+ * to occupy it, including the last territory of the chain, so the attacker may conquer a territory, yet have no armies
+ * left to attack the next one with. The remaining armies of a rollout are counted after leaving armies behind.
+ * <p/>
+ * Rollouts are run in batches. Every task of a batch rolls its dice with its own {@link FastRandom}, split from the
+ * generator of its parent task, so no generator is ever shared between threads, & results are reproducible for a given
+ * seed, regardless of the pool. Simulation stops early as soon as the confidence interval of the probability of
+ * conquering the whole chain is narrow enough.
+ * <p/>
+ * Thread-safe: {@link #simulate(int, int...)} is synchronized, because every batch splits the generator of the
+ * simulator, so simulations of the same simulator are run one at a time, each in parallel on the pool. Use separate
+ * simulators to run independent simulations concurrently.
+ */
+public final class BattleSimulator
+{
+  private static final int ROLLOUTS_PER_TASK = 4096;
+  private static final ForkJoinPool DEFAULT_POOL = new ForkJoinPool ();
+  private final ForkJoinPool pool;
+  private final FastRandom random;
+  private final int maxAttackerDice;
+  private final int maxDefenderDice;
+  private final int armiesLeftBehind;
+  private final long minRollouts;
+  private final long maxRollouts;
+  private final int batchSize;
+  private final double targetHalfWidth;
+  private final double zScore;
+
+  public static Builder builder ()
+  {
+    return new Builder ();
+  }
+
+  /**
+   * Gets the armies of the territories along the specified path, which is the attack chain starting from the first
+   * territory of the path.
+   *
+   * @param graph
+   *          The graph of territories, must not be null.
+   * @param path
+   *          The attacking territory followed by the territories to conquer, in order, must not be null, must contain
+   *          at least two territories, each adjacent to the previous one.
+   * @param armies
+   *          The number of armies of each territory, must not be null, must contain at least one army for every
+   *          territory to conquer.
+   *
+   * @return The armies of the territories to conquer, in order.
+   */
+  public static <T> int[] defenderArmiesAlong (final GraphModel <T> graph,
+                                               final List <T> path,
+                                               final Map <T, Integer> armies)
+  {
+    Arguments.checkIsNotNull (graph, "graph");
+    Arguments.checkIsNotNull (path, "path");
+    Arguments.checkHasNoNullElements (path, "path");
+    Arguments.checkIsNotNull (armies, "armies");
+    Arguments.checkLowerInclusiveBound (path.size (), 2, "path.size ()");
+
+    final int[] defenderArmies = new int [path.size () - 1];
+
+    for (int i = 1; i < path.size (); ++i)
+    {
+      final T territory = path.get (i);
+      final Integer territoryArmies = armies.get (territory);
+
+      Arguments.checkIsTrue (graph.areAdjacent (path.get (i - 1), territory),
+                             Strings.format ("[{}] is not adjacent to [{}].", territory, path.get (i - 1)));
+      Arguments.checkIsTrue (territoryArmies != null && territoryArmies > 0,
+                             Strings.format ("[{}] must have at least one army, but has [{}].", territory,
+                                             territoryArmies));
+
+      defenderArmies [i - 1] = territoryArmies;
+    }
+
+    return defenderArmies;
+  }
+
+  /**
+   * Simulates the specified attack chain until the confidence interval is narrow enough, or the maximum number of
+   * rollouts has been reached.
+   *
+   * @param attackerArmies
+   *          The number of armies the attacker attacks with, excluding the armies that stay in the attacking territory,
+   *          must be > 0.
+   * @param defenderArmies
+   *          The armies of each territory to conquer, in order, must not be null or empty, must all be > 0.
+   */
+  public synchronized Result simulate (final int attackerArmies, final int... defenderArmies)
+  {
+    Arguments.checkLowerInclusiveBound (attackerArmies, 1, "attackerArmies");
+    Arguments.checkIsNotNullOrEmpty (defenderArmies, "defenderArmies");
+
+    for (final int armies : defenderArmies)
+    {
+      Arguments.checkLowerInclusiveBound (armies, 1, "defenderArmies");
+    }
+
+    final Tally total = new Tally (attackerArmies, defenderArmies.length);
+    boolean hasConverged = false;
+
+    while (total.rollouts < maxRollouts && !hasConverged)
+    {
+      final long rollouts = Math.min (batchSize, maxRollouts - total.rollouts);
+
+      total.add (pool.invoke (new RolloutTask (attackerArmies, defenderArmies, rollouts, random.split ())));
+
+      hasConverged = total.rollouts >= minRollouts && halfWidthOf (total) <= targetHalfWidth;
+    }
+
+    return new Result (total, halfWidthOf (total), hasConverged);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return Strings.format ("{}: Max attacker dice: {} | Max defender dice: {} | Armies left behind: {} | "
+                                   + "Rollouts: [{}, {}] | Batch size: {} | Target half width: {} | Z-score: {}",
+                           getClass ().getSimpleName (), maxAttackerDice, maxDefenderDice, armiesLeftBehind,
+                           minRollouts, maxRollouts, batchSize, targetHalfWidth, zScore);
+  }
+
+  /**
+   * The half width of the Agresti-Coull confidence interval of the probability of conquering the whole chain, which,
+   * unlike the plain normal approximation, does not collapse to zero while no rollout, or every rollout, has succeeded.
+   */
+  private double halfWidthOf (final Tally tally)
+  {
+    final double z2 = zScore * zScore;
+    final double n = tally.rollouts + z2;
+    final double p = (tally.wins + z2 / 2) / n;
+
+    return zScore * Math.sqrt (p * (1 - p) / n);
+  }
+
+  private BattleSimulator (final Builder builder)
+  {
+    pool = builder.pool;
+    random = builder.hasSeed ? new FastRandom (builder.seed) : Randomness.newFastRandom ();
+    maxAttackerDice = builder.maxAttackerDice;
+    maxDefenderDice = builder.maxDefenderDice;
+    armiesLeftBehind = builder.armiesLeftBehind;
+    minRollouts = builder.minRollouts;
+    maxRollouts = builder.maxRollouts;
+    batchSize = builder.batchSize;
+    targetHalfWidth = builder.targetHalfWidth;
+    zScore = builder.zScore;
+  }
+
+  /**
+   * The aggregated outcomes of the rollouts of an attack chain.
+   */
+  public static final class Result
+  {
+    private final long rolloutCount;
+    private final long winCount;
+    private final long[] conqueredTerritoriesHistogram;
+    private final long[] remainingArmiesHistogram;
+    private final double confidenceHalfWidth;
+    private final boolean hasConverged;
+
+    public long getRolloutCount ()
+    {
+      return rolloutCount;
+    }
+
+    /**
+     * @return The estimated probability of conquering the whole chain.
+     */
+    public double getWinProbability ()
+    {
+      return winCount / (double) rolloutCount;
+    }
+
+    /**
+     * @return The half width of the confidence interval of {@link #getWinProbability()}.
+     */
+    public double getConfidenceHalfWidth ()
+    {
+      return confidenceHalfWidth;
+    }
+
+    /**
+     * @return Whether simulation stopped because the confidence interval was narrow enough, rather than because the
+     *         maximum number of rollouts was reached.
+     */
+    public boolean hasConverged ()
+    {
+      return hasConverged;
+    }
+
+    /**
+     * @return A new array of the number of rollouts, indexed by the number of territories conquered.
+     */
+    public long[] getConqueredTerritoriesHistogram ()
+    {
+      return conqueredTerritoriesHistogram.clone ();
+    }
+
+    /**
+     * @return A new array of the number of rollouts, indexed by the number of attacking armies left at the end.
+     */
+    public long[] getRemainingArmiesHistogram ()
+    {
+      return remainingArmiesHistogram.clone ();
+    }
+
+    public double getExpectedConqueredTerritories ()
+    {
+      return meanOf (conqueredTerritoriesHistogram);
+    }
+
+    public double getExpectedRemainingArmies ()
+    {
+      return meanOf (remainingArmiesHistogram);
+    }
+
+    @Override
+    public String toString ()
+    {
+      return Strings.format ("{}: Rollouts: {} | Win probability: {} ± {} | Converged: {} | "
+                                     + "Conquered territories: {} | Remaining armies: {}",
+                             getClass ().getSimpleName (), rolloutCount, getWinProbability (), confidenceHalfWidth,
+                             hasConverged, Arrays.toString (conqueredTerritoriesHistogram),
+                             Arrays.toString (remainingArmiesHistogram));
+    }
+
+    private double meanOf (final long[] histogram)
+    {
+      double sum = 0;
+
+      for (int i = 0; i < histogram.length; ++i)
+      {
+        sum += (double) i * histogram [i];
+      }
+
+      return sum / rolloutCount;
+    }
+
+    private Result (final Tally tally, final double confidenceHalfWidth, final boolean hasConverged)
+    {
+      rolloutCount = tally.rollouts;
+      winCount = tally.wins;
+      conqueredTerritoriesHistogram = tally.conqueredTerritories;
+      remainingArmiesHistogram = tally.remainingArmies;
+      this.confidenceHalfWidth = confidenceHalfWidth;
+      this.hasConverged = hasConverged;
+    }
+  }
+
+  public static final class Builder
+  {
+    private ForkJoinPool pool = DEFAULT_POOL;
+    private boolean hasSeed = false;
+    private long seed;
+    private int maxAttackerDice = 3;
+    private int maxDefenderDice = 2;
+    private int armiesLeftBehind = 1;
+    private long minRollouts = 10000;
+    private long maxRollouts = 10000000;
+    private int batchSize = 100000;
+    private double targetHalfWidth = 0.001;
+    private double zScore = 1.96;
+
+    /**
+     * The pool to run rollouts on, which is owned by the caller. Defaults to a pool shared by all simulators, with one
+     * thread per available processor.
+     */
+    public Builder withPool (final ForkJoinPool pool)
+    {
+      Arguments.checkIsNotNull (pool, "pool");
+
+      this.pool = pool;
+
+      return this;
+    }
+
+    /**
+     * The seed of the generators, for reproducible results. Defaults to a seed from {@link Randomness}.
+     */
+    public Builder withSeed (final long seed)
+    {
+      this.seed = seed;
+      hasSeed = true;
+
+      return this;
+    }
+
+    /**
+     * The maximum number of dice rolled per round by the attacker & the defender. Defaults to 3 & 2.
+     */
+    public Builder withMaxDice (final int maxAttackerDice, final int maxDefenderDice)
+    {
+      Arguments.checkLowerInclusiveBound (maxAttackerDice, 1, "maxAttackerDice");
+      Arguments.checkLowerInclusiveBound (maxDefenderDice, 1, "maxDefenderDice");
+
+      this.maxAttackerDice = maxAttackerDice;
+      this.maxDefenderDice = maxDefenderDice;
+
+      return this;
+    }
+
+    /**
+     * The number of attacking armies left behind in each conquered territory. Defaults to 1.
+     */
+    public Builder withArmiesLeftBehind (final int armiesLeftBehind)
+    {
+      Arguments.checkLowerInclusiveBound (armiesLeftBehind, 1, "armiesLeftBehind");
+
+      this.armiesLeftBehind = armiesLeftBehind;
+
+      return this;
+    }
+
+    /**
+     * The minimum & maximum number of rollouts per simulation. Defaults to 10,000 & 10,000,000.
+     */
+    public Builder withRollouts (final long minRollouts, final long maxRollouts)
+    {
+      Arguments.checkLowerInclusiveBound (minRollouts, 1, "minRollouts");
+      Arguments.checkUpperInclusiveBound (minRollouts, maxRollouts, "minRollouts", "maxRollouts");
+
+      this.minRollouts = minRollouts;
+      this.maxRollouts = maxRollouts;
+
+      return this;
+    }
+
+    /**
+     * The number of rollouts between checks of the confidence interval. Defaults to 100,000.
+     */
+    public Builder withBatchSize (final int batchSize)
+    {
+      Arguments.checkLowerInclusiveBound (batchSize, 1, "batchSize");
+
+      this.batchSize = batchSize;
+
+      return this;
+    }
+
+    /**
+     * Stops simulating once the half width of the confidence interval of the win probability is at most the specified
+     * value, with the confidence level of the specified z-score. Defaults to 0.001 at 95% confidence (z = 1.96).
+     */
+    public Builder withTargetHalfWidth (final double targetHalfWidth, final double zScore)
+    {
+      Arguments.checkIsTrue (targetHalfWidth > 0 && targetHalfWidth < 1,
+                             "targetHalfWidth must be > 0 and < 1, but was [" + targetHalfWidth + "].");
+      Arguments.checkIsTrue (zScore > 0, "zScore must be > 0, but was [" + zScore + "].");
+
+      this.targetHalfWidth = targetHalfWidth;
+      this.zScore = zScore;
+
+      return this;
+    }
+
+    public BattleSimulator build ()
+    {
+      return new BattleSimulator (this);
+    }
+
+    private Builder ()
+    {
+    }
+  }
+
+  private static final class Tally
+  {
+    private final long[] conqueredTerritories;
+    private final long[] remainingArmies;
+    private long rollouts = 0;
+    private long wins = 0;
+
+    Tally (final int attackerArmies, final int territoryCount)
+    {
+      conqueredTerritories = new long [territoryCount + 1];
+      remainingArmies = new long [attackerArmies + 1];
+    }
+
+    void add (final Tally tally)
+    {
+      rollouts += tally.rollouts;
+      wins += tally.wins;
+
+      for (int i = 0; i < conqueredTerritories.length; ++i)
+      {
+        conqueredTerritories [i] += tally.conqueredTerritories [i];
+      }
+
+      for (int i = 0; i < remainingArmies.length; ++i)
+      {
+        remainingArmies [i] += tally.remainingArmies [i];
+      }
+    }
+  }
+
+  private final class RolloutTask extends RecursiveTask <Tally>
+  {
+    private static final long serialVersionUID = 1L;
+    private final int attackerArmies;
+    private final int[] defenderArmies;
+    private final long rollouts;
+    private final FastRandom random;
+
+    RolloutTask (final int attackerArmies, final int[] defenderArmies, final long rollouts, final FastRandom random)
+    {
+      this.attackerArmies = attackerArmies;
+      this.defenderArmies = defenderArmies;
+      this.rollouts = rollouts;
+      this.random = random;
+    }
+
+    @Override
+    protected Tally compute ()
+    {
+      if (rollouts <= ROLLOUTS_PER_TASK) return rollOut ();
+
+      final long half = rollouts / 2;
+      final RolloutTask left = new RolloutTask (attackerArmies, defenderArmies, half, random.split ());
+      final RolloutTask right = new RolloutTask (attackerArmies, defenderArmies, rollouts - half, random);
+
+      left.fork ();
+
+      final Tally tally = right.compute ();
+
+      tally.add (left.join ());
+
+      return tally;
+    }
+
+    private Tally rollOut ()
+    {
+      final Tally tally = new Tally (attackerArmies, defenderArmies.length);
+      final int[] attackerRolls = new int [maxAttackerDice];
+      final int[] defenderRolls = new int [maxDefenderDice];
+
+      for (long r = 0; r < rollouts; ++r)
+      {
+        int attacker = attackerArmies;
+        int conquered = 0;
+
+        while (conquered < defenderArmies.length)
+        {
+          int defender = defenderArmies [conquered];
+
+          while (attacker > 0 && defender > 0)
+          {
+            final int attackerDice = Math.min (attacker, maxAttackerDice);
+            final int defenderDice = Math.min (defender, maxDefenderDice);
+
+            roll (attackerRolls, attackerDice);
+            roll (defenderRolls, defenderDice);
+
+            for (int i = 0; i < Math.min (attackerDice, defenderDice); ++i)
+            {
+              if (attackerRolls [i] > defenderRolls [i]) --defender;
+              else --attacker;
+            }
+          }
+
+          if (defender > 0) break;
+
+          ++conquered;
+          attacker = Math.max (attacker - armiesLeftBehind, 0);
+
+          if (attacker == 0) break;
+        }
+
+        ++tally.rollouts;
+        ++tally.conqueredTerritories [conquered];
+        ++tally.remainingArmies [attacker];
+
+        if (conquered == defenderArmies.length) ++tally.wins;
+      }
+
+      return tally;
+    }
+
+    private void roll (final int[] rolls, final int dieCount)
+    {
+      for (int i = 0; i < dieCount; ++i)
+      {
+        rolls [i] = random.nextInt (DiceUtils.FACES_PER_DIE) + 1;
+      }
+
+      DiceUtils.sortDescending (rolls, 0, dieCount);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+/**
+ * Produces the faces of rolled dice for a {@link DiceRoller}.
+ * <p/>
+ * Sources roll directly into the caller's array, so that rolling never needs to allocate, & rolling many dice costs a
+ * single call. Sources need not be thread-safe, because each roller, which is not thread-safe itself, owns its source,
+ * unless documented otherwise, e.g., {@link DiceRollSources#cryptographic()}.
+ *
+ * @see DiceRollSources
+ */
+public interface DiceRollSource
+{
+  /**
+   * Rolls the specified number of dice into the specified array.
+   *
+   * @param rolls
+   *          The array to store the rolled faces in, each from 1 to facesPerDie.
+   * @param offset
+   *          The index of the first rolled face to store.
+   * @param dieCount
+   *          The number of dice to roll.
+   * @param facesPerDie
+   *          The number of faces of each die.
+   */
+  void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie);
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import com.forerunnergames.tools.common.random.FastRandom;
+
+import java.util.Arrays;
+
+/**
+ * Factory methods for the common {@link DiceRollSource}'s: cryptographic for player-facing dice, fast for simulations
+ * & AI players, scripted for tests, & recorded or replayed to reproduce a game exactly.
+ * <p/>
+ * Only the cryptographic source is thread-safe & may be shared; every other call creates a new source, which should be
+ * owned by a single {@link DiceRoller}.
+ */
+public final class DiceRollSources
+{
+  /**
+   * @return A source rolling with the cryptographically secure generators of {@link Randomness}, for player-facing
+   *         dice. Thread-safe.
+   */
+  public static DiceRollSource cryptographic ()
+  {
+    return CryptographicDiceRollSource.INSTANCE;
+  }
+
+  /**
+   * @return A source rolling with a new {@link FastRandom} seeded from {@link Randomness}, for simulations & AI
+   *         players. Not thread-safe.
+   */
+  public static DiceRollSource fast ()
+  {
+    return new FastDiceRollSource (Randomness.newFastRandom ());
+  }
+
+  /**
+   * @return A source rolling with a new {@link FastRandom} with the specified seed, for reproducible simulations. Not
+   *         thread-safe.
+   */
+  public static DiceRollSource fast (final long seed)
+  {
+    return new FastDiceRollSource (new FastRandom (seed));
+  }
+
+  /**
+   * Creates a source of preset (fake) rolls, useful for testing purposes. The rolls are used on a first-in first-out
+   * basis, & are recycled from the beginning once they are all used up, indefinitely.
+   *
+   * @param rolls
+   *          The preset rolls, must not be null or empty, must all be > 0. Must not exceed the faces per die of the
+   *          dice being rolled. Not thread-safe.
+   */
+  public static DiceRollSource scripted (final int... rolls)
+  {
+    Arguments.checkIsNotNullOrEmpty (rolls, "rolls");
+
+    for (final int roll : rolls)
+    {
+      Arguments.checkLowerInclusiveBound (roll, 1, "rolls");
+    }
+
+    return new ScriptedDiceRollSource (rolls.clone (), true);
+  }
+
+  /**
+   * Creates a source replaying the specified rolls exactly once, e.g., recorded by a {@link RecordingDiceRollSource},
+   * which fails with an {@link IllegalStateException} when more dice are rolled than were recorded.
+   *
+   * @param rolls
+   *          The rolls to replay, must not be null, must all be > 0. Not thread-safe.
+   */
+  public static DiceRollSource replay (final int... rolls)
+  {
+    Arguments.checkIsNotNull (rolls, "rolls");
+
+    for (final int roll : rolls)
+    {
+      Arguments.checkLowerInclusiveBound (roll, 1, "rolls");
+    }
+
+    return new ScriptedDiceRollSource (rolls.clone (), false);
+  }
+
+  /**
+   * @return A source recording all rolls of the specified source, to be replayed later.
+   */
+  public static RecordingDiceRollSource recording (final DiceRollSource source)
+  {
+    return new RecordingDiceRollSource (source);
+  }
+
+  private DiceRollSources ()
+  {
+    Classes.instantiationNotAllowed ();
+  }
+
+  private static final class CryptographicDiceRollSource implements DiceRollSource
+  {
+    static final CryptographicDiceRollSource INSTANCE = new CryptographicDiceRollSource ();
+
+    @Override
+    public void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie)
+    {
+      Randomness.getRandomIntegersFrom (1, facesPerDie, rolls, offset, dieCount);
+    }
+
+    @Override
+    public String toString ()
+    {
+      return getClass ().getSimpleName ();
+    }
+  }
+
+  private static final class FastDiceRollSource implements DiceRollSource
+  {
+    private final FastRandom random;
+
+    FastDiceRollSource (final FastRandom random)
+    {
+      this.random = random;
+    }
+
+    @Override
+    public void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie)
+    {
+      for (int i = offset; i < offset + dieCount; ++i)
+      {
+        rolls [i] = random.nextInt (facesPerDie) + 1;
+      }
+    }
+
+    @Override
+    public String toString ()
+    {
+      return String.format ("%1$s: Random: %2$s", getClass ().getSimpleName (), random);
+    }
+  }
+
+  private static final class ScriptedDiceRollSource implements DiceRollSource
+  {
+    private final int[] scriptedRolls;
+    private final boolean isRecycled;
+    private int nextRoll = 0;
+
+    ScriptedDiceRollSource (final int[] scriptedRolls, final boolean isRecycled)
+    {
+      this.scriptedRolls = scriptedRolls;
+      this.isRecycled = isRecycled;
+    }
+
+    @Override
+    public void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie)
+    {
+      for (int i = offset; i < offset + dieCount; ++i)
+      {
+        if (isRecycled && nextRoll >= scriptedRolls.length) nextRoll = 0;
+
+        Preconditions.checkIsTrue (nextRoll < scriptedRolls.length,
+                                   "Cannot replay more than the [" + scriptedRolls.length + "] recorded rolls.");
+
+        final int roll = scriptedRolls [nextRoll++];
+
+        Preconditions.checkIsTrue (roll <= facesPerDie,
+                                   "Roll [" + roll + "] exceeds the [" + facesPerDie + "] faces of the die.");
+
+        rolls [i] = roll;
+      }
+    }
+
+    @Override
+    public String toString ()
+    {
+      return String.format ("%1$s: Rolls: %2$s | Next roll: %3$s | Recycled: %4$s", getClass ().getSimpleName (),
+                            Arrays.toString (scriptedRolls), nextRoll, isRecycled);
+    }
+  }
+}
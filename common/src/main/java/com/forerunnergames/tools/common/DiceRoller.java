@@ -0,0 +1,172 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Rolls 6-sided dice from a pluggable {@link DiceRollSource}, so that every game, test or simulation can own its own
+ * roll stream, e.g., cryptographic for real games, scripted for tests, or replayed from a recording, without sharing
+ * any state with other games.
+ * <p/>
+ * Single dice & roll sums are rolled into a scratch array owned by the roller, & all other rolls are rolled directly
+ * into the caller's array, so that no rolls allocate unless the source itself does, e.g., the cryptographic source
+ * never does.
+ * <p/>
+ * Not thread-safe, because of the shared scratch array (& because most sources are not thread-safe either): each game
+ * should own its own roller, which it then never needs to lock.
+ *
+ * @see DiceRollSources
+ */
+public final class DiceRoller
+{
+  private static final int INITIAL_SCRATCH_ROLL_COUNT = 8;
+  private final DiceRollSource source;
+  private int[] scratchRolls = new int [INITIAL_SCRATCH_ROLL_COUNT];
+
+  /**
+   * @return A roller using the cryptographically secure generators of {@link Randomness}.
+   */
+  public static DiceRoller cryptographic ()
+  {
+    return new DiceRoller (DiceRollSources.cryptographic ());
+  }
+
+  /**
+   * @param source
+   *          The source of the rolls, must not be null.
+   */
+  public DiceRoller (final DiceRollSource source)
+  {
+    Arguments.checkIsNotNull (source, "source");
+
+    this.source = source;
+  }
+
+  public DiceRollSource getSource ()
+  {
+    return source;
+  }
+
+  /**
+   * Roll a single die.
+   *
+   * @return The roll amount.
+   */
+  public int rollDie ()
+  {
+    source.roll (scratchRolls, 0, 1, DiceUtils.FACES_PER_DIE);
+
+    return scratchRolls [0];
+  }
+
+  /**
+   * Roll dieCount dice into the specified array, without allocating.
+   *
+   * @param rolls
+   *          The array to store the roll amounts in, must not be null.
+   * @param offset
+   *          The index of the first roll amount to store, must be >= 0.
+   * @param dieCount
+   *          The number of dice to roll, must be > 0 and <= rolls.length - offset.
+   */
+  public void rollDice (final int[] rolls, final int offset, final int dieCount)
+  {
+    Arguments.checkIsNotNull (rolls, "rolls");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkLowerExclusiveBound (dieCount, 0, "dieCount");
+    Arguments.checkUpperInclusiveBound (dieCount, rolls.length - offset, "dieCount", "rolls.length - offset");
+
+    source.roll (rolls, offset, dieCount, DiceUtils.FACES_PER_DIE);
+  }
+
+  /**
+   * Roll dieCount dice into the specified array, without allocating, sorted from highest to lowest.
+   *
+   * @see #rollDice(int[], int, int)
+   */
+  public void rollSortedDice (final int[] rolls, final int offset, final int dieCount)
+  {
+    rollDice (rolls, offset, dieCount);
+    DiceUtils.sortDescending (rolls, offset, dieCount);
+  }
+
+  /**
+   * Roll dieCount dice and get the resulting roll amounts.
+   *
+   * @param dieCount
+   *          The number of dice to roll, must be > 0.
+   *
+   * @return A collection of the roll amounts as integers.
+   */
+  public Collection <Integer> rollDice (final int dieCount)
+  {
+    Arguments.checkLowerExclusiveBound (dieCount, 0, "dieCount");
+
+    final int[] rolls = new int [dieCount];
+    final Collection <Integer> rollAmounts = new ArrayList <> (dieCount);
+
+    source.roll (rolls, 0, dieCount, DiceUtils.FACES_PER_DIE);
+
+    for (final int rollAmount : rolls)
+    {
+      rollAmounts.add (rollAmount);
+    }
+
+    return rollAmounts;
+  }
+
+  /**
+   * Roll dieCount dice and get the resulting roll sum, without allocating, unless more dice are rolled than ever before
+   * by this roller.
+   *
+   * @param dieCount
+   *          The number of dice to roll, must be > 0.
+   *
+   * @return The sum of the values of the individual dice.
+   */
+  public int rollSum (final int dieCount)
+  {
+    Arguments.checkLowerExclusiveBound (dieCount, 0, "dieCount");
+
+    if (dieCount > scratchRolls.length) scratchRolls = new int [Math.max (dieCount, scratchRolls.length * 2)];
+
+    source.roll (scratchRolls, 0, dieCount, DiceUtils.FACES_PER_DIE);
+
+    int sum = 0;
+
+    for (int i = 0; i < dieCount; ++i)
+    {
+      sum += scratchRolls [i];
+    }
+
+    return sum;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Source: %2$s", getClass ().getSimpleName (), source);
+  }
+}
@@ -26,9 +26,17 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+/**
+ * Rolls 6-sided dice using a cryptographically secure pseudo random number generator.
+ * <p/>
+ * The methods taking an int[] roll directly into the specified array, without boxing or allocation, for callers that
+ * roll very many dice. Exact battle odds are available from {@link BattleOdds} instead of being simulated.
+ * <p/>
+ * Games that need their own roll stream, e.g., scripted or replayed, should use a {@link DiceRoller} instead.
+ */
 public final class DiceUtils
 {
-  private static final int FACES_PER_DIE = 6;
+  static final int FACES_PER_DIE = 6;
   private static int currentTestRoll = 0;
   private static List <Integer> testRolls;
 
@@ -41,7 +49,11 @@ public final class DiceUtils
    * @return The roll amount.
    *
    * @see #setTestRolls(int...)
+   *
+   * @deprecated The test rolls are shared by all threads & games. Use a {@link DiceRoller} with
+   *             {@link DiceRollSources#scripted(int...)} instead, which is scoped to the game owning it.
    */
+  @Deprecated
   public static int getTestRoll ()
   {
     Preconditions.checkIsTrue (testRolls != null, "DiceUtils#setTestRolls must be called first.");
@@ -58,7 +70,11 @@ public final class DiceUtils
    *          The list of preset (fake) roll amounts, must not be null, must not be empty.
    *
    * @see #getTestRoll()
+   *
+   * @deprecated The test rolls are shared by all threads & games. Use a {@link DiceRoller} with
+   *             {@link DiceRollSources#scripted(int...)} instead, which is scoped to the game owning it.
    */
+  @Deprecated
   public static void setTestRolls (final int... rollAmounts)
   {
     Arguments.checkIsNotNullOrEmpty (rollAmounts, "rollAmounts");
@@ -83,19 +99,52 @@ public final class DiceUtils
   {
     Arguments.checkLowerExclusiveBound (dieCount, 0, "dieCount");
 
+    final int[] rollAmounts = Randomness.getRandomIntegersFrom (1, FACES_PER_DIE, dieCount);
     final Collection <Integer> rolls = new ArrayList <> (dieCount);
 
-    int rollAmount;
-
-    for (int i = 0; i < dieCount; ++i)
+    for (final int rollAmount : rollAmounts)
     {
-      rollAmount = Randomness.getRandomIntegerFrom (1, FACES_PER_DIE);
       rolls.add (rollAmount);
     }
 
     return rolls;
   }
 
+  /**
+   * Roll dieCount 6-sided dice into the specified array, without allocating.
+   *
+   * @param rolls
+   *          The array to store the roll amounts in, must not be null.
+   * @param offset
+   *          The index of the first roll amount to store, must be >= 0.
+   * @param dieCount
+   *          The number of dice to roll, must be > 0 and <= rolls.length - offset.
+   */
+  public static void rollDice (final int[] rolls, final int offset, final int dieCount)
+  {
+    Arguments.checkIsNotNull (rolls, "rolls");
+    Arguments.checkLowerExclusiveBound (dieCount, 0, "dieCount");
+
+    Randomness.getRandomIntegersFrom (1, FACES_PER_DIE, rolls, offset, dieCount);
+  }
+
+  /**
+   * Roll dieCount 6-sided dice into the specified array, without allocating, sorted from highest to lowest, as needed
+   * for comparing the dice of an attacker & a defender.
+   *
+   * @param rolls
+   *          The array to store the roll amounts in, must not be null.
+   * @param offset
+   *          The index of the first (highest) roll amount to store, must be >= 0.
+   * @param dieCount
+   *          The number of dice to roll, must be > 0 and <= rolls.length - offset.
+   */
+  public static void rollSortedDice (final int[] rolls, final int offset, final int dieCount)
+  {
+    rollDice (rolls, offset, dieCount);
+    sortDescending (rolls, offset, dieCount);
+  }
+
   /**
    * Roll dieCount 6-sided dice and get the resulting roll sum.
    *
@@ -110,7 +159,7 @@ public final class DiceUtils
 
     int sum = 0;
 
-    for (final Integer rollAmount : rollDice (dieCount))
+    for (final int rollAmount : Randomness.getRandomIntegersFrom (1, FACES_PER_DIE, dieCount))
     {
       sum += rollAmount;
     }
@@ -118,6 +167,26 @@ public final class DiceUtils
     return sum;
   }
 
+  /**
+   * Insertion sort, from highest to lowest, which is the fastest sort for the handful of dice rolled at once.
+   */
+  static void sortDescending (final int[] rolls, final int offset, final int length)
+  {
+    for (int i = offset + 1; i < offset + length; ++i)
+    {
+      final int roll = rolls [i];
+      int j = i - 1;
+
+      while (j >= offset && rolls [j] < roll)
+      {
+        rolls [j + 1] = rolls [j];
+        --j;
+      }
+
+      rolls [j + 1] = roll;
+    }
+  }
+
   private DiceUtils ()
   {
     Classes.instantiationNotAllowed ();
@@ -22,7 +22,11 @@
  */
 package com.forerunnergames.tools.common;
 
-import ch.fourmilab.randomx.RandomHotBits;
+import com.forerunnergames.tools.common.random.EntropyHarvester;
+import com.forerunnergames.tools.common.random.EntropySource;
+import com.forerunnergames.tools.common.random.FastRandom;
+import com.forerunnergames.tools.common.random.HotBitsEntropySource;
+import com.forerunnergames.tools.common.random.Ziggurat;
 
 import com.google.common.collect.Lists;
 
@@ -35,13 +39,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.RandomAccess;
+
+import javax.annotation.Nullable;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Utility class for random-number-related functionality
+ * <p/>
+ * Every thread uses its own cryptographically secure pseudo random number generator, which is independently seeded &
+ * reseeded according to the current {@link Mode}, so random numbers can be generated concurrently without contention.
  */
 public final class Randomness
 {
@@ -49,10 +63,13 @@ public final class Randomness
   private static final Logger log = LoggerFactory.getLogger (Randomness.class);
   private static final int SEED_BYTES = 8; // The number of bytes used to seed the pseudo random number generator.
   private static final int RESEED_THRESHOLD = 10000; // The number of random numbers that can be generated before reseeding.
-  private static final RandomHotBits TRNG = new RandomHotBits (); // True random number generator, used for seeding only, and only in RELEASE mode.
-  private static long reseedCounter = 0; // Keeps track of how many random numbers have been generated for reseeding purposes.
-  private static SecureRandom csprng; // Cryptographically secure pseudo random number generator.
-  private static Mode currentMode;
+  private static final int BLOCK_WORDS = 1024; // The maximum number of values generated at once by bulk methods.
+  private static final int BUFFERED_WORDS = 256; // The number of 32-bit words each generator buffers at once.
+  private static final ThreadLocal <Csprng> CSPRNGS = new ThreadLocal <> (); // One generator per thread, so that threads never contend.
+  private static volatile Mode currentMode;
+  private static EntropySource releaseEntropySource = new HotBitsEntropySource (SEED_BYTES * EntropyHarvester.DEFAULT_POOL_SIZE); // Used for seeding only, and only in RELEASE mode; downloads one pool of seeds per request.
+  @Nullable
+  private static volatile EntropyHarvester releaseEntropyHarvester; // Running only while in RELEASE mode.
   // @formatter:on
 
   // Initialize the random number generator.
@@ -72,10 +89,12 @@ public final class Randomness
     DEBUG,
 
     /**
-     * Uses HotBits entropy (https://www.fourmilab.ch/hotbits) to seed a cryptographically-secure random number
-     * generator. WARNING: HotBits will attempt to connect to and download the entropy from a remote server, so internet
-     * access is required, and the remote server must be online & functioning. If obtaining HotBits entropy fails, it
-     * will automatically fall back to using system entropy, with a log entry explaining what went wrong.
+     * Uses HotBits entropy (https://www.fourmilab.ch/hotbits), or the entropy source set with
+     * {@link #setReleaseEntropySourceTo(EntropySource)}, to seed a cryptographically-secure random number generator.
+     * The entropy is harvested in the background, so reseeding never blocks. WARNING: HotBits will attempt to connect
+     * to and download the entropy from a remote server, so internet access is required, and the remote server must be
+     * online & functioning. Whenever no harvested entropy is available, it will automatically fall back to using system
+     * entropy.
      */
     RELEASE
   }
@@ -94,38 +113,67 @@ public final class Randomness
   }
 
   /**
-   * Sets the specified mode. Idempotent - nothing will happen if the specified mode has already been set.
+   * Sets the specified mode. Idempotent - nothing will happen if the specified mode has already been set. Setting RELEASE
+   * mode starts harvesting the release entropy source in the background, & leaving it stops harvesting.
    *
    * @param mode
    *          The mode to set, must not be null.
    *
    * @see #isMode
    */
-  public static void setModeTo (final Mode mode)
+  public static synchronized void setModeTo (final Mode mode)
   {
     Arguments.checkIsNotNull (mode, "mode");
 
     if (isMode (mode)) return;
 
+    if (mode == Mode.RELEASE && releaseEntropyHarvester == null)
+    {
+      releaseEntropyHarvester = EntropyHarvester.start (releaseEntropySource, SEED_BYTES);
+    }
+
+    if (mode != Mode.RELEASE && releaseEntropyHarvester != null)
+    {
+      // Stop harvesting entropy that will no longer be used; it's restarted whenever RELEASE mode is set again.
+      releaseEntropyHarvester.close ();
+      releaseEntropyHarvester = null;
+    }
+
     currentMode = mode;
 
-    createCsprng ();
+    // The generators of other threads are replaced on their next use.
+    CSPRNGS.set (new Csprng (mode));
+  }
 
-    switch (mode)
-    {
-      case DEBUG:
-      {
-        reseedCsprngWithSystemEntropy ();
+  /**
+   * @return The entropy source used for seeding in RELEASE mode.
+   *
+   * @see #setReleaseEntropySourceTo(EntropySource)
+   */
+  public static synchronized EntropySource getReleaseEntropySource ()
+  {
+    return releaseEntropySource;
+  }
 
-        break;
-      }
-      case RELEASE:
-      {
-        reseedCsprngWithHotBitsEntropy ();
+  /**
+   * Sets the entropy source used for seeding in RELEASE mode, e.g., a
+   * {@link com.forerunnergames.tools.common.random.FileEntropySource} for running offline. The source is harvested in
+   * the background, starting immediately if RELEASE mode is already set, & otherwise as soon as it is set.
+   *
+   * @param source
+   *          The entropy source, must not be null.
+   */
+  public static synchronized void setReleaseEntropySourceTo (final EntropySource source)
+  {
+    Arguments.checkIsNotNull (source, "source");
 
-        break;
-      }
-    }
+    releaseEntropySource = source;
+
+    final EntropyHarvester previousHarvester = releaseEntropyHarvester;
+
+    releaseEntropyHarvester = isMode (Mode.RELEASE) ? EntropyHarvester.start (source, SEED_BYTES) : null;
+
+    if (previousHarvester != null) previousHarvester.close ();
   }
 
   /**
@@ -153,11 +201,13 @@ public final class Randomness
     assert n > 0;
     assert n <= (long) Integer.MAX_VALUE;
 
-    checkCsprngUsage ();
+    final Csprng csprng = csprng ();
 
-    final long randomNumber = (long) inclusiveLowerBound + csprng.nextInt ((int) n);
+    csprng.checkUsage ();
 
-    updateCsprngUsage (1);
+    final long randomNumber = (long) inclusiveLowerBound + csprng.random.nextInt ((int) n);
+
+    csprng.updateUsage (1);
 
     assert randomNumber >= inclusiveLowerBound;
     assert randomNumber <= inclusiveUpperBound;
@@ -165,25 +215,288 @@ public final class Randomness
     return (int) randomNumber;
   }
 
+  /**
+   * Gets the specified number of random integers in the range [inclusiveLowerBound, inclusiveUpperBound] using a
+   * cryptographically secure pseudo random number generator.
+   *
+   * @see #getRandomIntegersFrom(int, int, int[], int, int)
+   */
+  public static int[] getRandomIntegersFrom (final int inclusiveLowerBound,
+                                             final int inclusiveUpperBound,
+                                             final int count)
+  {
+    Arguments.checkIsNotNegative (count, "count");
+
+    final int[] values = new int [count];
+
+    getRandomIntegersFrom (inclusiveLowerBound, inclusiveUpperBound, values, 0, count);
+
+    return values;
+  }
+
+  /**
+   * Fills a range of the specified array with random integers in the range [inclusiveLowerBound, inclusiveUpperBound]
+   * using a cryptographically secure pseudo random number generator.
+   * <p/>
+   * The arguments are checked once per call, & the random bits are taken from a buffer of the current thread, which is
+   * refilled in blocks, so nothing is allocated. They are mapped onto the range without bias using Lemire's
+   * multiply-shift rejection method ("Fast Random Integer Generation in an Interval", ACM TOMACS, 2019), so this is
+   * much faster than calling {@link #getRandomIntegerFrom(int, int)} repeatedly.
+   *
+   * @param inclusiveLowerBound
+   *          The inclusive lower bound, must be >= 0 and <= inclusiveUpperBound and < Integer.MAX_VALUE.
+   * @param inclusiveUpperBound
+   *          The inclusive upper bound, must be >= 0 and >= inclusiveLowerBound and < Integer.MAX_VALUE.
+   * @param values
+   *          The array to fill, must not be null.
+   * @param offset
+   *          The index of the first integer to store, must be >= 0.
+   * @param count
+   *          The number of integers to store, must be >= 0 and <= values.length - offset.
+   */
+  public static void getRandomIntegersFrom (final int inclusiveLowerBound,
+                                            final int inclusiveUpperBound,
+                                            final int[] values,
+                                            final int offset,
+                                            final int count)
+  {
+    Arguments.checkIsNotNegative (inclusiveLowerBound, "inclusiveLowerBound");
+    Arguments.checkIsNotNegative (inclusiveUpperBound, "inclusiveUpperBound");
+    Arguments.checkUpperExclusiveBound (inclusiveLowerBound, Integer.MAX_VALUE, "inclusiveLowerBound",
+                                        "Integer.MAX_VALUE");
+    Arguments.checkUpperExclusiveBound (inclusiveUpperBound, Integer.MAX_VALUE, "inclusiveUpperBound",
+                                        "Integer.MAX_VALUE");
+    Arguments.checkUpperInclusiveBound (inclusiveLowerBound, inclusiveUpperBound, "inclusiveLowerBound",
+                                        "inclusiveUpperBound");
+    Arguments.checkIsNotNull (values, "values");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkIsNotNegative (count, "count");
+    Arguments.checkUpperInclusiveBound (count, values.length - offset, "count", "values.length - offset");
+
+    final long n = (long) inclusiveUpperBound - inclusiveLowerBound + 1;
+
+    // Products whose low 32 bits fall below this threshold would make some values more likely than others.
+    final long threshold = (0x100000000L - n) % n;
+    final Csprng csprng = csprng ();
+    int i = offset;
+
+    while (i < offset + count)
+    {
+      final long product = csprng.nextWord () * n;
+
+      if ((product & 0xFFFFFFFFL) < threshold) continue;
+
+      values [i++] = (int) (inclusiveLowerBound + (product >>> 32));
+    }
+  }
+
+  /**
+   * Gets a normally distributed random number with a mean of 0.0 & a standard deviation of 1.0, sampled with the
+   * {@link Ziggurat} method using a cryptographically secure pseudo random number generator.
+   */
+  public static double getRandomGaussian ()
+  {
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
+
+    final double value = Ziggurat.nextGaussian (csprng.random);
+
+    csprng.updateUsage (1);
+
+    return value;
+  }
+
+  /**
+   * Gets an exponentially distributed random number with a rate (& mean) of 1.0, sampled with the {@link Ziggurat}
+   * method using a cryptographically secure pseudo random number generator.
+   */
+  public static double getRandomExponential ()
+  {
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
+
+    final double value = Ziggurat.nextExponential (csprng.random);
+
+    csprng.updateUsage (1);
+
+    return value;
+  }
+
+  /**
+   * Fills a range of the specified array with normally distributed random numbers, sampled with the {@link Ziggurat}
+   * method using a cryptographically secure pseudo random number generator.
+   *
+   * @param values
+   *          The array to fill, must not be null.
+   * @param offset
+   *          The index of the first number to store, must be >= 0.
+   * @param count
+   *          The number of numbers to store, must be >= 0 and <= values.length - offset.
+   * @param mean
+   *          The mean of the distribution.
+   * @param standardDeviation
+   *          The standard deviation of the distribution, must be >= 0.
+   */
+  public static void getRandomGaussians (final double[] values,
+                                         final int offset,
+                                         final int count,
+                                         final double mean,
+                                         final double standardDeviation)
+  {
+    Arguments.checkIsNotNull (values, "values");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkIsNotNegative (count, "count");
+    Arguments.checkUpperInclusiveBound (count, values.length - offset, "count", "values.length - offset");
+    Arguments.checkIsNotNegative (standardDeviation, "standardDeviation");
+
+    final Csprng csprng = csprng ();
+
+    for (int i = offset; i < offset + count; i += BLOCK_WORDS)
+    {
+      final int blockCount = Math.min (offset + count - i, BLOCK_WORDS);
+
+      csprng.checkUsage ();
+      Ziggurat.nextGaussians (csprng.random, values, i, blockCount, mean, standardDeviation);
+      csprng.updateUsage (blockCount);
+    }
+  }
+
+  /**
+   * Fills a range of the specified array with exponentially distributed random numbers, sampled with the
+   * {@link Ziggurat} method using a cryptographically secure pseudo random number generator.
+   *
+   * @param values
+   *          The array to fill, must not be null.
+   * @param offset
+   *          The index of the first number to store, must be >= 0.
+   * @param count
+   *          The number of numbers to store, must be >= 0 and <= values.length - offset.
+   * @param mean
+   *          The mean of the distribution, i.e., the reciprocal of its rate, must be >= 0.
+   */
+  public static void getRandomExponentials (final double[] values, final int offset, final int count, final double mean)
+  {
+    Arguments.checkIsNotNull (values, "values");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkIsNotNegative (count, "count");
+    Arguments.checkUpperInclusiveBound (count, values.length - offset, "count", "values.length - offset");
+    Arguments.checkIsNotNegative (mean, "mean");
+
+    final Csprng csprng = csprng ();
+
+    for (int i = offset; i < offset + count; i += BLOCK_WORDS)
+    {
+      final int blockCount = Math.min (offset + count - i, BLOCK_WORDS);
+
+      csprng.checkUsage ();
+      Ziggurat.nextExponentials (csprng.random, values, i, blockCount, mean);
+      csprng.updateUsage (blockCount);
+    }
+  }
+
   /**
    * Obtains a random element from the specified collection using a cryptographically secure pseudo random number
    * generator.
+   * <p/>
+   * Only a single random number is generated. The element is obtained by index from {@link RandomAccess} lists, in
+   * constant time, & by iteration from all other collections.
    *
    * @param <T>
    *          The element type of the specified collection.
    * @param collection
    *          The collection to obtain a random element from, must not be null, must not contain null elements, must not
-   *          be empty.
+   *          be empty. Only the obtained element is checked for null.
    *
    * @return A random element from the specified collection.
    */
   public static <T> T getRandomElementFrom (final Collection <T> collection)
   {
     Arguments.checkIsNotNull (collection, "collection");
-    Arguments.checkHasNoNullElements (collection, "collection");
     Preconditions.checkIsFalse (collection.isEmpty (), "Cannot get random element from an empty collection.");
 
-    return shuffle (collection).get (0);
+    final T element = elementAt (collection, nextIndex (collection.size ()));
+
+    Arguments.checkIsFalse (element == null, "collection must not contain null elements.");
+
+    return element;
+  }
+
+  /**
+   * Obtains a random element from the specified iterable in a single pass, using reservoir sampling with a
+   * cryptographically secure pseudo random number generator, so that the iterable can be of unknown size. Collections
+   * should be passed to {@link #getRandomElementFrom(Collection)} instead, which generates only one random number.
+   *
+   * @param <T>
+   *          The element type of the specified iterable.
+   * @param iterable
+   *          The iterable to obtain a random element from, must not be null, must not contain null elements, must not
+   *          be empty. Only the obtained element is checked for null.
+   *
+   * @return A random element from the specified iterable.
+   */
+  public static <T> T getRandomElementFrom (final Iterable <T> iterable)
+  {
+    Arguments.checkIsNotNull (iterable, "iterable");
+
+    T element = null;
+    int elementCount = 0;
+
+    for (final T candidate : iterable)
+    {
+      if (nextIndex (++elementCount) == 0) element = candidate;
+    }
+
+    Preconditions.checkIsFalse (elementCount == 0, "Cannot get random element from an empty iterable.");
+    Arguments.checkIsFalse (element == null, "iterable must not contain null elements.");
+
+    return element;
+  }
+
+  /**
+   * Obtains the specified number of distinct random elements, i.e., elements at distinct positions, from the specified
+   * collection, using a partial Fisher-Yates shuffle with a cryptographically secure pseudo random number generator.
+   * <p/>
+   * Exactly count random numbers are generated. {@link RandomAccess} lists are sampled in place, in O(count) time &
+   * space; all other collections are copied first.
+   * <p/>
+   * NOTE: The original collection will not be modified.
+   *
+   * @param <T>
+   *          The element type of the specified collection.
+   * @param collection
+   *          The collection to obtain random elements from, must not be null, may contain null elements.
+   * @param count
+   *          The number of elements to obtain, must be >= 0 and <= the size of the collection.
+   *
+   * @return A mutable list of the obtained elements, in random order.
+   */
+  public static <T> List <T> getRandomElementsFrom (final Collection <T> collection, final int count)
+  {
+    Arguments.checkIsNotNull (collection, "collection");
+    Arguments.checkIsNotNegative (count, "count");
+    Arguments.checkUpperInclusiveBound (count, collection.size (), "count", "collection size");
+
+    final List <T> list = collection instanceof List && collection instanceof RandomAccess ? (List <T>) collection
+            : new ArrayList <> (collection);
+    final int size = list.size ();
+    final List <T> elements = new ArrayList <> (count);
+
+    // The positions that a virtual, in-place shuffle of the list would have swapped, so the list is never modified.
+    final Map <Integer, Integer> swappedPositions = new HashMap <> ();
+
+    for (int i = 0; i < count; ++i)
+    {
+      final int j = i + nextIndex (size - i);
+      final Integer positionAtJ = swappedPositions.get (j);
+      final Integer positionAtI = swappedPositions.get (i);
+
+      elements.add (list.get (positionAtJ != null ? positionAtJ : j));
+      swappedPositions.put (j, positionAtI != null ? positionAtI : i);
+    }
+
+    return elements;
   }
 
   /**
@@ -194,7 +507,7 @@ public final class Randomness
    *          The elements' type.
    * @param elements
    *          The elements to obtain a random element from, must not be null, must not contain null elements, must not
-   *          be empty.
+   *          be empty. Only the obtained element is checked for null.
    *
    * @return A random element from the specified elements.
    */
@@ -202,10 +515,13 @@ public final class Randomness
   public static <T> T getRandomElementFrom (final T... elements)
   {
     Arguments.checkIsNotNull (elements, "elements");
-    Arguments.checkHasNoNullElements (elements, "elements");
     Preconditions.checkIsTrue (elements.length > 0, "Cannot get random element from empty varargs elements.");
 
-    return shuffle (elements).get (0);
+    final T element = elements [nextIndex (elements.length)];
+
+    Arguments.checkIsFalse (element == null, "elements must not contain null elements.");
+
+    return element;
   }
 
   /**
@@ -224,13 +540,15 @@ public final class Randomness
   {
     Arguments.checkIsNotNull (iterable, "iterable");
 
-    checkCsprngUsage ();
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
 
     final ArrayList <T> listCopy = Lists.newArrayList (iterable);
 
-    Collections.shuffle (listCopy, csprng);
+    Collections.shuffle (listCopy, csprng.random);
 
-    updateCsprngUsage (listCopy.size ());
+    csprng.updateUsage (listCopy.size ());
 
     return listCopy;
   }
@@ -255,11 +573,96 @@ public final class Randomness
     return shuffle (Arrays.asList (elements));
   }
 
-  private static void createCsprng ()
+  /**
+   * Creates a fast, non-cryptographic generator for simulations & AI rollouts, seeded from the cryptographically secure
+   * generator of the current thread, so that the seeds of different generators are unpredictable & independent.
+   * <p/>
+   * NOTE: Must not be used for player-facing randomness, e.g., dice, which must use the cryptographically secure
+   * methods of this class. Parallel tasks should obtain their own generators with {@link FastRandom#split()}.
+   *
+   * @return A new generator, owned by the caller.
+   */
+  public static FastRandom newFastRandom ()
+  {
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
+
+    final FastRandom fastRandom = new FastRandom (csprng.random.nextLong ());
+
+    csprng.updateUsage (1);
+
+    return fastRandom;
+  }
+
+  /**
+   * Obtains the cryptographically secure generator of the current thread, for classes of this package that generate
+   * many random numbers at once, accounting for the specified number of uses for reseeding purposes.
+   *
+   * @param timesToBeUsed
+   *          The number of random numbers that will be generated, must be >= 0.
+   */
+  static Random useCsprng (final int timesToBeUsed)
+  {
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
+    csprng.updateUsage (timesToBeUsed);
+
+    return csprng.random;
+  }
+
+  /**
+   * @return A random index in [0, bound), generated by the cryptographically secure generator of the current thread.
+   */
+  private static int nextIndex (final int bound)
+  {
+    final Csprng csprng = csprng ();
+
+    csprng.checkUsage ();
+
+    final int index = csprng.random.nextInt (bound);
+
+    csprng.updateUsage (1);
+
+    return index;
+  }
+
+  private static <T> T elementAt (final Collection <T> collection, final int index)
+  {
+    if (collection instanceof List && collection instanceof RandomAccess) return ((List <T>) collection).get (index);
+
+    final Iterator <T> iterator = collection.iterator ();
+
+    for (int i = 0; i < index; ++i)
+    {
+      iterator.next ();
+    }
+
+    return iterator.next ();
+  }
+
+  /**
+   * @return The generator of the current thread, which is created on first use, and replaced if the mode has changed.
+   */
+  private static Csprng csprng ()
+  {
+    Csprng csprng = CSPRNGS.get ();
+
+    if (csprng == null || csprng.mode != currentMode)
+    {
+      csprng = new Csprng (currentMode);
+      CSPRNGS.set (csprng);
+    }
+
+    return csprng;
+  }
+
+  private static SecureRandom createSecureRandom ()
   {
     try
     {
-      csprng = SecureRandom.getInstance ("SHA1PRNG", "SUN");
+      return SecureRandom.getInstance ("SHA1PRNG", "SUN");
     }
     catch (final NoSuchProviderException e)
     {
@@ -276,7 +679,7 @@ public final class Randomness
 
         log.warn ("Cannot find SUN provider, trying default (preferred) provider: {}.", provider);
 
-        csprng = SecureRandom.getInstance ("SHA1PRNG", provider);
+        return SecureRandom.getInstance ("SHA1PRNG", provider);
       }
       catch (final NoSuchAlgorithmException e1)
       {
@@ -289,75 +692,93 @@ public final class Randomness
     }
   }
 
-  private static void reseedCsprngWithSystemEntropy ()
+  private static byte[] generateSystemEntropySeed (final SecureRandom random)
   {
-    csprng.setSeed (generateSystemEntropySeed ());
+    return random.generateSeed (SEED_BYTES);
   }
 
-  private static byte[] generateSystemEntropySeed ()
+  private static byte[] generateReleaseEntropySeed (final SecureRandom random)
   {
-    return csprng.generateSeed (SEED_BYTES);
-  }
+    final EntropyHarvester harvester = releaseEntropyHarvester;
+    final byte[] harvestedSeed = harvester != null ? harvester.poll () : null;
 
-  private static void reseedCsprngWithHotBitsEntropy ()
-  {
-    csprng.setSeed (generateHotBitsEntropySeed ());
+    if (harvestedSeed != null) return harvestedSeed;
+
+    log.debug ("No harvested entropy is available yet. Falling back to a system entropy source.");
+
+    return generateSystemEntropySeed (random);
   }
 
-  private static byte[] generateHotBitsEntropySeed ()
+  /**
+   * A cryptographically secure pseudo random number generator, confined to a single thread, which keeps track of how
+   * many random numbers it has generated for reseeding purposes, & buffers random words for the bulk methods.
+   */
+  private static final class Csprng
   {
-    try
-    {
-      final byte[] trueRandomEntropySeed = new byte [SEED_BYTES];
+    private final SecureRandom random = createSecureRandom ();
+    private final byte[] words = new byte [BUFFERED_WORDS * 4];
+    private final Mode mode;
+    private long reseedCounter = 0;
+    private int nextWord = BUFFERED_WORDS;
 
-      for (int i = 0; i < trueRandomEntropySeed.length; ++i)
-      {
-        trueRandomEntropySeed [i] = TRNG.nextByte ();
-      }
+    Csprng (final Mode mode)
+    {
+      this.mode = mode;
 
-      return trueRandomEntropySeed;
+      reseed ();
     }
-    catch (final RuntimeException e)
+
+    void checkUsage ()
     {
-      log.warn ("Could not obtain HotBits entropy! Falling back to a system entropy source.", e);
+      if (reseedCounter > RESEED_THRESHOLD) reseed ();
+    }
 
-      return generateSystemEntropySeed ();
+    void updateUsage (final int timesUsed)
+    {
+      reseedCounter += timesUsed;
     }
-  }
 
-  private static void checkCsprngUsage ()
-  {
-    if (shouldReseedCsprng ()) reseedCsprng ();
-  }
+    /**
+     * @return The next buffered random 32-bit word, as an unsigned value, refilling the buffer once it is used up.
+     */
+    long nextWord ()
+    {
+      if (nextWord == BUFFERED_WORDS)
+      {
+        checkUsage ();
+        random.nextBytes (words);
+        updateUsage (BUFFERED_WORDS);
+        nextWord = 0;
+      }
 
-  private static boolean shouldReseedCsprng ()
-  {
-    return reseedCounter > RESEED_THRESHOLD;
-  }
+      final int b = 4 * nextWord++;
 
-  private static void reseedCsprng ()
-  {
-    reseedCounter = 0;
+      return ((words [b] & 0xFFL) << 24) | ((words [b + 1] & 0xFFL) << 16) | ((words [b + 2] & 0xFFL) << 8)
+              | (words [b + 3] & 0xFFL);
+    }
 
-    switch (currentMode)
+    private void reseed ()
     {
-      case DEBUG:
-      {
-        reseedCsprngWithSystemEntropy ();
+      reseedCounter = 0;
 
-        break;
-      }
-      case RELEASE:
+      // Discard the words generated before reseeding.
+      nextWord = BUFFERED_WORDS;
+
+      switch (mode)
       {
-        reseedCsprngWithHotBitsEntropy ();
+        case DEBUG:
+        {
+          random.setSeed (generateSystemEntropySeed (random));
 
-        break;
+          break;
+        }
+        case RELEASE:
+        {
+          random.setSeed (generateReleaseEntropySeed (random));
+
+          break;
+        }
       }
     }
   }
-
-  private static void updateCsprngUsage (final int timesUsed)
-  {
-    reseedCounter += timesUsed;
-  }
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.util.Arrays;
+
+/**
+ * Records all rolls of another {@link DiceRollSource}, e.g., to replay a game exactly with
+ * {@link DiceRollSources#replay(int...)}.
+ * <p/>
+ * The rolls are recorded into a growing array of primitives rather than boxed integers, so recording allocates only
+ * when the array has to grow, & keeps every roll until the recording source itself is discarded.
+ * <p/>
+ * Not thread-safe, like the source it records, which must not be rolled directly while being recorded, or the
+ * recording will miss those rolls.
+ */
+public final class RecordingDiceRollSource implements DiceRollSource
+{
+  private static final int INITIAL_CAPACITY = 64;
+  private final DiceRollSource source;
+  private int[] recordedRolls = new int [INITIAL_CAPACITY];
+  private int recordedRollCount = 0;
+
+  /**
+   * @param source
+   *          The source to record, must not be null.
+   */
+  public RecordingDiceRollSource (final DiceRollSource source)
+  {
+    Arguments.checkIsNotNull (source, "source");
+
+    this.source = source;
+  }
+
+  @Override
+  public void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie)
+  {
+    source.roll (rolls, offset, dieCount, facesPerDie);
+
+    if (recordedRollCount + dieCount > recordedRolls.length)
+    {
+      recordedRolls = Arrays.copyOf (recordedRolls, Math.max (recordedRolls.length * 2, recordedRollCount + dieCount));
+    }
+
+    System.arraycopy (rolls, offset, recordedRolls, recordedRollCount, dieCount);
+    recordedRollCount += dieCount;
+  }
+
+  /**
+   * @return A new array of all rolls recorded so far, in order.
+   */
+  public int[] getRecordedRolls ()
+  {
+    return Arrays.copyOf (recordedRolls, recordedRollCount);
+  }
+
+  public int getRecordedRollCount ()
+  {
+    return recordedRollCount;
+  }
+
+  /**
+   * @return A source replaying all rolls recorded so far.
+   */
+  public DiceRollSource replay ()
+  {
+    return DiceRollSources.replay (getRecordedRolls ());
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Source: %2$s | Recorded rolls: %3$s", getClass ().getSimpleName (), source,
+                          recordedRollCount);
+  }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, concurrent table of canonical strings, used to deduplicate strings that are repeated many times, e.g.,
+ * identifiers parsed from data files, so that equal strings share one instance.
+ * <p/>
+ * Candidates are looked up by the hash of their characters before a String is created, so interning from a character
+ * range only creates a String the first time its content is seen. The table is direct-mapped: each content hashes to a
+ * single slot, & a colliding content replaces the previous one, so the table never grows beyond its capacity, at the
+ * cost of occasionally returning a new instance for content that has been seen before.
+ * <p/>
+ * Thread-safe & lock-free.
+ */
+public final class StringTable
+{
+  private static final int DEFAULT_CAPACITY = 8192;
+  private static final int MAX_CAPACITY = 1 << 30;
+  private static final StringTable DEFAULT = new StringTable (DEFAULT_CAPACITY);
+  private final AtomicReferenceArray <String> slots;
+  private final int mask;
+
+  /**
+   * @return The process-wide table, which has a capacity of 8192 strings.
+   */
+  public static StringTable getDefault ()
+  {
+    return DEFAULT;
+  }
+
+  /**
+   * @param capacity
+   *          The maximum number of strings in the table, which is rounded up to the next power of two, must be positive.
+   */
+  public StringTable (final int capacity)
+  {
+    Arguments.checkLowerInclusiveBound (capacity, 1, "capacity");
+    Arguments.checkUpperInclusiveBound (capacity, MAX_CAPACITY, "capacity");
+
+    final int roundedCapacity = Integer.highestOneBit (capacity) == capacity ? capacity
+            : Integer.highestOneBit (capacity) << 1;
+
+    slots = new AtomicReferenceArray <> (roundedCapacity);
+    mask = roundedCapacity - 1;
+  }
+
+  /**
+   * @return The canonical string with the content of the specified character range.
+   */
+  public String intern (final char[] chars, final int offset, final int length)
+  {
+    Arguments.checkIsNotNull (chars, "chars");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkIsNotNegative (length, "length");
+    Arguments.checkUpperInclusiveBound (length, chars.length - offset, "length");
+
+    if (length == 0) return "";
+
+    int hash = 0;
+
+    for (int i = offset; i < offset + length; ++i)
+    {
+      hash = 31 * hash + chars [i];
+    }
+
+    final int slot = spread (hash) & mask;
+    final String candidate = slots.get (slot);
+
+    if (candidate != null && candidate.hashCode () == hash && contentEquals (candidate, chars, offset, length))
+    {
+      return candidate;
+    }
+
+    final String s = new String (chars, offset, length);
+
+    slots.set (slot, s);
+
+    return s;
+  }
+
+  /**
+   * @return The canonical string with the content of the specified character sequence.
+   */
+  public String intern (final CharSequence chars)
+  {
+    Arguments.checkIsNotNull (chars, "chars");
+
+    if (chars instanceof String) return intern ((String) chars);
+
+    final int length = chars.length ();
+    int hash = 0;
+
+    for (int i = 0; i < length; ++i)
+    {
+      hash = 31 * hash + chars.charAt (i);
+    }
+
+    final int slot = spread (hash) & mask;
+    final String candidate = slots.get (slot);
+
+    if (candidate != null && candidate.hashCode () == hash && candidate.contentEquals (chars)) return candidate;
+
+    final String s = chars.toString ();
+
+    slots.set (slot, s);
+
+    return s;
+  }
+
+  /**
+   * @return The canonical string equal to the specified string, which is the specified string itself if no equal
+   *         string is in the table.
+   */
+  public String intern (final String s)
+  {
+    Arguments.checkIsNotNull (s, "s");
+
+    final int slot = spread (s.hashCode ()) & mask;
+    final String candidate = slots.get (slot);
+
+    if (s.equals (candidate)) return candidate;
+
+    slots.set (slot, s);
+
+    return s;
+  }
+
+  public int capacity ()
+  {
+    return slots.length ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return Strings.format ("{}: Capacity: {}", getClass ().getSimpleName (), capacity ());
+  }
+
+  /**
+   * Mixes the high bits of the hash into the low bits, which select the slot.
+   */
+  private static int spread (final int hash)
+  {
+    return hash ^ hash >>> 16;
+  }
+
+  private static boolean contentEquals (final String s, final char[] chars, final int offset, final int length)
+  {
+    if (s.length () != length) return false;
+
+    for (int i = 0; i < length; ++i)
+    {
+      if (s.charAt (i) != chars [offset + i]) return false;
+    }
+
+    return true;
+  }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples indices in proportion to their weights in constant time, using an alias table built with Vose's algorithm
+ * ("A Linear Algorithm for Generating Random Numbers with a Given Distribution", IEEE TSE, 1991).
+ * <p/>
+ * Building the table takes linear time, after which every sample takes two random numbers, regardless of the number of
+ * weights. When weights change, {@link #rebuild(double...)} reuses the existing table, without allocating, as long as
+ * the number of weights does not grow.
+ * <p/>
+ * By default, samples are generated by the cryptographically secure generators of {@link Randomness}. Any other
+ * {@link Random}, e.g., a {@link com.forerunnergames.tools.common.random.FastRandom}, can be specified per sample.
+ * <p/>
+ * Not thread-safe while being rebuilt; sampling is thread-safe otherwise.
+ */
+public final class WeightedSampler
+{
+  private double[] probabilities = new double [0];
+  private int[] aliases = new int [0];
+  private double[] scaledWeights = new double [0];
+  private int[] worklist = new int [0];
+  private double totalWeight;
+  private int size;
+
+  /**
+   * @param weights
+   *          The weight of each index, must not be null or empty, must not contain negative, infinite or NaN weights,
+   *          must contain at least one positive weight.
+   */
+  public WeightedSampler (final double... weights)
+  {
+    rebuild (weights);
+  }
+
+  /**
+   * Replaces all weights, rebuilding the alias table in linear time.
+   *
+   * @param weights
+   *          The weight of each index, must not be null or empty, must not contain negative, infinite or NaN weights,
+   *          must contain at least one positive weight.
+   */
+  public void rebuild (final double... weights)
+  {
+    Arguments.checkIsNotNullOrEmpty (weights, "weights");
+
+    double sum = 0;
+
+    for (int i = 0; i < weights.length; ++i)
+    {
+      final double weight = weights [i];
+
+      Arguments.checkIsFalse (Double.isNaN (weight) || Double.isInfinite (weight),
+                              "weights [" + i + "] must be finite, but was [" + weight + "].");
+      Arguments.checkIsNotNegative (weight, "weights [" + i + "]");
+
+      sum += weight;
+    }
+
+    Arguments.checkIsTrue (sum > 0, "weights must contain at least one positive weight.");
+
+    ensureCapacity (weights.length);
+
+    size = weights.length;
+    totalWeight = sum;
+
+    // Vose's algorithm: the worklist holds the small entries (scaled weight < 1) from the front, and the large
+    // entries from the back.
+    int smallCount = 0;
+    int largeStart = size;
+
+    for (int i = 0; i < size; ++i)
+    {
+      scaledWeights [i] = weights [i] * size / sum;
+
+      if (scaledWeights [i] < 1.0)
+      {
+        worklist [smallCount++] = i;
+      }
+      else
+      {
+        worklist [--largeStart] = i;
+      }
+    }
+
+    while (smallCount > 0 && largeStart < size)
+    {
+      final int small = worklist [--smallCount];
+      final int large = worklist [largeStart++];
+
+      probabilities [small] = scaledWeights [small];
+      aliases [small] = large;
+      scaledWeights [large] = scaledWeights [large] + scaledWeights [small] - 1.0;
+
+      if (scaledWeights [large] < 1.0)
+      {
+        worklist [smallCount++] = large;
+      }
+      else
+      {
+        worklist [--largeStart] = large;
+      }
+    }
+
+    // Whatever remains has a scaled weight of 1, up to rounding errors.
+    while (largeStart < size)
+    {
+      final int large = worklist [largeStart++];
+
+      probabilities [large] = 1.0;
+      aliases [large] = large;
+    }
+
+    while (smallCount > 0)
+    {
+      final int small = worklist [--smallCount];
+
+      probabilities [small] = 1.0;
+      aliases [small] = small;
+    }
+  }
+
+  /**
+   * @return The number of weights, i.e., the exclusive upper bound of the sampled indices.
+   */
+  public int size ()
+  {
+    return size;
+  }
+
+  /**
+   * @return The probability of sampling the specified index, i.e., its weight divided by the sum of all weights.
+   */
+  public double getProbability (final int index)
+  {
+    Arguments.checkIsNotNegative (index, "index");
+    Arguments.checkUpperExclusiveBound (index, size, "index", "size");
+
+    double probability = probabilities [index];
+
+    for (int i = 0; i < size; ++i)
+    {
+      if (aliases [i] == index && i != index) probability += 1.0 - probabilities [i];
+    }
+
+    return probability / size;
+  }
+
+  /**
+   * Samples an index using the cryptographically secure generator of the current thread.
+   */
+  public int sample ()
+  {
+    return sample (Randomness.useCsprng (2));
+  }
+
+  /**
+   * Samples an index using the specified generator.
+   */
+  public int sample (final Random random)
+  {
+    Arguments.checkIsNotNull (random, "random");
+
+    final int column = random.nextInt (size);
+
+    return random.nextDouble () < probabilities [column] ? column : aliases [column];
+  }
+
+  /**
+   * Samples the specified number of indices into the specified array, using the cryptographically secure generator of
+   * the current thread.
+   */
+  public void sample (final int[] indices, final int offset, final int count)
+  {
+    checkRange (indices, offset, count);
+
+    sample (indices, offset, count, Randomness.useCsprng (2 * count));
+  }
+
+  /**
+   * Samples the specified number of indices into the specified array, using the specified generator.
+   */
+  public void sample (final int[] indices, final int offset, final int count, final Random random)
+  {
+    checkRange (indices, offset, count);
+    Arguments.checkIsNotNull (random, "random");
+
+    for (int i = offset; i < offset + count; ++i)
+    {
+      final int column = random.nextInt (size);
+
+      indices [i] = random.nextDouble () < probabilities [column] ? column : aliases [column];
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return Strings.format ("{}: Size: {} | Total weight: {} | Probabilities: {} | Aliases: {}",
+                           getClass ().getSimpleName (), size, totalWeight,
+                           Arrays.toString (Arrays.copyOf (probabilities, size)),
+                           Arrays.toString (Arrays.copyOf (aliases, size)));
+  }
+
+  private void ensureCapacity (final int capacity)
+  {
+    if (probabilities.length >= capacity) return;
+
+    probabilities = new double [capacity];
+    aliases = new int [capacity];
+    scaledWeights = new double [capacity];
+    worklist = new int [capacity];
+  }
+
+  private static void checkRange (final int[] indices, final int offset, final int count)
+  {
+    Arguments.checkIsNotNull (indices, "indices");
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkIsNotNegative (count, "count");
+    Arguments.checkUpperInclusiveBound (count, indices.length - offset, "count", "indices.length - offset");
+  }
+}
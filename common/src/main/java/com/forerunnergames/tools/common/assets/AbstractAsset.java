@@ -23,6 +23,7 @@
 package com.forerunnergames.tools.common.assets;
 
 import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.StringTable;
 import com.forerunnergames.tools.common.id.Id;
 
 public abstract class AbstractAsset implements Asset, Comparable <Asset>
@@ -44,6 +45,20 @@ public abstract class AbstractAsset implements Asset, Comparable <Asset>
     this.id = id;
   }
 
+  /**
+   * Interns the name in the specified table, e.g., {@link StringTable#getDefault()}, so that assets loaded from data
+   * files share a single canonical instance of each name.
+   */
+  public AbstractAsset (final String name, final Id id, final StringTable nameTable)
+  {
+    Arguments.checkIsNotNull (name, "name");
+    Arguments.checkIsNotNull (id, "id");
+    Arguments.checkIsNotNull (nameTable, "nameTable");
+
+    this.name = nameTable.intern (name);
+    this.id = id;
+  }
+
   protected AbstractAsset ()
   {
     name = null;
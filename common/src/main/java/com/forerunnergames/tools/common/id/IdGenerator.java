@@ -29,6 +29,8 @@ import java.util.UUID;
 /**
  * Provides a static interface for generating global, unique Id values. IdGen keeps and increments an AtomicInteger
  * 'tick' variable internally to guarantee that values returned by { @link #generateUniqueId() } are globally unique.
+ *
+ * @see TimeOrderedIdGenerator for generating very many time-ordered Id values concurrently.
  */
 public final class IdGenerator
 {
@@ -0,0 +1,152 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.id;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.Randomness;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates unique, time-ordered Id values without locking, as a faster alternative to
+ * {@link IdGenerator#generateUniqueId()}, whose random values all come from a single shared generator, & scatter the
+ * locality of sorted & hashed collections.
+ * <p/>
+ * The values are laid out as version 7 (time-ordered) UUID's, so they sort by their millisecond timestamp:
+ * <p/>
+ * - Most significant bits: 48-bit Unix time in milliseconds | 4-bit version (7) | 12 high bits of the sequence.
+ * <p/>
+ * - Least significant bits: 2-bit variant | 16-bit node id | 46 low bits of the sequence.
+ * <p/>
+ * The 58-bit sequence is unique per generator: each thread reserves a block of sequence numbers at a time from a
+ * shared counter, which starts at a random offset, so that successive processes on the same node do not repeat each
+ * other's values. Values of generators with different node id's never collide, so every server node, or every
+ * generator in the same process, must use its own node id.
+ * <p/>
+ * Within a thread, values are strictly increasing, even if the system clock goes backwards. Across threads, values are
+ * ordered by millisecond.
+ * <p/>
+ * Thread-safe.
+ */
+public final class TimeOrderedIdGenerator
+{
+  public static final int MAX_NODE_ID = 0xFFFF;
+  private static final int BLOCK_SIZE = 4096;
+  private static final int SEQUENCE_LOW_BITS = 46;
+  private static final long SEQUENCE_LOW_MASK = (1L << SEQUENCE_LOW_BITS) - 1;
+  private static final long SEQUENCE_HIGH_MASK = 0xFFFL;
+  private static final long VERSION = 0x7000L;
+  private static final long VARIANT = 0x8000000000000000L;
+  private static final long TIMESTAMP_MASK = 0xFFFFFFFFFFFFL;
+  private final int nodeId;
+  private final long nodeBits;
+  private final AtomicLong nextBlockStart;
+  private final ThreadLocal <Block> blocks = new ThreadLocal <Block> ()
+  {
+    @Override
+    protected Block initialValue ()
+    {
+      return new Block ();
+    }
+  };
+
+  /**
+   * Gets the Unix time in milliseconds at which the specified Id was generated by any TimeOrderedIdGenerator.
+   */
+  public static long timestampOf (final Id id)
+  {
+    Arguments.checkIsNotNull (id, "id");
+
+    return id.value ().getMostSignificantBits () >>> 16;
+  }
+
+  /**
+   * Gets the node id of the TimeOrderedIdGenerator that generated the specified Id.
+   */
+  public static int nodeIdOf (final Id id)
+  {
+    Arguments.checkIsNotNull (id, "id");
+
+    return (int) ((id.value ().getLeastSignificantBits () >>> SEQUENCE_LOW_BITS) & MAX_NODE_ID);
+  }
+
+  /**
+   * @param nodeId
+   *          The id of this generator, which must be different from the node id of every other generator whose values
+   *          must not collide with the values of this generator, must be >= 0 and <= MAX_NODE_ID.
+   */
+  public TimeOrderedIdGenerator (final int nodeId)
+  {
+    Arguments.checkIsNotNegative (nodeId, "nodeId");
+    Arguments.checkUpperInclusiveBound (nodeId, MAX_NODE_ID, "nodeId", "MAX_NODE_ID");
+
+    this.nodeId = nodeId;
+
+    nodeBits = (long) nodeId << SEQUENCE_LOW_BITS;
+
+    // Use only half of the sequence space for the random offset, so that the sequence cannot wrap around in practice.
+    nextBlockStart = new AtomicLong (Randomness.newFastRandom ().nextLong () >>> 7);
+  }
+
+  /**
+   * Generates a unique, time-ordered Id value.
+   */
+  public Id generateUniqueId ()
+  {
+    final Block block = blocks.get ();
+
+    if (block.next == block.end)
+    {
+      block.next = nextBlockStart.getAndAdd (BLOCK_SIZE);
+      block.end = block.next + BLOCK_SIZE;
+    }
+
+    block.lastTimestamp = Math.max (block.lastTimestamp, System.currentTimeMillis ());
+
+    final long sequence = block.next++;
+    final long mostSignificantBits = ((block.lastTimestamp & TIMESTAMP_MASK) << 16) | VERSION
+            | ((sequence >>> SEQUENCE_LOW_BITS) & SEQUENCE_HIGH_MASK);
+    final long leastSignificantBits = VARIANT | nodeBits | (sequence & SEQUENCE_LOW_MASK);
+
+    return new Id (new UUID (mostSignificantBits, leastSignificantBits));
+  }
+
+  public int getNodeId ()
+  {
+    return nodeId;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Node id: %2$s", getClass ().getSimpleName (), nodeId);
+  }
+
+  private static final class Block
+  {
+    private long next = 0;
+    private long end = 0;
+    private long lastTimestamp = 0;
+  }
+}
@@ -0,0 +1,361 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads files & classpath resources concurrently on a bounded executor, returning a {@link ListenableFuture} for every
+ * load, to which completion callbacks can be added with
+ * {@link Futures#addCallback(ListenableFuture, com.google.common.util.concurrent.FutureCallback)}.
+ * <p/>
+ * Besides loading whole files, files & resources can be streamed in fixed-size chunks to a {@link ChunkConsumer}, e.g.,
+ * one that feeds an {@link IncrementalStreamParser}, so that large files are never held in memory as a whole.
+ * <p/>
+ * Thread-safe.
+ */
+public final class AsyncLoader
+{
+  private static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+  private final ListeningExecutorService executor;
+  private final boolean isExecutorOwned;
+  private final int chunkSize;
+
+  /**
+   * Receives the chunks of a streamed file or resource, in order, on an executor thread.
+   */
+  public interface ChunkConsumer
+  {
+    /**
+     * @param chunk
+     *          The next chunk, positioned at its first byte, which is reused for the following chunk, so it is only
+     *          valid until this method returns.
+     */
+    void accept (final ByteBuffer chunk) throws IOException;
+  }
+
+  /**
+   * Reads a value from an input stream.
+   */
+  public interface StreamLoader <T>
+  {
+    /**
+     * @param inputStream
+     *          The input stream, which is closed by the caller.
+     */
+    T load (final InputStream inputStream) throws IOException;
+  }
+
+  public static Builder builder ()
+  {
+    return new Builder ();
+  }
+
+  public ListenableFuture <byte[]> loadBytes (final File file)
+  {
+    Arguments.checkIsNotNull (file, "file");
+
+    return executor.submit (new Callable <byte[]> ()
+    {
+      @Override
+      public byte[] call () throws IOException
+      {
+        return Files.readAllBytes (file.toPath ());
+      }
+    });
+  }
+
+  public ListenableFuture <String> loadFile (final File file, final Charset charset)
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNull (charset, "charset");
+
+    return executor.submit (new Callable <String> ()
+    {
+      @Override
+      public String call () throws IOException
+      {
+        return new String (Files.readAllBytes (file.toPath ()), charset);
+      }
+    });
+  }
+
+  /**
+   * Loads all files concurrently.
+   *
+   * @return A future of the contents of all files, in the order of the specified files, which fails if any load fails.
+   */
+  public ListenableFuture <List <String>> loadFiles (final Collection <File> files, final Charset charset)
+  {
+    Arguments.checkIsNotNull (files, "files");
+    Arguments.checkHasNoNullElements (files, "files");
+    Arguments.checkIsNotNull (charset, "charset");
+
+    final List <ListenableFuture <String>> futures = new ArrayList <> (files.size ());
+
+    for (final File file : files)
+    {
+      futures.add (loadFile (file, charset));
+    }
+
+    return Futures.allAsList (futures);
+  }
+
+  /**
+   * Loads a value from a file with the specified loader, on an executor thread.
+   */
+  public <T> ListenableFuture <T> load (final File file, final StreamLoader <T> loader)
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNull (loader, "loader");
+
+    return executor.submit (new Callable <T> ()
+    {
+      @Override
+      public T call () throws IOException
+      {
+        try (final InputStream inputStream = Files.newInputStream (file.toPath ()))
+        {
+          return loader.load (inputStream);
+        }
+      }
+    });
+  }
+
+  /**
+   * Loads a value from a classpath resource with the specified loader, on an executor thread.
+   *
+   * @see Resources#toInputStream(String)
+   */
+  public <T> ListenableFuture <T> loadResource (final String resource, final StreamLoader <T> loader)
+  {
+    Arguments.checkIsNotNull (resource, "resource");
+    Arguments.checkIsNotNull (loader, "loader");
+
+    return executor.submit (new Callable <T> ()
+    {
+      @Override
+      public T call () throws IOException
+      {
+        try (final InputStream inputStream = Resources.toInputStream (resource))
+        {
+          return loader.load (inputStream);
+        }
+      }
+    });
+  }
+
+  public ListenableFuture <byte[]> loadResourceBytes (final String resource)
+  {
+    return loadResource (resource, new StreamLoader <byte[]> ()
+    {
+      @Override
+      public byte[] load (final InputStream inputStream) throws IOException
+      {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream ();
+        final byte[] buffer = new byte [chunkSize];
+        int readCount;
+
+        while ((readCount = inputStream.read (buffer)) != -1)
+        {
+          bytes.write (buffer, 0, readCount);
+        }
+
+        return bytes.toByteArray ();
+      }
+    });
+  }
+
+  /**
+   * Streams a file in chunks to the specified consumer, on an executor thread.
+   *
+   * @return A future of the total number of bytes streamed.
+   */
+  public ListenableFuture <Long> streamFile (final File file, final ChunkConsumer consumer)
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNull (consumer, "consumer");
+
+    return executor.submit (new Callable <Long> ()
+    {
+      @Override
+      public Long call () throws IOException
+      {
+        try (final FileChannel channel = FileChannel.open (file.toPath (), StandardOpenOption.READ))
+        {
+          return stream (channel, consumer);
+        }
+      }
+    });
+  }
+
+  /**
+   * Streams a classpath resource in chunks to the specified consumer, on an executor thread.
+   *
+   * @return A future of the total number of bytes streamed.
+   *
+   * @see Resources#toInputStream(String)
+   */
+  public ListenableFuture <Long> streamResource (final String resource, final ChunkConsumer consumer)
+  {
+    Arguments.checkIsNotNull (resource, "resource");
+    Arguments.checkIsNotNull (consumer, "consumer");
+
+    return executor.submit (new Callable <Long> ()
+    {
+      @Override
+      public Long call () throws IOException
+      {
+        try (final ReadableByteChannel channel = Channels.newChannel (Resources.toInputStream (resource)))
+        {
+          return stream (channel, consumer);
+        }
+      }
+    });
+  }
+
+  /**
+   * Shuts down the executor, if it was created by this loader, letting pending loads complete.
+   */
+  public void shutdown ()
+  {
+    if (isExecutorOwned) executor.shutdown ();
+  }
+
+  private long stream (final ReadableByteChannel channel, final ChunkConsumer consumer) throws IOException
+  {
+    final ByteBuffer chunk = ByteBuffer.allocate (chunkSize);
+    long byteCount = 0;
+
+    while (channel.read (chunk) != -1)
+    {
+      if (chunk.hasRemaining ()) continue;
+
+      chunk.flip ();
+      byteCount += chunk.remaining ();
+      consumer.accept (chunk);
+      chunk.clear ();
+    }
+
+    if (chunk.position () > 0)
+    {
+      chunk.flip ();
+      byteCount += chunk.remaining ();
+      consumer.accept (chunk);
+    }
+
+    return byteCount;
+  }
+
+  private AsyncLoader (final ListeningExecutorService executor, final boolean isExecutorOwned, final int chunkSize)
+  {
+    this.executor = executor;
+    this.isExecutorOwned = isExecutorOwned;
+    this.chunkSize = chunkSize;
+  }
+
+  public static final class Builder
+  {
+    private int threadCount = Runtime.getRuntime ().availableProcessors ();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private ExecutorService executor;
+
+    /**
+     * The number of threads of the executor created by the loader. Defaults to the number of available processors.
+     */
+    public Builder withThreadCount (final int threadCount)
+    {
+      Arguments.checkLowerInclusiveBound (threadCount, 1, "threadCount");
+
+      this.threadCount = threadCount;
+
+      return this;
+    }
+
+    /**
+     * The size in bytes of streamed chunks. Defaults to 64 KiB.
+     */
+    public Builder withChunkSize (final int chunkSize)
+    {
+      Arguments.checkLowerInclusiveBound (chunkSize, 1, "chunkSize");
+
+      this.chunkSize = chunkSize;
+
+      return this;
+    }
+
+    /**
+     * An existing executor to load on, which is owned by the caller, & is not shut down by
+     * {@link AsyncLoader#shutdown()}. Overrides {@link #withThreadCount(int)}.
+     */
+    public Builder withExecutor (final ExecutorService executor)
+    {
+      Arguments.checkIsNotNull (executor, "executor");
+
+      this.executor = executor;
+
+      return this;
+    }
+
+    public AsyncLoader build ()
+    {
+      if (executor != null)
+      {
+        return new AsyncLoader (MoreExecutors.listeningDecorator (executor), false, chunkSize);
+      }
+
+      final ExecutorService ownedExecutor = Executors.newFixedThreadPool (threadCount, new ThreadFactoryBuilder ()
+              .setDaemon (true).setNameFormat (AsyncLoader.class.getSimpleName () + "-%d").build ());
+
+      return new AsyncLoader (MoreExecutors.listeningDecorator (ownedExecutor), true, chunkSize);
+    }
+
+    private Builder ()
+    {
+    }
+  }
+}
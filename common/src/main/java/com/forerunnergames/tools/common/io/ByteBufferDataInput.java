@@ -0,0 +1,216 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DataInput} view of a {@link ByteBuffer}, reading from the current position of the buffer. Reading past the
+ * limit of the buffer throws {@link EOFException}, like a {@link DataInputStream} at the end of its stream.
+ */
+final class ByteBufferDataInput implements DataInput
+{
+  private final ByteBuffer buffer;
+
+  ByteBufferDataInput (final ByteBuffer buffer)
+  {
+    Arguments.checkIsNotNull (buffer, "buffer");
+
+    this.buffer = buffer;
+  }
+
+  @Override
+  public void readFully (final byte[] b) throws IOException
+  {
+    readFully (b, 0, b.length);
+  }
+
+  @Override
+  public void readFully (final byte[] b, final int off, final int len) throws IOException
+  {
+    try
+    {
+      buffer.get (b, off, len);
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public int skipBytes (final int n)
+  {
+    final int skipped = Math.max (0, Math.min (n, buffer.remaining ()));
+
+    buffer.position (buffer.position () + skipped);
+
+    return skipped;
+  }
+
+  @Override
+  public boolean readBoolean () throws IOException
+  {
+    return readByte () != 0;
+  }
+
+  @Override
+  public byte readByte () throws IOException
+  {
+    try
+    {
+      return buffer.get ();
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public int readUnsignedByte () throws IOException
+  {
+    return readByte () & 0xFF;
+  }
+
+  @Override
+  public short readShort () throws IOException
+  {
+    try
+    {
+      return buffer.getShort ();
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public int readUnsignedShort () throws IOException
+  {
+    return readShort () & 0xFFFF;
+  }
+
+  @Override
+  public char readChar () throws IOException
+  {
+    try
+    {
+      return buffer.getChar ();
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public int readInt () throws IOException
+  {
+    try
+    {
+      return buffer.getInt ();
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public long readLong () throws IOException
+  {
+    try
+    {
+      return buffer.getLong ();
+    }
+    catch (final BufferUnderflowException e)
+    {
+      throw newEOFException (e);
+    }
+  }
+
+  @Override
+  public float readFloat () throws IOException
+  {
+    return Float.intBitsToFloat (readInt ());
+  }
+
+  @Override
+  public double readDouble () throws IOException
+  {
+    return Double.longBitsToDouble (readLong ());
+  }
+
+  /**
+   * Reads a line of bytes, each widened to a character, exactly like {@link DataInputStream#readLine()}.
+   */
+  @Override
+  public String readLine ()
+  {
+    if (!buffer.hasRemaining ()) return null;
+
+    final StringBuilder line = new StringBuilder ();
+
+    while (buffer.hasRemaining ())
+    {
+      final char c = (char) (buffer.get () & 0xFF);
+
+      if (c == '\n') break;
+
+      if (c == '\r')
+      {
+        if (buffer.hasRemaining () && buffer.get (buffer.position ()) == '\n') buffer.get ();
+
+        break;
+      }
+
+      line.append (c);
+    }
+
+    return line.toString ();
+  }
+
+  @Override
+  public String readUTF () throws IOException
+  {
+    return DataInputStream.readUTF (this);
+  }
+
+  private static EOFException newEOFException (final BufferUnderflowException cause)
+  {
+    final EOFException e = new EOFException ("Unexpected end of buffer.");
+
+    e.initCause (cause);
+
+    return e;
+  }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.StringTable;
+
+/**
+ * A read-only {@link CharSequence} view of a single CSV field inside the buffer of the parser that produced it.
+ * <p/>
+ * Creating a view does not copy any characters; a {@link String} is only created when {@link #toString()} or
+ * {@link #subSequence(int, int)} is called. Numbers can be parsed directly from the view with {@link #toInt()},
+ * {@link #toLong()} & {@link #toDouble()}.
+ * <p/>
+ * NOTE: A CSVField is only valid for the duration of the {@link CSVRecordVisitor} callback it was passed to; the
+ * parser reuses both the view and its buffer for the next field. Call {@link #toString()} to retain the content.
+ */
+public final class CSVField implements CharSequence
+{
+  private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+          1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+  private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+  private char[] buffer;
+  private int offset;
+  private int length;
+  private boolean isQuoted;
+
+  CSVField ()
+  {
+    buffer = new char [0];
+  }
+
+  @Override
+  public int length ()
+  {
+    return length;
+  }
+
+  @Override
+  public char charAt (final int index)
+  {
+    if (index < 0 || index >= length) throw new IndexOutOfBoundsException ("index: " + index + ", length: " + length);
+
+    return buffer [offset + index];
+  }
+
+  @Override
+  public CharSequence subSequence (final int start, final int end)
+  {
+    if (start < 0 || end > length || start > end)
+    {
+      throw new IndexOutOfBoundsException ("start: " + start + ", end: " + end + ", length: " + length);
+    }
+
+    return new String (buffer, offset + start, end - start);
+  }
+
+  public boolean isEmpty ()
+  {
+    return length == 0;
+  }
+
+  /**
+   * @return True if the field was enclosed in double quotes in the source, false otherwise.
+   */
+  public boolean isQuoted ()
+  {
+    return isQuoted;
+  }
+
+  /**
+   * Compares the content of this field to the specified character sequence without creating a String.
+   *
+   * @param s
+   *          The character sequence to compare with, must not be null.
+   *
+   * @return True if both contain exactly the same characters, false otherwise.
+   */
+  public boolean contentEquals (final CharSequence s)
+  {
+    Arguments.checkIsNotNull (s, "s");
+
+    if (s.length () != length) return false;
+
+    for (int i = 0; i < length; ++i)
+    {
+      if (buffer [offset + i] != s.charAt (i)) return false;
+    }
+
+    return true;
+  }
+
+  /**
+   * Parses the field as a decimal integer, without creating a String.
+   *
+   * @throws StreamParserException
+   *           If the field is not a decimal integer in the range of int.
+   */
+  public int toInt () throws StreamParserException
+  {
+    final long value = toLong ();
+
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) throw notA ("integer");
+
+    return (int) value;
+  }
+
+  /**
+   * Parses the field as a decimal long, without creating a String.
+   *
+   * @throws StreamParserException
+   *           If the field is not a decimal integer in the range of long.
+   */
+  public long toLong () throws StreamParserException
+  {
+    int i = offset;
+    final int end = offset + length;
+    final boolean isNegative = i < end && buffer [i] == '-';
+
+    if (isNegative || i < end && buffer [i] == '+') ++i;
+
+    if (i == end) throw notA ("long");
+
+    // Accumulate negatively so that Long.MIN_VALUE can be represented.
+    long value = 0;
+
+    for (; i < end; ++i)
+    {
+      final int digit = buffer [i] - '0';
+
+      if (digit < 0 || digit > 9) throw notA ("long");
+
+      if (value < (Long.MIN_VALUE + digit) / 10) throw notA ("long");
+
+      value = value * 10 - digit;
+    }
+
+    if (!isNegative && value == Long.MIN_VALUE) throw notA ("long");
+
+    return isNegative ? value : -value;
+  }
+
+  /**
+   * Parses the field as a double. Plain decimals of up to 15 significant digits (e.g. -12.345) are parsed exactly
+   * without creating a String; any other format falls back to {@link Double#parseDouble(String)}.
+   *
+   * @throws StreamParserException
+   *           If the field is not a number.
+   */
+  public double toDouble () throws StreamParserException
+  {
+    int i = offset;
+    final int end = offset + length;
+    final boolean isNegative = i < end && buffer [i] == '-';
+
+    if (isNegative || i < end && buffer [i] == '+') ++i;
+
+    long mantissa = 0;
+    int digitCount = 0;
+    int fractionDigitCount = 0;
+    boolean hasDecimalPoint = false;
+
+    for (; i < end; ++i)
+    {
+      final char c = buffer [i];
+
+      if (c == '.' && !hasDecimalPoint)
+      {
+        hasDecimalPoint = true;
+        continue;
+      }
+
+      if (c < '0' || c > '9' || digitCount == MAX_EXACT_DOUBLE_DIGITS) return parseDoubleSlowly ();
+
+      mantissa = mantissa * 10 + (c - '0');
+      ++digitCount;
+
+      if (hasDecimalPoint) ++fractionDigitCount;
+    }
+
+    if (digitCount == 0) return parseDoubleSlowly ();
+
+    final double value = mantissa / POWERS_OF_TEN [fractionDigitCount];
+
+    return isNegative ? -value : value;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return new String (buffer, offset, length);
+  }
+
+  /**
+   * Like {@link #toString()}, but returns the canonical String from the specified table, so that no String is created
+   * for content that is already in the table.
+   */
+  public String toString (final StringTable table)
+  {
+    Arguments.checkIsNotNull (table, "table");
+
+    return table.intern (buffer, offset, length);
+  }
+
+  void set (final char[] buffer, final int offset, final int length, final boolean isQuoted)
+  {
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+    this.isQuoted = isQuoted;
+  }
+
+  private double parseDoubleSlowly () throws StreamParserException
+  {
+    try
+    {
+      return Double.parseDouble (toString ());
+    }
+    catch (final NumberFormatException e)
+    {
+      throw notA ("double");
+    }
+  }
+
+  private StreamParserException notA (final String type)
+  {
+    return new StreamParserException ("CSV field [" + toString () + "] is not a valid " + type + ".");
+  }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The columns of a CSV stream that a {@link CSVRecordVisitor} needs, declared either by zero-based column index or by
+ * header name. All other fields are skipped by {@link StreamParser#visitCSVRecords(CSVProjection, CSVRecordVisitor)}
+ * without being unescaped or visited.
+ * <p/>
+ * Projected fields are visited with the index of their column in the projection, rather than in the record, so that
+ * visitors are independent of the column order of the stream.
+ */
+public final class CSVProjection
+{
+  private static final int NOT_PROJECTED = -1;
+  private final int[] columns;
+  private final ImmutableList <String> headers;
+
+  /**
+   * @param columns
+   *          The zero-based indices of the projected columns, in projection order, must not be empty, negative, or
+   *          contain duplicates.
+   */
+  public static CSVProjection ofColumns (final int... columns)
+  {
+    Arguments.checkIsNotNullOrEmpty (columns, "columns");
+
+    for (int i = 0; i < columns.length; ++i)
+    {
+      Arguments.checkIsNotNegative (columns [i], "columns [" + i + "]");
+
+      for (int j = 0; j < i; ++j)
+      {
+        Arguments.checkIsFalse (columns [i] == columns [j], "Duplicate column [" + columns [i] + "].");
+      }
+    }
+
+    return new CSVProjection (columns.clone (), null);
+  }
+
+  /**
+   * Projects columns by the names in the header record, i.e., the first record of the stream, which is not visited.
+   *
+   * @param headers
+   *          The header names of the projected columns, in projection order, must not be empty, contain null
+   *          elements, or contain duplicates.
+   */
+  public static CSVProjection ofHeaders (final String... headers)
+  {
+    Arguments.checkIsNotNullOrEmpty (headers, "headers");
+    Arguments.checkHasNoNullElements (headers, "headers");
+    Arguments.checkIsTrue (ImmutableSet.copyOf (headers).size () == headers.length,
+                           "Duplicate headers in " + Arrays.toString (headers) + ".");
+
+    return new CSVProjection (null, ImmutableList.copyOf (headers));
+  }
+
+  public int size ()
+  {
+    return hasHeaders () ? headers.size () : columns.length;
+  }
+
+  public boolean hasHeaders ()
+  {
+    return headers != null;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Columns: %2$s | Headers: %3$s", getClass ().getSimpleName (),
+                          Arrays.toString (columns), headers);
+  }
+
+  /**
+   * @return The projected index of each column, or -1 for columns that are not projected. Columns beyond the end of the
+   *         array are not projected.
+   */
+  int[] toProjectedIndices ()
+  {
+    assert !hasHeaders ();
+
+    int maxColumn = 0;
+
+    for (final int column : columns)
+    {
+      maxColumn = Math.max (maxColumn, column);
+    }
+
+    final int[] projectedIndices = new int [maxColumn + 1];
+
+    Arrays.fill (projectedIndices, NOT_PROJECTED);
+
+    for (int i = 0; i < columns.length; ++i)
+    {
+      projectedIndices [columns [i]] = i;
+    }
+
+    return projectedIndices;
+  }
+
+  /**
+   * @param headerRecord
+   *          The fields of the header record.
+   *
+   * @return The projected index of each column, or -1 for columns that are not projected.
+   *
+   * @throws StreamParserException
+   *           If a projected header is missing from the header record.
+   */
+  int[] toProjectedIndices (final List <String> headerRecord) throws StreamParserException
+  {
+    assert hasHeaders ();
+
+    final int[] projectedIndices = new int [headerRecord.size ()];
+
+    Arrays.fill (projectedIndices, NOT_PROJECTED);
+
+    for (int i = 0; i < headers.size (); ++i)
+    {
+      final int column = headerRecord.indexOf (headers.get (i));
+
+      if (column < 0)
+      {
+        throw new StreamParserException ("CSV header [" + headers.get (i) + "] not found in header record "
+                + headerRecord + ".");
+      }
+
+      projectedIndices [column] = i;
+    }
+
+    return projectedIndices;
+  }
+
+  private CSVProjection (final int[] columns, final ImmutableList <String> headers)
+  {
+    this.columns = columns;
+    this.headers = headers;
+  }
+}
@@ -0,0 +1,445 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scans CSV records directly out of its own character buffer, handing each field to a {@link CSVRecordVisitor} as a
+ * {@link CSVField} view, so that no String is created per field.
+ * <p/>
+ * Fields are separated by commas, records by line feeds. Spaces & carriage returns surrounding a field are ignored.
+ * Fields may be enclosed in double quotes, in which case they may contain commas & line feeds, and a doubled quote
+ * represents a literal quote. Blank lines are skipped, and comments are skipped as configured.
+ * <p/>
+ * Not thread-safe.
+ */
+final class CSVRecordScanner
+{
+  private static final int DEFAULT_BUFFER_SIZE = 8192;
+  private static final int EOF = -1;
+  private final Reader reader;
+  private final boolean areSlashSlashCommentsEnabled;
+  private final boolean areSlashStarCommentsEnabled;
+  private final CSVField field = new CSVField ();
+  private char[] buffer = new char [DEFAULT_BUFFER_SIZE];
+  private int position;
+  private int limit;
+  private int fieldStart = -1; // Start of the field being scanned, which must be kept in the buffer across refills.
+  private int fieldEnd;
+  private boolean isQuotedField;
+  private boolean isEndOfInput;
+
+  CSVRecordScanner (final Reader reader,
+                    final boolean areSlashSlashCommentsEnabled,
+                    final boolean areSlashStarCommentsEnabled)
+  {
+    Arguments.checkIsNotNull (reader, "reader");
+
+    this.reader = reader;
+    this.areSlashSlashCommentsEnabled = areSlashSlashCommentsEnabled;
+    this.areSlashStarCommentsEnabled = areSlashStarCommentsEnabled;
+  }
+
+  /**
+   * Scans all remaining records, passing each field to the specified visitor.
+   *
+   * @return The number of records visited.
+   */
+  int scan (final CSVRecordVisitor visitor) throws IOException, StreamParserException
+  {
+    Arguments.checkIsNotNull (visitor, "visitor");
+
+    int rowNumber = 0;
+
+    while (skipToRecordStart ())
+    {
+      int fieldIndex = 0;
+      boolean isEndOfRecord;
+
+      do
+      {
+        isEndOfRecord = scanField ();
+        field.set (buffer, fieldStart, fieldEnd - fieldStart, isQuotedField);
+        fieldStart = -1;
+        visitor.visitField (rowNumber, fieldIndex++, field);
+      }
+      while (!isEndOfRecord);
+
+      visitor.visitEndOfRecord (rowNumber++, fieldIndex);
+    }
+
+    return rowNumber;
+  }
+
+  /**
+   * Scans all remaining records, passing only the projected fields to the specified visitor. All other fields are
+   * skipped without being unescaped. If the projection is by header name, the header record is consumed first, and is
+   * not visited.
+   *
+   * @return The number of records visited.
+   *
+   * @throws StreamParserException
+   *           If a projected header is missing.
+   */
+  int scan (final CSVRecordVisitor visitor, final CSVProjection projection) throws IOException, StreamParserException
+  {
+    Arguments.checkIsNotNull (visitor, "visitor");
+    Arguments.checkIsNotNull (projection, "projection");
+
+    final int[] projectedIndices = projection.hasHeaders () ? projection.toProjectedIndices (scanHeaderRecord ())
+            : projection.toProjectedIndices ();
+
+    int rowNumber = 0;
+
+    while (skipToRecordStart ())
+    {
+      int column = 0;
+      int fieldCount = 0;
+      boolean isEndOfRecord;
+
+      do
+      {
+        final int projectedIndex = column < projectedIndices.length ? projectedIndices [column] : -1;
+
+        ++column;
+
+        if (projectedIndex < 0)
+        {
+          isEndOfRecord = skipField ();
+
+          continue;
+        }
+
+        isEndOfRecord = scanField ();
+        field.set (buffer, fieldStart, fieldEnd - fieldStart, isQuotedField);
+        fieldStart = -1;
+        visitor.visitField (rowNumber, projectedIndex, field);
+        ++fieldCount;
+      }
+      while (!isEndOfRecord);
+
+      visitor.visitEndOfRecord (rowNumber++, fieldCount);
+    }
+
+    return rowNumber;
+  }
+
+  private List <String> scanHeaderRecord () throws IOException, StreamParserException
+  {
+    final List <String> headerRecord = new ArrayList <> ();
+
+    if (!skipToRecordStart ()) return headerRecord;
+
+    boolean isEndOfRecord;
+
+    do
+    {
+      isEndOfRecord = scanField ();
+      headerRecord.add (new String (buffer, fieldStart, fieldEnd - fieldStart));
+      fieldStart = -1;
+    }
+    while (!isEndOfRecord);
+
+    return headerRecord;
+  }
+
+  /**
+   * Skips whitespace, blank lines & comments.
+   *
+   * @return False if the end of the input was reached, true otherwise.
+   */
+  private boolean skipToRecordStart () throws IOException
+  {
+    while (true)
+    {
+      final int c = peek (0);
+
+      if (c == EOF) return false;
+
+      if (c == ' ' || c == '\r' || c == '\n')
+      {
+        ++position;
+      }
+      else if (!skipComment ())
+      {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Scans the next field & the separator following it.
+   *
+   * @return True if the field was the last one of its record, false otherwise.
+   */
+  private boolean scanField () throws IOException, StreamParserException
+  {
+    skipSpaces ();
+
+    isQuotedField = peek (0) == '"';
+
+    if (isQuotedField)
+    {
+      scanQuotedField ();
+    }
+    else
+    {
+      scanUnquotedField ();
+    }
+
+    return scanSeparator ();
+  }
+
+  /**
+   * Skips the next field & the separator following it, without keeping or unescaping its content.
+   *
+   * @return True if the field was the last one of its record, false otherwise.
+   */
+  private boolean skipField () throws IOException, StreamParserException
+  {
+    skipSpaces ();
+
+    int c = peek (0);
+
+    if (c == '"')
+    {
+      ++position;
+
+      while (true)
+      {
+        c = peek (0);
+
+        if (c == EOF) throw new StreamParserException ("Unterminated quoted CSV field.");
+
+        ++position;
+
+        if (c == '"')
+        {
+          if (peek (0) != '"') break;
+
+          ++position;
+        }
+      }
+    }
+    else
+    {
+      while (c != EOF && c != ',' && c != '\n' && !isCommentStart (c))
+      {
+        ++position;
+        c = peek (0);
+      }
+    }
+
+    return scanSeparator ();
+  }
+
+  /**
+   * Scans the separator following a field, skipping any spaces & comments before it.
+   *
+   * @return True if the field was the last one of its record, false otherwise.
+   */
+  private boolean scanSeparator () throws IOException, StreamParserException
+  {
+    do
+    {
+      skipSpaces ();
+    }
+    while (skipComment ());
+
+    final int c = peek (0);
+
+    if (c == ',')
+    {
+      ++position;
+
+      return false;
+    }
+
+    if (c == '\n')
+    {
+      ++position;
+
+      return true;
+    }
+
+    if (c == EOF) return true;
+
+    throw new StreamParserException ("Unexpected character [" + (char) c + "] after CSV field"
+            + (fieldStart >= 0 ? " [" + new String (buffer, fieldStart, fieldEnd - fieldStart) + "]" : "")
+            + ", expected a comma or the end of the record.");
+  }
+
+  private void scanUnquotedField () throws IOException
+  {
+    fieldStart = position;
+    fieldEnd = position;
+
+    while (true)
+    {
+      final int c = peek (0);
+
+      if (c == EOF || c == ',' || c == '\n' || isCommentStart (c)) return;
+
+      ++position;
+
+      if (c != ' ' && c != '\r') fieldEnd = position;
+    }
+  }
+
+  private void scanQuotedField () throws IOException, StreamParserException
+  {
+    ++position;
+    fieldStart = position;
+    fieldEnd = position;
+
+    // Unescaping is done in place: fieldEnd is the write index, which never overtakes position.
+    while (true)
+    {
+      final int c = peek (0);
+
+      if (c == EOF)
+      {
+        throw new StreamParserException ("Unterminated quoted CSV field ["
+                + new String (buffer, fieldStart, fieldEnd - fieldStart) + "].");
+      }
+
+      ++position;
+
+      if (c == '"')
+      {
+        if (peek (0) != '"') return;
+
+        ++position;
+      }
+
+      buffer [fieldEnd++] = (char) c;
+    }
+  }
+
+  private void skipSpaces () throws IOException
+  {
+    int c;
+
+    while ((c = peek (0)) == ' ' || c == '\r')
+    {
+      ++position;
+    }
+  }
+
+  /**
+   * Skips a comment, if one starts at the current position & comments of its type are enabled. Line comments are
+   * skipped up to, but not including, the terminating line feed.
+   *
+   * @return True if a comment was skipped, false otherwise.
+   */
+  private boolean skipComment () throws IOException
+  {
+    if (!isCommentStart (peek (0))) return false;
+
+    final boolean isLineComment = peek (1) == '/';
+
+    position += 2;
+
+    int c;
+
+    if (isLineComment)
+    {
+      while ((c = peek (0)) != EOF && c != '\n')
+      {
+        ++position;
+      }
+    }
+    else
+    {
+      while ((c = peek (0)) != EOF && !(c == '*' && peek (1) == '/'))
+      {
+        ++position;
+      }
+
+      if (c != EOF) position += 2;
+    }
+
+    return true;
+  }
+
+  private boolean isCommentStart (final int c) throws IOException
+  {
+    if (c != '/') return false;
+
+    final int next = peek (1);
+
+    return next == '/' && areSlashSlashCommentsEnabled || next == '*' && areSlashStarCommentsEnabled;
+  }
+
+  private int peek (final int ahead) throws IOException
+  {
+    while (position + ahead >= limit)
+    {
+      if (!fill ()) return EOF;
+    }
+
+    return buffer [position + ahead];
+  }
+
+  private boolean fill () throws IOException
+  {
+    if (isEndOfInput) return false;
+
+    final int keepFrom = fieldStart >= 0 ? fieldStart : position;
+
+    if (keepFrom > 0)
+    {
+      System.arraycopy (buffer, keepFrom, buffer, 0, limit - keepFrom);
+      limit -= keepFrom;
+      position -= keepFrom;
+
+      if (fieldStart >= 0)
+      {
+        fieldStart -= keepFrom;
+        fieldEnd -= keepFrom;
+      }
+    }
+
+    if (limit == buffer.length) buffer = Arrays.copyOf (buffer, buffer.length * 2);
+
+    final int readCount = reader.read (buffer, limit, buffer.length - limit);
+
+    if (readCount < 0)
+    {
+      isEndOfInput = true;
+
+      return false;
+    }
+
+    limit += readCount;
+
+    return true;
+  }
+}
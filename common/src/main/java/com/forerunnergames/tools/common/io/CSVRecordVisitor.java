@@ -0,0 +1,52 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+/**
+ * Receives the records of a CSV stream field by field, as parsed by
+ * {@link StreamParser#visitCSVRecords(CSVRecordVisitor)}.
+ */
+public interface CSVRecordVisitor
+{
+  /**
+   * Called once for every field of every record, in order.
+   *
+   * @param rowNumber
+   *          The zero-based index of the record. Blank lines & comments are not counted.
+   * @param fieldIndex
+   *          The zero-based index of the field within its record.
+   * @param field
+   *          A view of the field's content, without enclosing quotes, only valid until this method returns.
+   */
+  void visitField (final int rowNumber, final int fieldIndex, final CSVField field);
+
+  /**
+   * Called after the last field of each record has been visited.
+   *
+   * @param rowNumber
+   *          The zero-based index of the record that has ended.
+   * @param fieldCount
+   *          The number of fields in the record.
+   */
+  void visitEndOfRecord (final int rowNumber, final int fieldCount);
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+
+/**
+ * The rows of a stream, as read by {@link RowSchema#readColumns(StreamParser)}, stored column by column in primitive
+ * arrays: {@link RowSchema.ColumnType#INTEGER} & {@link RowSchema.ColumnType#CHARACTER} columns as int arrays,
+ * {@link RowSchema.ColumnType#LONG} columns as long arrays, {@link RowSchema.ColumnType#DOUBLE} columns as double arrays,
+ * and all string columns as String arrays. {@link RowSchema.ColumnType#SKIPPED} columns are not stored.
+ * <p/>
+ * Columns are identified by their index in the schema. The column getters return copies.
+ */
+public final class ColumnTable
+{
+  private static final int INITIAL_CAPACITY = 64;
+  private final ImmutableList <RowSchema.ColumnType> columns;
+  private final Object[] values;
+  private int rowCount;
+  private int capacity = INITIAL_CAPACITY;
+
+  public int getRowCount ()
+  {
+    return rowCount;
+  }
+
+  public int[] getIntegers (final int column)
+  {
+    checkColumn (column, int[].class);
+
+    return Arrays.copyOf ((int[]) values [column], rowCount);
+  }
+
+  public long[] getLongs (final int column)
+  {
+    checkColumn (column, long[].class);
+
+    return Arrays.copyOf ((long[]) values [column], rowCount);
+  }
+
+  public double[] getDoubles (final int column)
+  {
+    checkColumn (column, double[].class);
+
+    return Arrays.copyOf ((double[]) values [column], rowCount);
+  }
+
+  public String[] getStrings (final int column)
+  {
+    checkColumn (column, String[].class);
+
+    return Arrays.copyOf ((String[]) values [column], rowCount);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Columns: %2$s | Row count: %3$s", getClass ().getSimpleName (), columns, rowCount);
+  }
+
+  ColumnTable (final ImmutableList <RowSchema.ColumnType> columns)
+  {
+    this.columns = columns;
+
+    values = new Object [columns.size ()];
+
+    for (int i = 0; i < values.length; ++i)
+    {
+      values [i] = newColumn (columns.get (i));
+    }
+  }
+
+  void readRow (final StreamParser parser) throws StreamParserException
+  {
+    if (rowCount == capacity) grow ();
+
+    for (int i = 0; i < values.length; ++i)
+    {
+      switch (columns.get (i))
+      {
+        case INTEGER:
+        {
+          ((int[]) values [i]) [rowCount] = parser.getNextInteger ();
+          break;
+        }
+        case CHARACTER:
+        {
+          ((int[]) values [i]) [rowCount] = parser.getNextCharacter ();
+          break;
+        }
+        case LONG:
+        {
+          ((long[]) values [i]) [rowCount] = parser.getNextLong ();
+          break;
+        }
+        case DOUBLE:
+        {
+          ((double[]) values [i]) [rowCount] = parser.getNextDouble ();
+          break;
+        }
+        case QUOTED_STRING:
+        {
+          ((String[]) values [i]) [rowCount] = parser.getNextQuotedString ();
+          break;
+        }
+        case UNQUOTED_STRING:
+        {
+          ((String[]) values [i]) [rowCount] = parser.getNextUnquotedString ();
+          break;
+        }
+        case TOKEN:
+        {
+          ((String[]) values [i]) [rowCount] = parser.getNextToken ();
+          break;
+        }
+        case SKIPPED:
+        {
+          parser.discardNextToken ();
+          break;
+        }
+      }
+    }
+
+    ++rowCount;
+  }
+
+  private void checkColumn (final int column, final Class <?> arrayType)
+  {
+    Arguments.checkIsNotNegative (column, "column");
+    Arguments.checkUpperExclusiveBound (column, values.length, "column");
+    Arguments.checkIsTrue (arrayType.isInstance (values [column]), "Column [" + column + "] of type ["
+            + columns.get (column) + "] is not stored as " + arrayType.getSimpleName () + ".");
+  }
+
+  private void grow ()
+  {
+    capacity *= 2;
+
+    for (int i = 0; i < values.length; ++i)
+    {
+      final Object value = values [i];
+
+      if (value instanceof int[])
+      {
+        values [i] = Arrays.copyOf ((int[]) value, capacity);
+      }
+      else if (value instanceof long[])
+      {
+        values [i] = Arrays.copyOf ((long[]) value, capacity);
+      }
+      else if (value instanceof double[])
+      {
+        values [i] = Arrays.copyOf ((double[]) value, capacity);
+      }
+      else if (value instanceof String[])
+      {
+        values [i] = Arrays.copyOf ((String[]) value, capacity);
+      }
+    }
+  }
+
+  private static Object newColumn (final RowSchema.ColumnType column)
+  {
+    switch (column)
+    {
+      case INTEGER:
+      case CHARACTER:
+      {
+        return new int [INITIAL_CAPACITY];
+      }
+      case LONG:
+      {
+        return new long [INITIAL_CAPACITY];
+      }
+      case DOUBLE:
+      {
+        return new double [INITIAL_CAPACITY];
+      }
+      case SKIPPED:
+      {
+        return null;
+      }
+      default:
+      {
+        return new String [INITIAL_CAPACITY];
+      }
+    }
+  }
+}
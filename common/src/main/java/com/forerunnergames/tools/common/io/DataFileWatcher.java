@@ -0,0 +1,314 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.Preconditions;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches data files for changes, & re-parses each changed file on a background thread, so that patched data files are
+ * picked up without a restart.
+ * <p/>
+ * Each watched file is represented by a {@link Reloadable}, which always holds the latest successfully parsed snapshot
+ * of the file. A new snapshot is swapped in atomically once it is completely parsed, so readers never block, & never
+ * see a partially parsed snapshot. Changes are debounced per file, so that a file that is written in several steps is
+ * only re-parsed once it has been quiet for the debounce period. If re-parsing fails, the previous snapshot is kept.
+ * <p/>
+ * Thread-safe.
+ */
+public final class DataFileWatcher implements Closeable
+{
+  private static final Logger log = LoggerFactory.getLogger (DataFileWatcher.class);
+  private static final long DEFAULT_DEBOUNCE_MILLISECONDS = 250;
+  private final ConcurrentMap <Path, Reloadable <?>> watchedFiles = new ConcurrentHashMap <> ();
+  private final Map <Path, Long> pendingChanges = new HashMap <> (); // Only accessed by the watcher thread.
+  private final WatchService watchService;
+  private final long debounceNanoseconds;
+  private final Thread thread;
+  private volatile boolean isClosed = false;
+
+  /**
+   * Parses a snapshot of a data file.
+   */
+  public interface Loader <T>
+  {
+    /**
+     * @return The parsed snapshot, must not be null.
+     */
+    T load (final File file) throws IOException, StreamParserException;
+  }
+
+  /**
+   * The latest successfully parsed snapshot of a watched data file.
+   */
+  public static final class Reloadable <T>
+  {
+    private final File file;
+    private final Loader <T> loader;
+    private final AtomicReference <T> snapshot;
+    private final AtomicLong reloadCount = new AtomicLong ();
+
+    /**
+     * @return The latest snapshot, never null.
+     */
+    public T get ()
+    {
+      return snapshot.get ();
+    }
+
+    /**
+     * @return The number of times a new snapshot has been swapped in since the file started being watched.
+     */
+    public long getReloadCount ()
+    {
+      return reloadCount.get ();
+    }
+
+    public File getFile ()
+    {
+      return file;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return String.format ("%1$s: File: %2$s | Reload count: %3$s", getClass ().getSimpleName (), file,
+                            reloadCount.get ());
+    }
+
+    private void reload ()
+    {
+      try
+      {
+        final T newSnapshot = loader.load (file);
+
+        Arguments.checkIsNotNull (newSnapshot, "newSnapshot");
+
+        snapshot.set (newSnapshot);
+        reloadCount.incrementAndGet ();
+
+        log.info ("Reloaded data file [{}].", file);
+      }
+      catch (final IOException | RuntimeException e)
+      {
+        log.warn ("Could not reload data file [{}], keeping previous snapshot.", file, e);
+      }
+    }
+
+    /**
+     * Sets the snapshot loaded when the file started being watched, unless the watcher thread has already reloaded the
+     * file in the meantime, which it only does after a change, so its snapshot is at least as recent.
+     */
+    private void setInitialSnapshot (final T initialSnapshot)
+    {
+      snapshot.compareAndSet (null, initialSnapshot);
+    }
+
+    private Reloadable (final File file, final Loader <T> loader)
+    {
+      this.file = file;
+      this.loader = loader;
+
+      snapshot = new AtomicReference <> ();
+    }
+  }
+
+  /**
+   * Creates & starts a watcher with a debounce period of 250 milliseconds.
+   */
+  public static DataFileWatcher create () throws IOException
+  {
+    return create (DEFAULT_DEBOUNCE_MILLISECONDS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Creates & starts a watcher with the specified debounce period.
+   */
+  public static DataFileWatcher create (final long debounce, final TimeUnit unit) throws IOException
+  {
+    Arguments.checkIsNotNegative (debounce, "debounce");
+    Arguments.checkIsNotNull (unit, "unit");
+
+    final DataFileWatcher watcher = new DataFileWatcher (FileSystems.getDefault ().newWatchService (),
+            unit.toNanos (debounce));
+
+    watcher.thread.start ();
+
+    return watcher;
+  }
+
+  /**
+   * Watches the specified file for changes, & then parses it on the calling thread, so that no change made after it was
+   * parsed can be missed.
+   *
+   * @throws IOException
+   *           If the file cannot be parsed, or its directory cannot be watched.
+   * @throws IllegalStateException
+   *           If this watcher has been closed, or the file is already being watched.
+   */
+  public <T> Reloadable <T> watch (final File file, final Loader <T> loader) throws IOException
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNull (loader, "loader");
+    Preconditions.checkIsFalse (isClosed, "Cannot watch a file with a closed watcher.");
+
+    final Path path = file.toPath ().toAbsolutePath ().normalize ();
+    final Reloadable <T> reloadable = new Reloadable <> (file, loader);
+
+    Preconditions.checkIsTrue (watchedFiles.putIfAbsent (path, reloadable) == null,
+                               "File [" + file + "] is already being watched.");
+
+    // Register before the initial load, so that no change made after the file was loaded can be missed.
+    try
+    {
+      path.getParent ().register (watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                                  StandardWatchEventKinds.ENTRY_MODIFY);
+
+      final T initialSnapshot = loader.load (file);
+
+      Arguments.checkIsNotNull (initialSnapshot, "initialSnapshot");
+
+      reloadable.setInitialSnapshot (initialSnapshot);
+    }
+    catch (final IOException | RuntimeException e)
+    {
+      // Forget the file, so that watching it can be retried.
+      watchedFiles.remove (path, reloadable);
+
+      throw e;
+    }
+
+    return reloadable;
+  }
+
+  /**
+   * Stops watching all files. Snapshots remain readable. Idempotent.
+   */
+  @Override
+  public void close () throws IOException
+  {
+    isClosed = true;
+    watchService.close ();
+  }
+
+  private void run ()
+  {
+    while (!isClosed)
+    {
+      try
+      {
+        final WatchKey key = pendingChanges.isEmpty () ? watchService.take ()
+                : watchService.poll (debounceNanoseconds, TimeUnit.NANOSECONDS);
+
+        if (key != null) recordChanges (key);
+
+        reloadSettledFiles ();
+      }
+      catch (final InterruptedException | ClosedWatchServiceException e)
+      {
+        break;
+      }
+    }
+  }
+
+  private void recordChanges (final WatchKey key)
+  {
+    final Path directory = (Path) key.watchable ();
+    final long now = System.nanoTime ();
+
+    for (final WatchEvent <?> event : key.pollEvents ())
+    {
+      if (event.kind () == StandardWatchEventKinds.OVERFLOW)
+      {
+        // Events were lost, so every watched file in the directory may have changed.
+        for (final Path path : watchedFiles.keySet ())
+        {
+          if (directory.equals (path.getParent ())) pendingChanges.put (path, now);
+        }
+
+        continue;
+      }
+
+      final Path path = directory.resolve ((Path) event.context ());
+
+      if (watchedFiles.containsKey (path)) pendingChanges.put (path, now);
+    }
+
+    key.reset ();
+  }
+
+  private void reloadSettledFiles ()
+  {
+    final long now = System.nanoTime ();
+    final Iterator <Map.Entry <Path, Long>> iterator = pendingChanges.entrySet ().iterator ();
+
+    while (iterator.hasNext ())
+    {
+      final Map.Entry <Path, Long> pendingChange = iterator.next ();
+
+      if (now - pendingChange.getValue () < debounceNanoseconds) continue;
+
+      iterator.remove ();
+      watchedFiles.get (pendingChange.getKey ()).reload ();
+    }
+  }
+
+  private DataFileWatcher (final WatchService watchService, final long debounceNanoseconds)
+  {
+    this.watchService = watchService;
+    this.debounceNanoseconds = debounceNanoseconds;
+
+    thread = new Thread (new Runnable ()
+    {
+      @Override
+      public void run ()
+      {
+        DataFileWatcher.this.run ();
+      }
+    }, getClass ().getSimpleName ());
+
+    thread.setDaemon (true);
+  }
+}
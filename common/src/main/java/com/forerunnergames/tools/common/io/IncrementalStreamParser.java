@@ -0,0 +1,664 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A non-blocking counterpart of {@link StreamParser} for input that arrives in pieces, e.g. from a non-blocking socket.
+ * <p/>
+ * The caller feeds {@link ByteBuffer} chunks as they arrive with {@link #feed(ByteBuffer)}; every token completed by a
+ * chunk is passed to the {@link TokenVisitor} immediately, together with every line end. Bytes of a partial character,
+ * and characters of a partial token, are kept until the next chunk completes them, so only the current partial token
+ * is ever buffered. Call {@link #finish()} after the last chunk to complete the final token.
+ * <p/>
+ * Tokens are recognized with the same syntax tables as {@link StreamParser}, including {@link #withCSVSyntax()} and
+ * {@link #withComments(StreamParser.CommentType, StreamParser.CommentStatus)}, except that line ends are always
+ * significant, so that records can be recognized.
+ * <p/>
+ * Not thread-safe.
+ */
+public final class IncrementalStreamParser
+{
+  private static final int INITIAL_BUFFER_SIZE = 1024;
+  private static final int MAX_BYTES_PER_CHARACTER = 8;
+  private static final byte WHITESPACE = 1;
+  private static final byte DIGIT = 2;
+  private static final byte ALPHA = 4;
+  private static final byte QUOTE = 8;
+  private final byte[] syntax = new byte [256];
+  private final TokenVisitor visitor;
+  private final CharsetDecoder decoder;
+  private final ByteBuffer partialCharacter = ByteBuffer.allocate (MAX_BYTES_PER_CHARACTER);
+  private char[] buffer = new char [INITIAL_BUFFER_SIZE];
+  private CharBuffer view = CharBuffer.wrap (buffer);
+  private int position;
+  private int limit;
+  private boolean areSlashSlashCommentsEnabled = false;
+  private boolean areSlashStarCommentsEnabled = false;
+  private boolean isInLineComment = false;
+  private boolean isInBlockComment = false;
+  private boolean isAfterCarriageReturn = false;
+  private boolean isFinished = false;
+
+  public IncrementalStreamParser (final TokenVisitor visitor)
+  {
+    this (visitor, StandardCharsets.UTF_8);
+  }
+
+  public IncrementalStreamParser (final TokenVisitor visitor, final Charset charset)
+  {
+    Arguments.checkIsNotNull (visitor, "visitor");
+    Arguments.checkIsNotNull (charset, "charset");
+
+    this.visitor = visitor;
+
+    decoder = charset.newDecoder ().onMalformedInput (CodingErrorAction.REPLACE)
+            .onUnmappableCharacter (CodingErrorAction.REPLACE);
+
+    setupSyntaxTables ();
+  }
+
+  /**
+   * Configures the parser for CSV (comma separated values) data, exactly like {@link StreamParser#withCSVSyntax()}.
+   *
+   * @return The IncrementalStreamParser instance, configured for parsing CSV data.
+   */
+  public IncrementalStreamParser withCSVSyntax ()
+  {
+    resetSyntax ();
+    parseNumbers ();
+    wordChars (0, 9);
+    whitespaceChars (10, 10);
+    wordChars (11, 12);
+    whitespaceChars (13, 13);
+    wordChars (14, 31);
+    whitespaceChars (32, 32);
+    wordChars (33, 33);
+    quoteChar (34);
+    wordChars (35, 41);
+    wordChars (43, 43);
+    whitespaceChars (44, 44);
+    wordChars (45, 46);
+    wordChars (58, 255);
+
+    configureComments ();
+
+    return this;
+  }
+
+  /**
+   * Enable / disable slash-slash comments or slash-star comments.
+   *
+   * @see StreamParser#withComments(StreamParser.CommentType, StreamParser.CommentStatus)
+   */
+  public IncrementalStreamParser withComments (final StreamParser.CommentType commentType,
+                                               final StreamParser.CommentStatus commentStatus)
+  {
+    Arguments.checkIsNotNull (commentType, "commentType");
+    Arguments.checkIsNotNull (commentStatus, "commentStatus");
+
+    switch (commentType)
+    {
+      case SLASH_SLASH:
+      {
+        areSlashSlashCommentsEnabled = commentStatus.isEnabled ();
+
+        break;
+      }
+      case SLASH_STAR:
+      {
+        areSlashStarCommentsEnabled = commentStatus.isEnabled ();
+
+        break;
+      }
+    }
+
+    configureComments ();
+
+    return this;
+  }
+
+  /**
+   * Parses as many tokens as the specified chunk completes. All remaining bytes of the chunk are consumed.
+   *
+   * @param chunk
+   *          The next chunk of input, must not be null.
+   *
+   * @throws IllegalStateException
+   *           If {@link #finish()} has already been called.
+   */
+  public void feed (final ByteBuffer chunk)
+  {
+    Arguments.checkIsNotNull (chunk, "chunk");
+    Preconditions.checkIsFalse (isFinished, "Cannot feed a finished parser.");
+
+    compact ();
+    ensureCapacity (limit + (int) Math.ceil (chunk.remaining () * (double) decoder.maxCharsPerByte ()) + 2);
+
+    final CharBuffer out = CharBuffer.wrap (buffer, limit, buffer.length - limit);
+
+    completePartialCharacter (chunk, out);
+    decoder.decode (chunk, out, false);
+
+    if (chunk.hasRemaining ()) partialCharacter.put (chunk);
+
+    limit = out.position ();
+
+    scan (false);
+  }
+
+  /**
+   * Completes the final token, if any, and notifies the visitor of the end of the input. No more chunks can be fed
+   * afterwards. Idempotent.
+   */
+  public void finish ()
+  {
+    if (isFinished) return;
+
+    isFinished = true;
+
+    compact ();
+    ensureCapacity (limit + MAX_BYTES_PER_CHARACTER + 2);
+
+    final CharBuffer out = CharBuffer.wrap (buffer, limit, buffer.length - limit);
+
+    partialCharacter.flip ();
+    decoder.decode (partialCharacter, out, true);
+    decoder.flush (out);
+    partialCharacter.clear ();
+
+    limit = out.position ();
+
+    scan (true);
+
+    visitor.visitEndOfFile ();
+  }
+
+  private void completePartialCharacter (final ByteBuffer chunk, final CharBuffer out)
+  {
+    while (partialCharacter.position () > 0 && chunk.hasRemaining ())
+    {
+      partialCharacter.put (chunk.get ());
+      partialCharacter.flip ();
+      decoder.decode (partialCharacter, out, false);
+      partialCharacter.compact ();
+    }
+  }
+
+  private void scan (final boolean isEndOfInput)
+  {
+    while (position < limit)
+    {
+      if (isInBlockComment)
+      {
+        if (!skipBlockComment ()) return;
+
+        continue;
+      }
+
+      final char c = buffer [position];
+
+      if (c == '\n' && isAfterCarriageReturn)
+      {
+        isAfterCarriageReturn = false;
+        ++position;
+
+        continue;
+      }
+
+      isAfterCarriageReturn = false;
+
+      if (c == '\n' || c == '\r')
+      {
+        isInLineComment = false;
+        isAfterCarriageReturn = c == '\r';
+        ++position;
+
+        visitor.visitEndOfLine ();
+
+        continue;
+      }
+
+      if (isInLineComment)
+      {
+        ++position;
+
+        continue;
+      }
+
+      final int type = typeOf (c);
+      final int end;
+
+      if ((type & WHITESPACE) != 0)
+      {
+        ++position;
+
+        continue;
+      }
+      else if ((type & DIGIT) != 0)
+      {
+        end = scanNumber (isEndOfInput);
+      }
+      else if ((type & ALPHA) != 0)
+      {
+        end = scanWord (isEndOfInput);
+      }
+      else if ((type & QUOTE) != 0)
+      {
+        end = scanQuotedString (isEndOfInput);
+      }
+      else
+      {
+        end = scanOrdinaryCharacter (isEndOfInput);
+      }
+
+      if (end < 0) return;
+
+      position = end;
+    }
+  }
+
+  /**
+   * @return The end of the token, or -1 if more input is needed to complete it.
+   */
+  private int scanNumber (final boolean isEndOfInput)
+  {
+    int i = position;
+
+    if (buffer [i] == '-')
+    {
+      if (++i == limit && !isEndOfInput) return -1;
+
+      if (i == limit || buffer [i] != '.' && !isDigit (buffer [i]))
+      {
+        visitor.visitCharacter ('-');
+
+        return i;
+      }
+    }
+
+    boolean hasDecimalPoint = false;
+
+    for (; i < limit; ++i)
+    {
+      final char c = buffer [i];
+
+      if (c == '.' && !hasDecimalPoint)
+      {
+        hasDecimalPoint = true;
+      }
+      else if (!isDigit (c))
+      {
+        break;
+      }
+    }
+
+    if (i == limit && !isEndOfInput) return -1;
+
+    visitor.visitNumber (toNumber (position, i));
+
+    return i;
+  }
+
+  private int scanWord (final boolean isEndOfInput)
+  {
+    int i = position + 1;
+
+    while (i < limit && (typeOf (buffer [i]) & (ALPHA | DIGIT)) != 0)
+    {
+      ++i;
+    }
+
+    if (i == limit && !isEndOfInput) return -1;
+
+    visitor.visitUnquotedString (viewOf (position, i));
+
+    return i;
+  }
+
+  private int scanQuotedString (final boolean isEndOfInput)
+  {
+    final char quote = buffer [position];
+    int i = position + 1;
+
+    while (i < limit && buffer [i] != quote && buffer [i] != '\n' && buffer [i] != '\r')
+    {
+      i += buffer [i] == '\\' ? 2 : 1;
+    }
+
+    if (i >= limit && !isEndOfInput) return -1;
+
+    i = Math.min (i, limit);
+
+    final int contentEnd = unescape (position + 1, i);
+
+    visitor.visitQuotedString (viewOf (position + 1, contentEnd));
+
+    return i < limit && buffer [i] == quote ? i + 1 : i;
+  }
+
+  private int scanOrdinaryCharacter (final boolean isEndOfInput)
+  {
+    final char c = buffer [position];
+
+    if (c == '/' && (areSlashSlashCommentsEnabled || areSlashStarCommentsEnabled))
+    {
+      if (position + 1 == limit && !isEndOfInput) return -1;
+
+      final char next = position + 1 < limit ? buffer [position + 1] : 0;
+
+      if (next == '/' && areSlashSlashCommentsEnabled)
+      {
+        isInLineComment = true;
+
+        return position + 2;
+      }
+
+      if (next == '*' && areSlashStarCommentsEnabled)
+      {
+        isInBlockComment = true;
+
+        return position + 2;
+      }
+    }
+
+    visitor.visitCharacter (c);
+
+    return position + 1;
+  }
+
+  /**
+   * @return Whether the end of the block comment was reached.
+   */
+  private boolean skipBlockComment ()
+  {
+    while (position < limit)
+    {
+      if (buffer [position] == '*' && position + 1 < limit && buffer [position + 1] == '/')
+      {
+        isInBlockComment = false;
+        position += 2;
+
+        return true;
+      }
+
+      if (buffer [position] == '*' && position + 1 == limit) return false;
+
+      ++position;
+    }
+
+    return false;
+  }
+
+  /**
+   * Resolves backslash escapes in place, exactly like {@link java.io.StreamTokenizer}.
+   *
+   * @return The end of the unescaped content.
+   */
+  private int unescape (final int start, final int end)
+  {
+    int write = start;
+    int read = start;
+
+    while (read < end)
+    {
+      char c = buffer [read++];
+
+      if (c == '\\' && read < end)
+      {
+        c = buffer [read++];
+
+        switch (c)
+        {
+          case 'a':
+          {
+            c = 0x7;
+            break;
+          }
+          case 'b':
+          {
+            c = '\b';
+            break;
+          }
+          case 'f':
+          {
+            c = 0xC;
+            break;
+          }
+          case 'n':
+          {
+            c = '\n';
+            break;
+          }
+          case 'r':
+          {
+            c = '\r';
+            break;
+          }
+          case 't':
+          {
+            c = '\t';
+            break;
+          }
+          case 'v':
+          {
+            c = 0xB;
+            break;
+          }
+          default:
+          {
+            if (c >= '0' && c <= '7')
+            {
+              final int first = c - '0';
+              int value = first;
+
+              if (read < end && buffer [read] >= '0' && buffer [read] <= '7')
+              {
+                value = value * 8 + buffer [read++] - '0';
+
+                if (first <= 3 && read < end && buffer [read] >= '0' && buffer [read] <= '7')
+                {
+                  value = value * 8 + buffer [read++] - '0';
+                }
+              }
+
+              c = (char) value;
+            }
+
+            break;
+          }
+        }
+      }
+
+      buffer [write++] = c;
+    }
+
+    return write;
+  }
+
+  /**
+   * Computes the value of a number token exactly like {@link java.io.StreamTokenizer}, so that both parsers produce
+   * identical values.
+   */
+  private double toNumber (final int start, final int end)
+  {
+    int i = start;
+    final boolean isNegative = buffer [i] == '-';
+
+    if (isNegative) ++i;
+
+    double value = 0;
+    int decimalExponent = 0;
+    int decimalPointSeen = 0;
+
+    for (; i < end; ++i)
+    {
+      final char c = buffer [i];
+
+      if (c == '.')
+      {
+        decimalPointSeen = 1;
+      }
+      else
+      {
+        value = value * 10 + (c - '0');
+        decimalExponent += decimalPointSeen;
+      }
+    }
+
+    if (decimalExponent != 0)
+    {
+      double denominator = 10;
+
+      while (--decimalExponent > 0)
+      {
+        denominator *= 10;
+      }
+
+      value = value / denominator;
+    }
+
+    return isNegative ? -value : value;
+  }
+
+  private CharSequence viewOf (final int start, final int end)
+  {
+    view.clear ();
+    view.position (start);
+    view.limit (end);
+
+    return view;
+  }
+
+  private int typeOf (final char c)
+  {
+    return c < syntax.length ? syntax [c] : ALPHA;
+  }
+
+  private static boolean isDigit (final char c)
+  {
+    return c >= '0' && c <= '9';
+  }
+
+  private void compact ()
+  {
+    if (position == 0) return;
+
+    System.arraycopy (buffer, position, buffer, 0, limit - position);
+    limit -= position;
+    position = 0;
+  }
+
+  private void ensureCapacity (final int capacity)
+  {
+    if (capacity <= buffer.length) return;
+
+    buffer = Arrays.copyOf (buffer, Math.max (capacity, buffer.length * 2));
+    view = CharBuffer.wrap (buffer);
+  }
+
+  private void setupSyntaxTables ()
+  {
+    resetSyntax ();
+    parseNumbers ();
+    whitespaceChars (0, 32);
+    wordChars (33, 33);
+    quoteChar (34);
+    wordChars (35, 41);
+    wordChars (43, 46);
+    wordChars (58, 126);
+    whitespaceChars (127, 159);
+    wordChars (160, 255);
+
+    configureComments ();
+  }
+
+  private void configureComments ()
+  {
+    if (areSlashStarCommentsEnabled || areSlashSlashCommentsEnabled)
+    {
+      syntax ['/'] = 0;
+    }
+    else
+    {
+      wordChars ('/', '/');
+    }
+
+    if (areSlashStarCommentsEnabled)
+    {
+      syntax ['*'] = 0;
+    }
+    else
+    {
+      wordChars ('*', '*');
+    }
+  }
+
+  private void resetSyntax ()
+  {
+    Arrays.fill (syntax, (byte) 0);
+  }
+
+  private void parseNumbers ()
+  {
+    for (int c = '0'; c <= '9'; ++c)
+    {
+      syntax [c] |= DIGIT;
+    }
+
+    syntax ['.'] |= DIGIT;
+    syntax ['-'] |= DIGIT;
+  }
+
+  private void wordChars (final int low, final int high)
+  {
+    for (int c = low; c <= high; ++c)
+    {
+      syntax [c] |= ALPHA;
+    }
+  }
+
+  private void whitespaceChars (final int low, final int high)
+  {
+    for (int c = low; c <= high; ++c)
+    {
+      syntax [c] = WHITESPACE;
+    }
+  }
+
+  private void quoteChar (final int c)
+  {
+    syntax [c] = QUOTE;
+  }
+}
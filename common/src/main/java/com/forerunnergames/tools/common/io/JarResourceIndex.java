@@ -0,0 +1,359 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.Strings;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedSet;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.regex.Pattern;
+
+/**
+ * An in-memory index of the entries of a jar, so that directory listings & glob lookups do not have to re-read the
+ * central directory of the jar every time.
+ * <p/>
+ * Indices are shared process-wide, one per jar, are built lazily on first use, & are rebuilt when the modification time
+ * or the size of the jar changes. Paths are relative to the root of the jar, & may or may not begin or end with a /.
+ * <p/>
+ * Immutable & thread-safe.
+ */
+public final class JarResourceIndex
+{
+  private static final ConcurrentMap <URI, JarResourceIndex> INDICES = new ConcurrentHashMap <> ();
+  private static final String JAR_SCHEME = "jar";
+  private static final String JAR_SEPARATOR = "!/";
+  private final long lastModified;
+  private final long length;
+  private final ImmutableMap <String, Directory> directories;
+  private final ImmutableList <String> filePaths;
+
+  /**
+   * @param jarUri
+   *          A jar URL, e.g., as returned by {@link Class#getResource(String)} for a resource within a jar, i.e.,
+   *          jar:&lt;jar file URI&gt;!/&lt;entry&gt;, or the file URI of the jar itself, must not be null.
+   *
+   * @throws IllegalStateException
+   *           If the jar cannot be read.
+   */
+  public static JarResourceIndex forJar (final URI jarUri)
+  {
+    Arguments.checkIsNotNull (jarUri, "jarUri");
+
+    final URI jarFileUri = toJarFileUri (jarUri);
+    final File jarFile = new File (jarFileUri);
+    final JarResourceIndex index = INDICES.get (jarFileUri);
+
+    // Concurrent callers may build the same index twice, which is harmless, as the last one built wins.
+    if (index != null && index.isCurrent (jarFile)) return index;
+
+    final JarResourceIndex newIndex = build (jarFile);
+
+    INDICES.put (jarFileUri, newIndex);
+
+    return newIndex;
+  }
+
+  /**
+   * @return The names of the directories one level below the specified directory, sorted, or an empty list if the
+   *         directory does not exist.
+   */
+  public ImmutableList <String> getChildDirectoryNames (final String directoryPath)
+  {
+    Arguments.checkIsNotNull (directoryPath, "directoryPath");
+
+    final Directory directory = directories.get (normalize (directoryPath));
+
+    return directory != null ? directory.childDirectoryNames.asList () : ImmutableList.<String> of ();
+  }
+
+  /**
+   * @return The names of the files directly in the specified directory, sorted, or an empty list if the directory does
+   *         not exist.
+   */
+  public ImmutableList <String> getChildFileNames (final String directoryPath)
+  {
+    Arguments.checkIsNotNull (directoryPath, "directoryPath");
+
+    final Directory directory = directories.get (normalize (directoryPath));
+
+    return directory != null ? directory.childFileNames.asList () : ImmutableList.<String> of ();
+  }
+
+  public boolean hasDirectory (final String directoryPath)
+  {
+    Arguments.checkIsNotNull (directoryPath, "directoryPath");
+
+    return directories.containsKey (normalize (directoryPath));
+  }
+
+  /**
+   * Finds the paths of all files matching a glob pattern, in which * matches any characters except /, ** matches any
+   * characters, ? matches any single character except /, & {a,b} matches either alternative.
+   *
+   * @param globPattern
+   *          The glob pattern, relative to the root of the jar, must not be null.
+   *
+   * @return The matching file paths, without a leading /, sorted.
+   */
+  public ImmutableList <String> findFilePaths (final String globPattern)
+  {
+    Arguments.checkIsNotNull (globPattern, "globPattern");
+
+    final Pattern pattern = Pattern.compile (toRegex (normalize (globPattern)));
+    final ImmutableList.Builder <String> matches = ImmutableList.builder ();
+
+    for (final String filePath : filePaths)
+    {
+      if (pattern.matcher (filePath).matches ()) matches.add (filePath);
+    }
+
+    return matches.build ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return Strings.format ("{}: Directories: {} | Files: {} | Last modified: {}", getClass ().getSimpleName (),
+                           directories.size (), filePaths.size (), lastModified);
+  }
+
+  private boolean isCurrent (final File jarFile)
+  {
+    return jarFile.lastModified () == lastModified && jarFile.length () == length;
+  }
+
+  private static JarResourceIndex build (final File jarFile)
+  {
+    final long lastModified = jarFile.lastModified ();
+    final long length = jarFile.length ();
+    final Map <String, DirectoryBuilder> directories = new HashMap <> ();
+    final TreeSet <String> filePaths = new TreeSet <> ();
+
+    directories.put ("", new DirectoryBuilder ());
+
+    try (final JarFile jar = new JarFile (jarFile))
+    {
+      final Enumeration <JarEntry> entries = jar.entries ();
+
+      while (entries.hasMoreElements ())
+      {
+        final JarEntry entry = entries.nextElement ();
+        final String path = normalize (entry.getName ());
+
+        if (path.isEmpty ()) continue;
+
+        if (entry.isDirectory ())
+        {
+          addDirectory (path, directories);
+        }
+        else
+        {
+          filePaths.add (path);
+          directories.get (addDirectory (parentOf (path), directories)).childFileNames.add (nameOf (path));
+        }
+      }
+    }
+    catch (final IOException e)
+    {
+      throw new IllegalStateException (Strings.format ("Failed to index jar: {}", jarFile), e);
+    }
+
+    final ImmutableMap.Builder <String, Directory> builtDirectories = ImmutableMap.builder ();
+
+    for (final Map.Entry <String, DirectoryBuilder> directory : directories.entrySet ())
+    {
+      builtDirectories.put (directory.getKey (), directory.getValue ().build ());
+    }
+
+    return new JarResourceIndex (lastModified, length, builtDirectories.build (), ImmutableList.copyOf (filePaths));
+  }
+
+  /**
+   * Adds a directory & all of its missing ancestors, since jars need not contain entries for directories.
+   *
+   * @return The directory path.
+   */
+  private static String addDirectory (final String path, final Map <String, DirectoryBuilder> directories)
+  {
+    if (directories.containsKey (path)) return path;
+
+    directories.put (path, new DirectoryBuilder ());
+    directories.get (addDirectory (parentOf (path), directories)).childDirectoryNames.add (nameOf (path));
+
+    return path;
+  }
+
+  private static URI toJarFileUri (final URI jarUri)
+  {
+    if (!JAR_SCHEME.equals (jarUri.getScheme ())) return jarUri;
+
+    final String specific = jarUri.getRawSchemeSpecificPart ();
+    final int separator = specific.indexOf (JAR_SEPARATOR);
+
+    try
+    {
+      return new URI (separator >= 0 ? specific.substring (0, separator) : specific);
+    }
+    catch (final URISyntaxException e)
+    {
+      throw new IllegalStateException (Strings.format ("Invalid jar URI: {}", jarUri), e);
+    }
+  }
+
+  private static String normalize (final String path)
+  {
+    int start = 0;
+    int end = path.length ();
+
+    while (start < end && path.charAt (start) == '/')
+    {
+      ++start;
+    }
+
+    while (end > start && path.charAt (end - 1) == '/')
+    {
+      --end;
+    }
+
+    return path.substring (start, end);
+  }
+
+  private static String parentOf (final String path)
+  {
+    final int separator = path.lastIndexOf ('/');
+
+    return separator >= 0 ? path.substring (0, separator) : "";
+  }
+
+  private static String nameOf (final String path)
+  {
+    return path.substring (path.lastIndexOf ('/') + 1);
+  }
+
+  private static String toRegex (final String globPattern)
+  {
+    final StringBuilder regex = new StringBuilder ();
+    boolean isInAlternatives = false;
+
+    for (int i = 0; i < globPattern.length (); ++i)
+    {
+      final char c = globPattern.charAt (i);
+
+      switch (c)
+      {
+        case '*':
+        {
+          if (i + 1 < globPattern.length () && globPattern.charAt (i + 1) == '*')
+          {
+            regex.append (".*");
+            ++i;
+          }
+          else
+          {
+            regex.append ("[^/]*");
+          }
+
+          break;
+        }
+        case '?':
+        {
+          regex.append ("[^/]");
+          break;
+        }
+        case '{':
+        {
+          regex.append ("(?:");
+          isInAlternatives = true;
+          break;
+        }
+        case '}':
+        {
+          regex.append (isInAlternatives ? ")" : "\\}");
+          isInAlternatives = false;
+          break;
+        }
+        case ',':
+        {
+          regex.append (isInAlternatives ? "|" : ",");
+          break;
+        }
+        default:
+        {
+          regex.append (Pattern.quote (String.valueOf (c)));
+          break;
+        }
+      }
+    }
+
+    return regex.toString ();
+  }
+
+  private JarResourceIndex (final long lastModified,
+                            final long length,
+                            final ImmutableMap <String, Directory> directories,
+                            final ImmutableList <String> filePaths)
+  {
+    this.lastModified = lastModified;
+    this.length = length;
+    this.directories = directories;
+    this.filePaths = filePaths;
+  }
+
+  private static final class Directory
+  {
+    private final ImmutableSortedSet <String> childDirectoryNames;
+    private final ImmutableSortedSet <String> childFileNames;
+
+    Directory (final ImmutableSortedSet <String> childDirectoryNames, final ImmutableSortedSet <String> childFileNames)
+    {
+      this.childDirectoryNames = childDirectoryNames;
+      this.childFileNames = childFileNames;
+    }
+  }
+
+  private static final class DirectoryBuilder
+  {
+    private final TreeSet <String> childDirectoryNames = new TreeSet <> ();
+    private final TreeSet <String> childFileNames = new TreeSet <> ();
+
+    Directory build ()
+    {
+      return new Directory (ImmutableSortedSet.copyOf (childDirectoryNames), ImmutableSortedSet.copyOf (childFileNames));
+    }
+  }
+}
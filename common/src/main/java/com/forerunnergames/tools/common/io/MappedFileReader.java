@@ -0,0 +1,246 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A {@link Reader} that decodes characters directly from a read-only memory mapping of a file, without any
+ * intermediate heap byte buffers or {@link java.io.BufferedReader} layers.
+ * <p/>
+ * Files larger than the maximum window size are mapped in consecutive windows. For US-ASCII & UTF-8, single-byte
+ * characters are returned straight from the mapping without going through the {@link CharsetDecoder}; all other
+ * characters are decoded normally, with malformed input replaced by the charset's replacement character.
+ * <p/>
+ * Not thread-safe.
+ */
+final class MappedFileReader extends Reader
+{
+  private static final long MAX_WINDOW_SIZE = 1L << 28;
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final CharsetDecoder decoder;
+  private final boolean isAsciiCompatible;
+  private final long endPosition;
+  private final CharBuffer pending = CharBuffer.allocate (2);
+  private MappedByteBuffer window;
+  private long windowPosition;
+  private boolean isWindowLast;
+  private boolean isFlushed;
+  private boolean isOpen = true;
+
+  MappedFileReader (final File file, final Charset charset) throws IOException
+  {
+    this (file, 0, -1, charset);
+  }
+
+  /**
+   * @param startPosition
+   *          The byte offset in the file at which to start reading, must be >= 0.
+   * @param endPosition
+   *          The byte offset in the file at which to stop reading (exclusive), or -1 to read until the end of the file.
+   */
+  MappedFileReader (final File file, final long startPosition, final long endPosition, final Charset charset)
+          throws IOException
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNegative (startPosition, "startPosition");
+    Arguments.checkIsNotNull (charset, "charset");
+
+    this.file = new RandomAccessFile (file, "r");
+
+    // Close the file on any failure, since the caller has no reference to close it with.
+    try
+    {
+      channel = this.file.getChannel ();
+
+      final long size = channel.size ();
+
+      this.endPosition = endPosition < 0 ? size : Math.min (endPosition, size);
+
+      Arguments.checkUpperInclusiveBound (startPosition, this.endPosition, "startPosition", "endPosition");
+
+      decoder = charset.newDecoder ().onMalformedInput (CodingErrorAction.REPLACE)
+              .onUnmappableCharacter (CodingErrorAction.REPLACE);
+      isAsciiCompatible = charset.equals (StandardCharsets.UTF_8) || charset.equals (StandardCharsets.US_ASCII);
+      pending.flip ();
+
+      mapWindowAt (startPosition);
+    }
+    catch (final IOException | RuntimeException e)
+    {
+      this.file.close ();
+
+      throw e;
+    }
+  }
+
+  @Override
+  public int read () throws IOException
+  {
+    checkIsOpen ();
+
+    if (pending.hasRemaining ()) return pending.get ();
+
+    if (isAsciiCompatible && window.hasRemaining ())
+    {
+      final int position = window.position ();
+      final byte b = window.get (position);
+
+      if (b >= 0)
+      {
+        window.position (position + 1);
+
+        return b;
+      }
+    }
+
+    pending.clear ();
+
+    final int decodedCount = decode (pending);
+
+    pending.flip ();
+
+    return decodedCount < 0 ? -1 : pending.get ();
+  }
+
+  @Override
+  public int read (final char[] cbuf, final int off, final int len) throws IOException
+  {
+    Arguments.checkIsNotNull (cbuf, "cbuf");
+
+    checkIsOpen ();
+
+    if (off < 0 || len < 0 || len > cbuf.length - off) throw new IndexOutOfBoundsException ();
+
+    if (len == 0) return 0;
+
+    int count = 0;
+
+    while (count < len && pending.hasRemaining ())
+    {
+      cbuf [off + count++] = pending.get ();
+    }
+
+    if (count == len) return count;
+
+    final int decodedCount = decode (CharBuffer.wrap (cbuf, off + count, len - count));
+
+    if (decodedCount < 0) return count == 0 ? -1 : count;
+
+    return count + decodedCount;
+  }
+
+  @Override
+  public boolean ready () throws IOException
+  {
+    checkIsOpen ();
+
+    return pending.hasRemaining () || window.hasRemaining () || !isWindowLast;
+  }
+
+  @Override
+  public void close () throws IOException
+  {
+    if (!isOpen) return;
+
+    isOpen = false;
+    window = null;
+
+    file.close ();
+  }
+
+  /**
+   * Decodes at least one character into out, mapping the next window whenever the current one runs out, including
+   * when it ends in the middle of a multi-byte character.
+   *
+   * @return The number of characters decoded, or -1 if the end of the input has been reached.
+   */
+  private int decode (final CharBuffer out) throws IOException
+  {
+    final int start = out.position ();
+
+    while (out.position () == start)
+    {
+      if (isFlushed) return -1;
+
+      final CoderResult result = decoder.decode (window, out, isWindowLast);
+
+      if (result.isError ()) throwDecodingError (result);
+
+      if (out.position () > start || result.isOverflow ()) break;
+
+      if (!isWindowLast)
+      {
+        mapWindowAt (windowPosition + window.position ());
+
+        continue;
+      }
+
+      decoder.flush (out);
+      isFlushed = true;
+    }
+
+    return out.position () - start;
+  }
+
+  private void mapWindowAt (final long position) throws IOException
+  {
+    final long windowSize = Math.min (MAX_WINDOW_SIZE, endPosition - position);
+
+    window = channel.map (FileChannel.MapMode.READ_ONLY, position, windowSize);
+    windowPosition = position;
+    isWindowLast = position + windowSize == endPosition;
+  }
+
+  private static void throwDecodingError (final CoderResult result) throws IOException
+  {
+    try
+    {
+      result.throwException ();
+    }
+    catch (final CharacterCodingException e)
+    {
+      throw new IOException ("Could not decode mapped file.", e);
+    }
+  }
+
+  private void checkIsOpen () throws IOException
+  {
+    if (!isOpen) throw new IOException ("Reader is closed.");
+  }
+}
@@ -0,0 +1,533 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Parses a large, line-oriented file in parallel by splitting it into byte ranges that each begin at the start of a
+ * line, and parsing each range with its own {@link StreamParser} on a {@link ForkJoinPool}.
+ * <p/>
+ * Chunks are never split inside a slash-star comment (when enabled), and quoted strings & line comments are honored
+ * when looking for the end of a comment. Like {@link StreamParser} itself, quoted strings cannot span lines.
+ * <p/>
+ * Records are always delivered to the {@link RecordConsumer} on the calling thread, either in their original order or
+ * in chunk completion order, so consumers do not need to be thread-safe. Only US-ASCII, ISO-8859-1 & UTF-8 files are
+ * supported, because chunk boundaries are found by scanning raw bytes.
+ */
+public final class ParallelFileParser
+{
+  private static final long MIN_CHUNK_SIZE = 1L << 20;
+  private static final long SCAN_WINDOW_SIZE = 1L << 26;
+  private static final int CHUNKS_PER_THREAD = 4;
+  private static final int MAX_CHUNKS_IN_FLIGHT_PER_THREAD = 2;
+  private final File file;
+  private final Charset charset;
+  private final boolean isCSVSyntax;
+  private final ImmutableList <Map.Entry <StreamParser.CommentType, StreamParser.CommentStatus>> commentSettings;
+  private final long chunkSize;
+  private final ForkJoinPool pool;
+
+  public enum RecordOrder
+  {
+    /**
+     * Records are delivered in the order in which they appear in the file.
+     */
+    ORIGINAL,
+
+    /**
+     * Records of each chunk are delivered in order, but chunks are delivered as soon as they are parsed.
+     */
+    UNORDERED
+  }
+
+  /**
+   * Parses a single record from a chunk of the file.
+   */
+  public interface RecordParser <T>
+  {
+    /**
+     * Parses the next record. Called repeatedly, from a pool thread, for as long as the parser of the chunk has tokens
+     * remaining, so each call must consume at least one token.
+     *
+     * @param parser
+     *          The parser of the current chunk, configured with the syntax & comment settings of the
+     *          {@link ParallelFileParser}, never null.
+     *
+     * @return The parsed record, must not be null.
+     */
+    T parseRecord (final StreamParser parser) throws StreamParserException;
+  }
+
+  /**
+   * Receives parsed records, always on the thread that called
+   * {@link ParallelFileParser#parse(RecordParser, RecordOrder, RecordConsumer)}.
+   */
+  public interface RecordConsumer <T>
+  {
+    void accept (final T record);
+  }
+
+  public static Builder builder (final File file)
+  {
+    Arguments.checkIsNotNull (file, "file");
+
+    return new Builder (file);
+  }
+
+  /**
+   * Parses the whole file, collecting all records in their original order.
+   *
+   * @return All records of the file, in their original order.
+   *
+   * @throws StreamParserException
+   *           If the file cannot be read, or if the record parser throws a StreamParserException for any chunk.
+   */
+  public <T> ImmutableList <T> parse (final RecordParser <T> recordParser) throws StreamParserException
+  {
+    final ImmutableList.Builder <T> records = ImmutableList.builder ();
+
+    parse (recordParser, RecordOrder.ORIGINAL, new RecordConsumer <T> ()
+    {
+      @Override
+      public void accept (final T record)
+      {
+        records.add (record);
+      }
+    });
+
+    return records.build ();
+  }
+
+  /**
+   * Parses the whole file, passing each record to the specified consumer in the specified order.
+   * <p/>
+   * At most two chunks per pool thread are parsed ahead of delivery, which bounds the number of buffered records.
+   *
+   * @return The number of records parsed.
+   *
+   * @throws StreamParserException
+   *           If the file cannot be read, or if the record parser throws a StreamParserException for any chunk.
+   */
+  public <T> int parse (final RecordParser <T> recordParser, final RecordOrder order, final RecordConsumer <T> consumer)
+          throws StreamParserException
+  {
+    Arguments.checkIsNotNull (recordParser, "recordParser");
+    Arguments.checkIsNotNull (order, "order");
+    Arguments.checkIsNotNull (consumer, "consumer");
+
+    final List <long[]> chunks = split ();
+    final ForkJoinPool executor = pool != null ? pool : new ForkJoinPool ();
+    final int maxChunksInFlight = executor.getParallelism () * MAX_CHUNKS_IN_FLIGHT_PER_THREAD;
+    final CompletionService <List <T>> completionService = new ExecutorCompletionService <> (executor);
+    final Deque <Future <List <T>>> inFlight = new ArrayDeque <> ();
+    int nextChunk = 0;
+    int recordCount = 0;
+
+    try
+    {
+      while (nextChunk < chunks.size () || !inFlight.isEmpty ())
+      {
+        while (nextChunk < chunks.size () && inFlight.size () < maxChunksInFlight)
+        {
+          final Callable <List <T>> task = newChunkTask (chunks.get (nextChunk++), recordParser);
+
+          // Only unordered parsing takes its results from the completion service, whose queue would otherwise keep
+          // every parsed chunk reachable until the whole file has been parsed.
+          inFlight.addLast (order == RecordOrder.ORIGINAL ? executor.submit (task) : completionService.submit (task));
+        }
+
+        final Future <List <T>> completed;
+
+        if (order == RecordOrder.ORIGINAL)
+        {
+          completed = inFlight.removeFirst ();
+        }
+        else
+        {
+          completed = completionService.take ();
+          inFlight.remove (completed);
+        }
+
+        for (final T record : completed.get ())
+        {
+          consumer.accept (record);
+          ++recordCount;
+        }
+      }
+
+      return recordCount;
+    }
+    catch (final InterruptedException e)
+    {
+      Thread.currentThread ().interrupt ();
+
+      throw new StreamParserException ("Interrupted while parsing file: " + file, e);
+    }
+    catch (final ExecutionException e)
+    {
+      if (e.getCause () instanceof StreamParserException) throw (StreamParserException) e.getCause ();
+
+      throw new StreamParserException ("Could not parse file: " + file, e.getCause ());
+    }
+    finally
+    {
+      for (final Future <List <T>> future : inFlight)
+      {
+        future.cancel (true);
+      }
+
+      if (pool == null) executor.shutdownNow ();
+    }
+  }
+
+  private <T> Callable <List <T>> newChunkTask (final long[] chunk, final RecordParser <T> recordParser)
+  {
+    return new Callable <List <T>> ()
+    {
+      @Override
+      public List <T> call () throws IOException
+      {
+        final StreamParser parser = configure (new StreamParser (new MappedFileReader (file, chunk [0], chunk [1],
+                charset)));
+
+        try
+        {
+          final List <T> records = new ArrayList <> ();
+
+          while (parser.hasNextToken ())
+          {
+            final T record = recordParser.parseRecord (parser);
+
+            Arguments.checkIsNotNull (record, "record");
+
+            records.add (record);
+          }
+
+          return records;
+        }
+        catch (final StreamParserException e)
+        {
+          throw new StreamParserException ("Could not parse bytes [" + chunk [0] + ", " + chunk [1] + ") of file: "
+                  + file, e);
+        }
+        finally
+        {
+          parser.close ();
+        }
+      }
+    };
+  }
+
+  private StreamParser configure (final StreamParser parser)
+  {
+    if (isCSVSyntax) parser.withCSVSyntax ();
+
+    for (final Map.Entry <StreamParser.CommentType, StreamParser.CommentStatus> setting : commentSettings)
+    {
+      parser.withComments (setting.getKey (), setting.getValue ());
+    }
+
+    return parser;
+  }
+
+  /**
+   * @return The [start, end) byte ranges of all chunks, in file order.
+   */
+  private List <long[]> split () throws StreamParserException
+  {
+    final StreamParser settings = configure (new StreamParser (new StringReader ("")));
+
+    try (final RandomAccessFile randomAccessFile = new RandomAccessFile (file, "r"))
+    {
+      final FileChannel channel = randomAccessFile.getChannel ();
+      final long size = channel.size ();
+      final int parallelism = pool != null ? pool.getParallelism () : Runtime.getRuntime ().availableProcessors ();
+      final long targetChunkSize = chunkSize > 0 ? chunkSize
+              : Math.max (MIN_CHUNK_SIZE, size / ((long) parallelism * CHUNKS_PER_THREAD));
+
+      return settings.areSlashStarCommentsEnabled ()
+              ? splitHonoringComments (channel, size, targetChunkSize, settings.areSlashSlashCommentsEnabled ())
+              : splitAtNextLines (channel, size, targetChunkSize);
+    }
+    catch (final IOException e)
+    {
+      throw new StreamParserException ("Could not split file: " + file, e);
+    }
+  }
+
+  /**
+   * Without slash-star comments, no token can span lines, so any line start is a safe chunk boundary.
+   */
+  private static List <long[]> splitAtNextLines (final FileChannel channel, final long size, final long chunkSize)
+          throws IOException
+  {
+    final List <long[]> chunks = new ArrayList <> ();
+    long start = 0;
+
+    while (start < size)
+    {
+      final long end = start + chunkSize >= size ? size : findNextLineStart (channel, start + chunkSize, size);
+
+      chunks.add (new long [] { start, end });
+      start = end;
+    }
+
+    return chunks;
+  }
+
+  private static long findNextLineStart (final FileChannel channel, final long from, final long size)
+          throws IOException
+  {
+    long windowPosition = from;
+
+    while (windowPosition < size)
+    {
+      final MappedByteBuffer window = channel.map (FileChannel.MapMode.READ_ONLY, windowPosition,
+                                                   Math.min (MIN_CHUNK_SIZE, size - windowPosition));
+
+      for (int i = 0; i < window.limit (); ++i)
+      {
+        if (window.get (i) == '\n') return windowPosition + i + 1;
+      }
+
+      windowPosition += window.limit ();
+    }
+
+    return size;
+  }
+
+  /**
+   * Scans the whole file once, tracking quoted strings, line comments & slash-star comments byte by byte, so that no
+   * chunk starts inside a slash-star comment. This is much cheaper than tokenizing, but it is sequential.
+   */
+  private static List <long[]> splitHonoringComments (final FileChannel channel,
+                                                      final long size,
+                                                      final long chunkSize,
+                                                      final boolean areSlashSlashCommentsEnabled) throws IOException
+  {
+    final List <long[]> chunks = new ArrayList <> ();
+    long start = 0;
+    boolean isInBlockComment = false;
+    boolean isInLineComment = false;
+    boolean isInQuote = false;
+    boolean isEscaped = false;
+    byte previous = 0;
+
+    for (long windowPosition = 0; windowPosition < size; windowPosition += SCAN_WINDOW_SIZE)
+    {
+      final MappedByteBuffer window = channel.map (FileChannel.MapMode.READ_ONLY, windowPosition,
+                                                   Math.min (SCAN_WINDOW_SIZE, size - windowPosition));
+
+      for (int i = 0; i < window.limit (); ++i)
+      {
+        final byte b = window.get (i);
+
+        if (isInBlockComment)
+        {
+          if (previous == '*' && b == '/')
+          {
+            isInBlockComment = false;
+            previous = 0;
+
+            continue;
+          }
+        }
+        else if (isInLineComment)
+        {
+          if (b == '\n') isInLineComment = false;
+        }
+        else if (isInQuote)
+        {
+          if (isEscaped)
+          {
+            isEscaped = false;
+          }
+          else if (b == '\\')
+          {
+            isEscaped = true;
+          }
+          else if (b == '"' || b == '\n' || b == '\r')
+          {
+            isInQuote = false;
+          }
+        }
+        else if (b == '"')
+        {
+          isInQuote = true;
+        }
+        else if (previous == '/' && b == '*')
+        {
+          isInBlockComment = true;
+          previous = 0;
+
+          continue;
+        }
+        else if (previous == '/' && b == '/' && areSlashSlashCommentsEnabled)
+        {
+          isInLineComment = true;
+        }
+
+        previous = b;
+
+        final long position = windowPosition + i;
+
+        if (b == '\n' && !isInBlockComment && position + 1 - start >= chunkSize && position + 1 < size)
+        {
+          chunks.add (new long [] { start, position + 1 });
+          start = position + 1;
+        }
+      }
+    }
+
+    if (start < size) chunks.add (new long [] { start, size });
+
+    return chunks;
+  }
+
+  private ParallelFileParser (final File file,
+                              final Charset charset,
+                              final boolean isCSVSyntax,
+                              final ImmutableList <Map.Entry <StreamParser.CommentType, StreamParser.CommentStatus>> commentSettings,
+                              final long chunkSize,
+                              final ForkJoinPool pool)
+  {
+    this.file = file;
+    this.charset = charset;
+    this.isCSVSyntax = isCSVSyntax;
+    this.commentSettings = commentSettings;
+    this.chunkSize = chunkSize;
+    this.pool = pool;
+  }
+
+  public static final class Builder
+  {
+    private final File file;
+    private final ImmutableList.Builder <Map.Entry <StreamParser.CommentType, StreamParser.CommentStatus>> commentSettings = ImmutableList
+            .builder ();
+    private Charset charset = StandardCharsets.UTF_8;
+    private boolean isCSVSyntax = false;
+    private long chunkSize = 0;
+    private ForkJoinPool pool = null;
+
+    /**
+     * @see StreamParser#withCSVSyntax()
+     */
+    public Builder withCSVSyntax ()
+    {
+      isCSVSyntax = true;
+
+      return this;
+    }
+
+    /**
+     * @see StreamParser#withComments(StreamParser.CommentType, StreamParser.CommentStatus)
+     */
+    public Builder withComments (final StreamParser.CommentType commentType,
+                                 final StreamParser.CommentStatus commentStatus)
+    {
+      Arguments.checkIsNotNull (commentType, "commentType");
+      Arguments.checkIsNotNull (commentStatus, "commentStatus");
+
+      commentSettings.add (Maps.immutableEntry (commentType, commentStatus));
+
+      return this;
+    }
+
+    /**
+     * @param charset
+     *          The charset of the file, must be US-ASCII, ISO-8859-1 or UTF-8 (the default).
+     */
+    public Builder withCharset (final Charset charset)
+    {
+      Arguments.checkIsNotNull (charset, "charset");
+      Arguments.checkIsTrue (charset.equals (StandardCharsets.UTF_8) || charset.equals (StandardCharsets.US_ASCII)
+              || charset.equals (StandardCharsets.ISO_8859_1), "Unsupported charset: " + charset);
+
+      this.charset = charset;
+
+      return this;
+    }
+
+    /**
+     * @param chunkSize
+     *          The approximate number of bytes per chunk, must be > 0. Chunks are extended to the next safe line start.
+     *          By default, the file is split into four chunks per pool thread, of at least 1 MB each.
+     */
+    public Builder withChunkSize (final long chunkSize)
+    {
+      Arguments.checkLowerExclusiveBound (chunkSize, 0, "chunkSize");
+
+      this.chunkSize = chunkSize;
+
+      return this;
+    }
+
+    /**
+     * @param pool
+     *          The pool to parse chunks on, must not be null. By default, a new pool with one thread per available
+     *          processor is created for each parse, and shut down afterwards.
+     */
+    public Builder withPool (final ForkJoinPool pool)
+    {
+      Arguments.checkIsNotNull (pool, "pool");
+
+      this.pool = pool;
+
+      return this;
+    }
+
+    public ParallelFileParser build ()
+    {
+      return new ParallelFileParser (file, charset, isCSVSyntax, commentSettings.build (), chunkSize, pool);
+    }
+
+    private Builder (final File file)
+    {
+      this.file = file;
+    }
+  }
+}
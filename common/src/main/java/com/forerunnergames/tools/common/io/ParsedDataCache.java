@@ -0,0 +1,266 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+import com.forerunnergames.tools.common.Classes;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the result of parsing a static data file as a compact binary file next to the source, so that unchanged data
+ * files are parsed only once, no matter how many times they are loaded.
+ * <p/>
+ * A cache file is valid for as long as the size and the content hash of its source are unchanged, and it was written
+ * by the same {@link Codec#getVersion() codec version}. A valid cache file is memory-mapped and decoded directly by the
+ * codec; otherwise the source is parsed, and the cache file is (re)written for the next load. A cache file that cannot
+ * be read or written is never fatal - the source is simply parsed instead.
+ * <p/>
+ * Cache files are replaced atomically where the file system allows, so concurrent loads of the same source are safe.
+ */
+public final class ParsedDataCache
+{
+  /**
+   * Converts between a source file, its parsed value, and the binary representation of that value.
+   *
+   * @param <T>
+   *          The type of the parsed value.
+   */
+  public interface Codec <T>
+  {
+    /**
+     * @return The version of the binary representation written by this codec, which must be changed whenever
+     *         {@link #write(Object, DataOutput)} changes, to invalidate all existing cache files.
+     */
+    int getVersion ();
+
+    /**
+     * Parses the source file, e.g., with a {@link StreamParser}.
+     */
+    T parse (final File source);
+
+    void write (final T value, final DataOutput output) throws IOException;
+
+    /**
+     * Reads a value written by {@link #write(Object, DataOutput)}. The input is backed by a memory-mapped cache file.
+     */
+    T read (final DataInput input) throws IOException;
+  }
+
+  private static final Logger log = LoggerFactory.getLogger (ParsedDataCache.class);
+  private static final String CACHE_FILE_EXTENSION = ".cache";
+  private static final int MAGIC = 0x46474443;
+  private static final int FORMAT_VERSION = 1;
+  private static final int HASH_BYTES = 16;
+  private static final int HEADER_BYTES = 4 + 4 + 4 + 8 + HASH_BYTES;
+
+  /**
+   * Loads the parsed value of the source file, using the default cache file for the source.
+   *
+   * @see #cacheFileFor(File)
+   * @see #load(File, File, Codec)
+   */
+  public static <T> T load (final File source, final Codec <T> codec)
+  {
+    Arguments.checkIsNotNull (source, "source");
+
+    return load (source, cacheFileFor (source), codec);
+  }
+
+  /**
+   * Loads the parsed value of the source file from the specified cache file, if it is valid, or else by parsing the
+   * source file, and caching the result in the specified cache file.
+   *
+   * @param source
+   *          The data file to parse, must not be null.
+   * @param cacheFile
+   *          The cache file of the source file, which need not exist, must not be null.
+   * @param codec
+   *          The codec of the parsed value, must not be null.
+   *
+   * @throws StreamParserException
+   *           If the source file cannot be read.
+   */
+  public static <T> T load (final File source, final File cacheFile, final Codec <T> codec)
+  {
+    Arguments.checkIsNotNull (source, "source");
+    Arguments.checkIsNotNull (cacheFile, "cacheFile");
+    Arguments.checkIsNotNull (codec, "codec");
+
+    final long sourceLength = source.length ();
+    final byte[] sourceHash = hash (source);
+
+    if (cacheFile.isFile ())
+    {
+      try
+      {
+        final T value = read (cacheFile, sourceLength, sourceHash, codec);
+
+        if (value != null) return value;
+      }
+      catch (final IOException | RuntimeException e)
+      {
+        // Codecs may fail in any way on truncated or outdated cache files, which are then simply re-created.
+        log.warn ("Ignoring unreadable cache file [{}].", cacheFile, e);
+
+        if (!cacheFile.delete ()) log.warn ("Could not delete unreadable cache file [{}].", cacheFile);
+      }
+    }
+
+    final T value = codec.parse (source);
+
+    write (value, cacheFile, sourceLength, sourceHash, codec);
+
+    return value;
+  }
+
+  /**
+   * @return The default cache file of the source file, which is the source file name with a ".cache" extension
+   *         appended, in the same directory.
+   */
+  public static File cacheFileFor (final File source)
+  {
+    Arguments.checkIsNotNull (source, "source");
+
+    return new File (source.getPath () + CACHE_FILE_EXTENSION);
+  }
+
+  /**
+   * @return The cached value, or null if the cache file is stale.
+   */
+  private static <T> T read (final File cacheFile,
+                             final long sourceLength,
+                             final byte[] sourceHash,
+                             final Codec <T> codec) throws IOException
+  {
+    try (final RandomAccessFile file = new RandomAccessFile (cacheFile, "r");
+         final FileChannel channel = file.getChannel ())
+    {
+      if (channel.size () < HEADER_BYTES) return null;
+
+      final MappedByteBuffer buffer = channel.map (FileChannel.MapMode.READ_ONLY, 0, channel.size ());
+
+      if (buffer.getInt () != MAGIC || buffer.getInt () != FORMAT_VERSION || buffer.getInt () != codec.getVersion ()
+              || buffer.getLong () != sourceLength)
+      {
+        return null;
+      }
+
+      final byte[] hash = new byte [HASH_BYTES];
+
+      buffer.get (hash);
+
+      if (!Arrays.equals (hash, sourceHash)) return null;
+
+      return codec.read (new ByteBufferDataInput (buffer.slice ()));
+    }
+  }
+
+  private static <T> void write (final T value,
+                                 final File cacheFile,
+                                 final long sourceLength,
+                                 final byte[] sourceHash,
+                                 final Codec <T> codec)
+  {
+    final File directory = cacheFile.getAbsoluteFile ().getParentFile ();
+    File temporaryFile = null;
+
+    try
+    {
+      temporaryFile = File.createTempFile (cacheFile.getName (), ".tmp", directory);
+
+      try (final DataOutputStream output = new DataOutputStream (
+              new BufferedOutputStream (new FileOutputStream (temporaryFile))))
+      {
+        output.writeInt (MAGIC);
+        output.writeInt (FORMAT_VERSION);
+        output.writeInt (codec.getVersion ());
+        output.writeLong (sourceLength);
+        output.write (sourceHash);
+        codec.write (value, output);
+      }
+
+      move (temporaryFile, cacheFile);
+    }
+    catch (final IOException e)
+    {
+      log.warn ("Could not write cache file [{}].", cacheFile, e);
+
+      if (temporaryFile != null && !temporaryFile.delete ())
+      {
+        log.warn ("Could not delete temporary cache file [{}].", temporaryFile);
+      }
+    }
+  }
+
+  private static void move (final File source, final File target) throws IOException
+  {
+    try
+    {
+      Files.move (source.toPath (), target.toPath (), StandardCopyOption.REPLACE_EXISTING,
+                  StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (final AtomicMoveNotSupportedException e)
+    {
+      Files.move (source.toPath (), target.toPath (), StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static byte[] hash (final File source)
+  {
+    try
+    {
+      final HashCode hash = com.google.common.io.Files.asByteSource (source).hash (Hashing.murmur3_128 ());
+
+      return hash.asBytes ();
+    }
+    catch (final IOException e)
+    {
+      throw new StreamParserException ("Unable to read file [" + source + "].", e);
+    }
+  }
+
+  private ParsedDataCache ()
+  {
+    Classes.instantiationNotAllowed ();
+  }
+}
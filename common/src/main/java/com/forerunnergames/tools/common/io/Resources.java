@@ -33,8 +33,6 @@ import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
 import java.nio.file.FileVisitOption;
 import java.nio.file.FileVisitResult;
 import java.nio.file.FileVisitor;
@@ -42,7 +40,6 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.BasicFileAttributes;
-import java.util.Collections;
 import java.util.EnumSet;
 
 public final class Resources
@@ -63,7 +60,8 @@ public final class Resources
 
   /**
    * Obtain a list of sub-directory names one level below the specified directory, from a jar that is on the classpath.
-   * The correct jar is specified by jarClass, any class on the classpath existing within the correct jar.
+   * The correct jar is specified by jarClass, any class on the classpath existing within the correct jar. Jars are read
+   * through the shared {@link JarResourceIndex}, so each jar is only read once for as long as it is unchanged.
    *
    * @param jarClass
    *          A class within the jar containing the specified directory. This is necessary because there is a chance
@@ -91,23 +89,17 @@ public final class Resources
                                                        parentDirectoryPath, jarClass));
     }
 
-    FileSystem fileSystem = null;
-
     try
     {
       final URI uri = resourceUrl.toURI ();
-      final Path myPath;
 
       if (uri.getScheme ().equals ("jar"))
       {
-        fileSystem = FileSystems.newFileSystem (uri, Collections.<String, Object> emptyMap ());
-        myPath = fileSystem.getPath (parentDirectoryPath);
-      }
-      else
-      {
-        myPath = Paths.get (uri);
+        return JarResourceIndex.forJar (uri).getChildDirectoryNames (parentDirectoryPath);
       }
 
+      final Path myPath = Paths.get (uri);
+
       final ImmutableList.Builder <String> directoryNames = ImmutableList.builder ();
 
       // @formatter:off
@@ -171,19 +163,6 @@ public final class Resources
     {
       throw new IllegalStateException (Strings.format ("Failed to process jar resource: {}", parentDirectoryPath), e);
     }
-    finally
-    {
-      if (fileSystem != null)
-      {
-        try
-        {
-          fileSystem.close ();
-        }
-        catch (final IOException ignored)
-        {
-        }
-      }
-    }
   }
 
   private Resources ()
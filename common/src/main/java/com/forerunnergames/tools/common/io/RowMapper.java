@@ -0,0 +1,93 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.collect.ImmutableList;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Maps the rows of a {@link StreamParser} to instances of a target type, as bound by
+ * {@link RowSchema#mapToConstructor(Class)} or {@link RowSchema#mapToSetters(Class, String...)}.
+ * <p/>
+ * Immutable & thread-safe, although each {@link StreamParser} must only be used by one thread at a time.
+ *
+ * @param <T>
+ *          The target type.
+ */
+public final class RowMapper <T>
+{
+  private final MethodHandle mapper;
+
+  /**
+   * Reads the next row.
+   *
+   * @throws StreamParserException
+   *           If the row does not match the schema.
+   */
+  @SuppressWarnings ("unchecked")
+  public T map (final StreamParser parser) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (parser, "parser");
+
+    try
+    {
+      return (T) (Object) mapper.invokeExact (parser);
+    }
+    catch (final RuntimeException | Error e)
+    {
+      throw e;
+    }
+    catch (final Throwable t)
+    {
+      throw new StreamParserException ("Could not map row.", t);
+    }
+  }
+
+  /**
+   * Reads all remaining rows.
+   *
+   * @throws StreamParserException
+   *           If a row does not match the schema.
+   */
+  public ImmutableList <T> mapAll (final StreamParser parser) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (parser, "parser");
+
+    final ImmutableList.Builder <T> rows = ImmutableList.builder ();
+
+    while (parser.hasNextToken ())
+    {
+      rows.add (map (parser));
+    }
+
+    return rows.build ();
+  }
+
+  RowMapper (final MethodHandle mapper)
+  {
+    this.mapper = mapper;
+  }
+}
@@ -0,0 +1,313 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.collect.ImmutableList;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes the columns of each row of a stream, i.e., the sequence of tokens to read from a {@link StreamParser} per
+ * row, & binds them to a target type.
+ * <p/>
+ * A schema is bound once, with {@link #mapToConstructor(Class)} or {@link #mapToSetters(Class, String...)}, to a
+ * {@link RowMapper} that is composed from method handles, so that rows are mapped without any reflective lookup or
+ * boxing per row. Alternatively, {@link #readColumns(StreamParser)} reads all rows into primitive arrays per column.
+ * <p/>
+ * Immutable & thread-safe.
+ */
+public final class RowSchema
+{
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup ();
+  private final ImmutableList <ColumnType> columns;
+  private final ImmutableList <Class <?>> valueTypes;
+
+  public enum ColumnType
+  {
+    INTEGER (int.class, "getNextInteger"),
+    LONG (long.class, "getNextLong"),
+    DOUBLE (double.class, "getNextDouble"),
+    CHARACTER (int.class, "getNextCharacter"),
+    QUOTED_STRING (String.class, "getNextQuotedString"),
+    UNQUOTED_STRING (String.class, "getNextUnquotedString"),
+    TOKEN (String.class, "getNextToken"),
+    SKIPPED (void.class, "discardNextToken");
+
+    private final Class <?> valueType;
+    private final MethodHandle reader;
+
+    public Class <?> getValueType ()
+    {
+      return valueType;
+    }
+
+    ColumnType (final Class <?> valueType, final String readerMethodName)
+    {
+      this.valueType = valueType;
+
+      try
+      {
+        reader = LOOKUP.findVirtual (StreamParser.class, readerMethodName, MethodType.methodType (valueType));
+      }
+      catch (final NoSuchMethodException | IllegalAccessException e)
+      {
+        throw new AssertionError (e);
+      }
+    }
+  }
+
+  public static Builder builder ()
+  {
+    return new Builder ();
+  }
+
+  public ImmutableList <ColumnType> getColumns ()
+  {
+    return columns;
+  }
+
+  /**
+   * Binds this schema to the public constructor of the specified type whose parameter types are the value types of the
+   * columns, in column order, excluding {@link ColumnType#SKIPPED} columns.
+   *
+   * @throws IllegalArgumentException
+   *           If the type has no such public constructor.
+   */
+  public <T> RowMapper <T> mapToConstructor (final Class <T> type)
+  {
+    Arguments.checkIsNotNull (type, "type");
+
+    final MethodHandle constructor;
+
+    try
+    {
+      constructor = LOOKUP.findConstructor (type, MethodType.methodType (void.class, valueTypes));
+    }
+    catch (final NoSuchMethodException | IllegalAccessException e)
+    {
+      throw new IllegalArgumentException ("Type [" + type.getName () + "] has no public constructor with parameter types "
+              + valueTypes + ".", e);
+    }
+
+    return new RowMapper <> (composeConstructorMapper (constructor));
+  }
+
+  /**
+   * Binds this schema to the public no-argument constructor of the specified type, & one public setter per column,
+   * excluding {@link ColumnType#SKIPPED} columns. Setters are invoked in column order.
+   *
+   * @param setterNames
+   *          The names of the setters, in column order, excluding {@link ColumnType#SKIPPED} columns. Each setter must
+   *          take a single parameter of the value type of its column.
+   *
+   * @throws IllegalArgumentException
+   *           If the number of setters does not match the number of columns, or if the type has no such public
+   *           constructor or setters.
+   */
+  public <T> RowMapper <T> mapToSetters (final Class <T> type, final String... setterNames)
+  {
+    Arguments.checkIsNotNull (type, "type");
+    Arguments.checkIsNotNull (setterNames, "setterNames");
+    Arguments.checkHasNoNullElements (setterNames, "setterNames");
+    Arguments.checkIsTrue (setterNames.length == valueTypes.size (), "Expected [" + valueTypes.size ()
+            + "] setter names, but got [" + setterNames.length + "].");
+
+    try
+    {
+      final MethodHandle constructor = LOOKUP.findConstructor (type, MethodType.methodType (void.class));
+      final List <MethodHandle> setters = new ArrayList <> (setterNames.length);
+
+      for (int i = 0; i < setterNames.length; ++i)
+      {
+        setters.add (LOOKUP.findVirtual (type, setterNames [i], MethodType.methodType (void.class, valueTypes.get (i))));
+      }
+
+      return new RowMapper <> (composeSetterMapper (type, constructor, setters));
+    }
+    catch (final NoSuchMethodException | IllegalAccessException e)
+    {
+      throw new IllegalArgumentException ("Type [" + type.getName ()
+              + "] has no public no-argument constructor or public setters " + valueTypes + ".", e);
+    }
+  }
+
+  /**
+   * Reads all remaining rows into primitive arrays, one per column.
+   *
+   * @throws StreamParserException
+   *           If a row does not match this schema.
+   */
+  public ColumnTable readColumns (final StreamParser parser) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (parser, "parser");
+
+    final ColumnTable table = new ColumnTable (columns);
+
+    while (parser.hasNextToken ())
+    {
+      table.readRow (parser);
+    }
+
+    return table;
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Columns: %2$s", getClass ().getSimpleName (), columns);
+  }
+
+  /**
+   * Composes a (StreamParser)Object handle that reads the columns in order & passes the values to the constructor.
+   * <p/>
+   * Each column is folded in front of the handle for the columns after it, from the last column to the first, so that
+   * the outermost fold reads the first column. The values read so far are kept as leading parameters in reverse order,
+   * which is why the constructor parameters are reversed first.
+   */
+  private MethodHandle composeConstructorMapper (final MethodHandle constructor)
+  {
+    final int valueCount = valueTypes.size ();
+    final int[] reverseOrder = new int [valueCount];
+    final List <Class <?>> reversedValueTypes = new ArrayList <> (valueTypes);
+
+    Collections.reverse (reversedValueTypes);
+
+    for (int i = 0; i < valueCount; ++i)
+    {
+      reverseOrder [i] = valueCount - 1 - i;
+    }
+
+    MethodHandle mapper = MethodHandles.permuteArguments (constructor,
+                                                          MethodType.methodType (constructor.type ().returnType (),
+                                                                                 reversedValueTypes),
+                                                          reverseOrder);
+
+    mapper = MethodHandles.dropArguments (mapper, valueCount, StreamParser.class);
+
+    int valuesBefore = valueCount;
+
+    for (int i = columns.size () - 1; i >= 0; --i)
+    {
+      final ColumnType column = columns.get (i);
+
+      if (column != ColumnType.SKIPPED) --valuesBefore;
+
+      final List <Class <?>> previousValueTypes = reversedValueTypes.subList (valueCount - valuesBefore, valueCount);
+
+      mapper = MethodHandles.foldArguments (mapper, MethodHandles.dropArguments (column.reader, 0, previousValueTypes));
+    }
+
+    return mapper.asType (MethodType.methodType (Object.class, StreamParser.class));
+  }
+
+  /**
+   * Composes a (StreamParser)Object handle that constructs the target, then reads each column in order & passes its
+   * value to the corresponding setter, then returns the target.
+   */
+  private MethodHandle composeSetterMapper (final Class <?> type,
+                                            final MethodHandle constructor,
+                                            final List <MethodHandle> setters)
+  {
+    MethodHandle mapper = MethodHandles.dropArguments (MethodHandles.identity (type), 1, StreamParser.class);
+    int setterIndex = setters.size ();
+
+    for (int i = columns.size () - 1; i >= 0; --i)
+    {
+      final ColumnType column = columns.get (i);
+      final MethodHandle columnSetter;
+
+      if (column == ColumnType.SKIPPED)
+      {
+        columnSetter = MethodHandles.dropArguments (column.reader, 0, type);
+      }
+      else
+      {
+        columnSetter = MethodHandles.filterArguments (setters.get (--setterIndex), 1, column.reader);
+      }
+
+      mapper = MethodHandles.foldArguments (mapper, columnSetter);
+    }
+
+    mapper = MethodHandles.foldArguments (mapper, constructor);
+
+    return mapper.asType (MethodType.methodType (Object.class, StreamParser.class));
+  }
+
+  private RowSchema (final ImmutableList <ColumnType> columns)
+  {
+    this.columns = columns;
+
+    final ImmutableList.Builder <Class <?>> valueTypesBuilder = ImmutableList.builder ();
+
+    for (final ColumnType column : columns)
+    {
+      if (column != ColumnType.SKIPPED) valueTypesBuilder.add (column.valueType);
+    }
+
+    valueTypes = valueTypesBuilder.build ();
+  }
+
+  public static final class Builder
+  {
+    private final ImmutableList.Builder <ColumnType> columns = ImmutableList.builder ();
+
+    public Builder withColumn (final ColumnType column)
+    {
+      Arguments.checkIsNotNull (column, "column");
+
+      columns.add (column);
+
+      return this;
+    }
+
+    public Builder withColumns (final ColumnType... columns)
+    {
+      Arguments.checkIsNotNull (columns, "columns");
+      Arguments.checkHasNoNullElements (columns, "columns");
+
+      this.columns.add (columns);
+
+      return this;
+    }
+
+    public RowSchema build ()
+    {
+      final ImmutableList <ColumnType> builtColumns = columns.build ();
+
+      Arguments.checkIsFalse (builtColumns.isEmpty (), "A row schema must have at least one column.");
+
+      return new RowSchema (builtColumns);
+    }
+
+    private Builder ()
+    {
+    }
+  }
+}
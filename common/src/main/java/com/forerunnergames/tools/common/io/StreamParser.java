@@ -24,6 +24,8 @@ package com.forerunnergames.tools.common.io;
 
 import com.forerunnergames.tools.common.Arguments;
 import com.forerunnergames.tools.common.Classes;
+import com.forerunnergames.tools.common.Preconditions;
+import com.forerunnergames.tools.common.StringTable;
 import com.forerunnergames.tools.common.Strings;
 import com.forerunnergames.tools.common.Utils;
 
@@ -36,18 +38,30 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StreamTokenizer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 
+import javax.annotation.Nullable;
+
 public final class StreamParser
 {
   private static final int QUOTE_CHARACTER = (int) '\"';
   private static final int FORWARD_SLASH_CHARACTER = (int) '/';
   private static final int STAR_CHARACTER = (int) '*';
+  private static final int INITIAL_LINE_BUFFER_CAPACITY = 16;
   private boolean areSlashSlashCommentsEnabled = false;
   private boolean areSlashStarCommentsEnabled = false;
+  private boolean hasParsedTokens = false;
+  @Nullable
+  private StringTable stringTable;
   private Reader reader;
   private StreamTokenizer s;
+  private int[] intLineBuffer = new int [0];
+  private long[] longLineBuffer = new long [0];
+  private double[] doubleLineBuffer = new double [0];
 
   /*
    * Constructs a new StreamParser with the specified file.
@@ -102,6 +116,50 @@ public final class StreamParser
     initialize (reader);
   }
 
+  /**
+   * Creates a new StreamParser that reads the specified UTF-8 file through a read-only memory mapping.
+   *
+   * @param file
+   *          The file to parse, must not be null.
+   *
+   * @throws StreamParserException
+   *           If the file cannot be opened or mapped.
+   *
+   * @see #fromMappedFile(File, Charset)
+   */
+  public static StreamParser fromMappedFile (final File file) throws StreamParserException
+  {
+    return fromMappedFile (file, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Creates a new StreamParser that reads the specified file through a read-only memory mapping, decoding characters
+   * straight from the mapped bytes instead of going through {@link FileReader} & {@link BufferedReader}. Intended for
+   * very large files; the parsing API is identical to that of a StreamParser constructed from a {@link File}.
+   *
+   * @param file
+   *          The file to parse, must not be null.
+   * @param charset
+   *          The charset of the file, must not be null. US-ASCII & UTF-8 files are decoded fastest.
+   *
+   * @throws StreamParserException
+   *           If the file cannot be opened or mapped.
+   */
+  public static StreamParser fromMappedFile (final File file, final Charset charset) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (file, "file");
+    Arguments.checkIsNotNull (charset, "charset");
+
+    try
+    {
+      return new StreamParser (new MappedFileReader (file, charset));
+    }
+    catch (final IOException e)
+    {
+      throw new StreamParserException ("Could not map file: " + file, e);
+    }
+  }
+
   /**
    * Default constructor not supported.
    *
@@ -187,6 +245,24 @@ public final class StreamParser
     return this;
   }
 
+  /**
+   * Deduplicates all string tokens through the specified table, so that repeated identifiers in a large stream share one
+   * String instance, instead of each occurrence being retained separately.
+   *
+   * @param stringTable
+   *          The table to intern string tokens in, e.g., {@link StringTable#getDefault()}, must not be null.
+   *
+   * @return The StreamParser instance, configured to intern string tokens.
+   */
+  public StreamParser withStringTable (final StringTable stringTable)
+  {
+    Arguments.checkIsNotNull (stringTable, "stringTable");
+
+    this.stringTable = stringTable;
+
+    return this;
+  }
+
   /**
    * Enable / disable slash-slash comments or slash-star (/*) comments.
    * <p/>
@@ -785,16 +861,70 @@ public final class StreamParser
    */
   public Collection <Integer> getNextCharacters (final int count) throws StreamParserException
   {
-    Arguments.checkLowerExclusiveBound (count, 0, "count");
+    return toCollection (getNextCharacterArray (count));
+  }
 
-    final Collection <Integer> characterCodes = new ArrayList <> (count);
+  /**
+   * Attempt to read count single characters from the stream into the specified array, starting at offset. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last character to get, then fewer than count characters will be read, and
+   * the last character read will have a value of -1, indicating EOF.
+   *
+   * @param characterCodes
+   *          The array to store the single character codes in, must not be null.
+   * @param offset
+   *          The index in characterCodes at which to store the first character code, must be >= 0.
+   * @param count
+   *          The number of single characters to get from the stream, must be > 0, offset + count must be <=
+   *          characterCodes.length.
+   *
+   * @return The number of character codes stored in characterCodes.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not single characters (excluding EOF).
+   */
+  public int getNextCharacters (final int[] characterCodes, final int offset, final int count)
+          throws StreamParserException
+  {
+    Arguments.checkIsNotNull (characterCodes, "characterCodes");
+    checkArrayRange (characterCodes.length, offset, count, "characterCodes");
 
-    for (int i = 0; i < count && !isEOF (); ++i)
+    int i = 0;
+
+    while (i < count && !isEOF ())
     {
-      characterCodes.add (getNextCharacter ());
+      characterCodes [offset + i++] = getNextCharacter ();
     }
 
-    return characterCodes;
+    return i;
+  }
+
+  /**
+   * Attempt to get an array of count single characters from the stream. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last character to get, then the length of the array will be smaller than
+   * count, and the last character in the smaller array will have a value of -1, indicating EOF.
+   *
+   * @param count
+   *          The number of single characters to get from the stream, must be > 0.
+   *
+   * @return An array of single character codes from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not single characters (excluding EOF).
+   */
+  public int[] getNextCharacterArray (final int count) throws StreamParserException
+  {
+    Arguments.checkLowerExclusiveBound (count, 0, "count");
+
+    final int[] characterCodes = new int [count];
+    final int read = getNextCharacters (characterCodes, 0, count);
+
+    return read == count ? characterCodes : Arrays.copyOf (characterCodes, read);
   }
 
   /**
@@ -808,10 +938,25 @@ public final class StreamParser
    *           If the next remaining tokens on the current line are not single characters (excluding EOL & EOF).
    */
   public Collection <Integer> getNextRemainingCharactersOnLine () throws StreamParserException
+  {
+    return toCollection (getNextRemainingCharacterArrayOnLine ());
+  }
+
+  /**
+   * Attempt to get the next remaining (if any) characters on the current line from the stream. <br/>
+   *
+   * @return An array of single character codes from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next character from the stream, <br/>
+   *           If the next remaining tokens on the current line are not single characters (excluding EOL & EOF).
+   */
+  public int[] getNextRemainingCharacterArrayOnLine () throws StreamParserException
   {
     assert s != null;
 
-    final Collection <Integer> characterCodes = new ArrayList <> ();
+    int size = 0;
 
     enableEndOfLineTokens ();
 
@@ -819,13 +964,17 @@ public final class StreamParser
     {
       discardNextCharacter ();
 
-      if (!isEOL () && !isEOF ()) characterCodes.add (s.ttype);
+      if (!isEOL () && !isEOF ())
+      {
+        intLineBuffer = ensureCapacity (intLineBuffer, size + 1);
+        intLineBuffer [size++] = s.ttype;
+      }
     }
     while (!isEOL () && !isEOF ());
 
     disableEndOfLineTokens ();
 
-    return characterCodes;
+    return Arrays.copyOf (intLineBuffer, size);
   }
 
   /**
@@ -869,16 +1018,68 @@ public final class StreamParser
    */
   public Collection <Double> getNextDoubles (final int count) throws StreamParserException
   {
-    Arguments.checkLowerExclusiveBound (count, 0, "count");
+    return toCollection (getNextDoubleArray (count));
+  }
+
+  /**
+   * Attempt to read count doubles from the stream into the specified array, starting at offset. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last double to get, then fewer than count doubles will be read, and the last
+   * double read will have a value of Double.MIN_VALUE, indicating EOF.
+   *
+   * @param doubles
+   *          The array to store the doubles in, must not be null.
+   * @param offset
+   *          The index in doubles at which to store the first double, must be >= 0.
+   * @param count
+   *          The number of doubles to get from the stream, must be > 0, offset + count must be <= doubles.length.
+   *
+   * @return The number of doubles stored in doubles.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not doubles (excluding EOF).
+   */
+  public int getNextDoubles (final double[] doubles, final int offset, final int count) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (doubles, "doubles");
+    checkArrayRange (doubles.length, offset, count, "doubles");
 
-    final Collection <Double> doubles = new ArrayList <> (count);
+    int i = 0;
 
-    for (int i = 0; i < count && !isEOF (); ++i)
+    while (i < count && !isEOF ())
     {
-      doubles.add (getNextDouble ());
+      doubles [offset + i++] = getNextDouble ();
     }
 
-    return doubles;
+    return i;
+  }
+
+  /**
+   * Attempt to get an array of count doubles from the stream. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last double to get, then the length of the array will be smaller than count,
+   * and the last double in the array will have a value of Double.MIN_VALUE, indicating EOF.
+   *
+   * @param count
+   *          The number of doubles to get from the stream, must be > 0.
+   *
+   * @return An array of doubles from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not doubles (excluding EOF).
+   */
+  public double[] getNextDoubleArray (final int count) throws StreamParserException
+  {
+    Arguments.checkLowerExclusiveBound (count, 0, "count");
+
+    final double[] doubles = new double [count];
+    final int read = getNextDoubles (doubles, 0, count);
+
+    return read == count ? doubles : Arrays.copyOf (doubles, read);
   }
 
   /**
@@ -892,10 +1093,25 @@ public final class StreamParser
    *           If the next remaining tokens on the current line are not doubles (excluding EOL & EOF).
    */
   public Collection <Double> getNextRemainingDoublesOnLine () throws StreamParserException
+  {
+    return toCollection (getNextRemainingDoubleArrayOnLine ());
+  }
+
+  /**
+   * Attempt to get the next remaining (if any) doubles on the current line from the stream. <br/>
+   *
+   * @return An array of doubles from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next double from the stream, <br/>
+   *           If the next remaining tokens on the current line are not doubles (excluding EOL & EOF).
+   */
+  public double[] getNextRemainingDoubleArrayOnLine () throws StreamParserException
   {
     assert s != null;
 
-    final Collection <Double> doubles = new ArrayList <> ();
+    int size = 0;
 
     enableEndOfLineTokens ();
 
@@ -903,13 +1119,17 @@ public final class StreamParser
     {
       discardNextDouble ();
 
-      if (!isEOL () && !isEOF ()) doubles.add (s.nval);
+      if (!isEOL () && !isEOF ())
+      {
+        doubleLineBuffer = ensureCapacity (doubleLineBuffer, size + 1);
+        doubleLineBuffer [size++] = s.nval;
+      }
     }
     while (!isEOL () && !isEOF ());
 
     disableEndOfLineTokens ();
 
-    return doubles;
+    return Arrays.copyOf (doubleLineBuffer, size);
   }
 
   /**
@@ -953,16 +1173,68 @@ public final class StreamParser
    */
   public Collection <Integer> getNextIntegers (final int count) throws StreamParserException
   {
-    Arguments.checkLowerExclusiveBound (count, 0, "count");
+    return toCollection (getNextIntegerArray (count));
+  }
+
+  /**
+   * Attempt to read count integers from the stream into the specified array, starting at offset. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last integer to get, then fewer than count integers will be read, and the
+   * last integer read will have a value of Integer.MIN_VALUE, indicating EOF.
+   *
+   * @param integers
+   *          The array to store the integers in, must not be null.
+   * @param offset
+   *          The index in integers at which to store the first integer, must be >= 0.
+   * @param count
+   *          The number of integers to get from the stream, must be > 0, offset + count must be <= integers.length.
+   *
+   * @return The number of integers stored in integers.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not integers (excluding EOF).
+   */
+  public int getNextIntegers (final int[] integers, final int offset, final int count) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (integers, "integers");
+    checkArrayRange (integers.length, offset, count, "integers");
 
-    final Collection <Integer> integers = new ArrayList <> (count);
+    int i = 0;
 
-    for (int i = 0; i < count && !isEOF (); ++i)
+    while (i < count && !isEOF ())
     {
-      integers.add (getNextInteger ());
+      integers [offset + i++] = getNextInteger ();
     }
 
-    return integers;
+    return i;
+  }
+
+  /**
+   * Attempt to get an array of count integers from the stream. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last integer to get, then the length of the array will be smaller than
+   * count, and the last integer in the array will have a value of Integer.MIN_VALUE, indicating EOF.
+   *
+   * @param count
+   *          The number of integers to get from the stream, must be > 0.
+   *
+   * @return An array of integers from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not integers (excluding EOF).
+   */
+  public int[] getNextIntegerArray (final int count) throws StreamParserException
+  {
+    Arguments.checkLowerExclusiveBound (count, 0, "count");
+
+    final int[] integers = new int [count];
+    final int read = getNextIntegers (integers, 0, count);
+
+    return read == count ? integers : Arrays.copyOf (integers, read);
   }
 
   /**
@@ -976,10 +1248,25 @@ public final class StreamParser
    *           If the next remaining tokens on the current line are not integers (excluding EOL & EOF).
    */
   public Collection <Integer> getNextRemainingIntegersOnLine () throws StreamParserException
+  {
+    return toCollection (getNextRemainingIntegerArrayOnLine ());
+  }
+
+  /**
+   * Attempt to get the next remaining (if any) integers on the current line from the stream. <br/>
+   *
+   * @return An array of integers from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next integers from the stream, <br/>
+   *           If the next remaining tokens on the current line are not integers (excluding EOL & EOF).
+   */
+  public int[] getNextRemainingIntegerArrayOnLine () throws StreamParserException
   {
     assert s != null;
 
-    final Collection <Integer> integers = new ArrayList <> ();
+    int size = 0;
 
     enableEndOfLineTokens ();
 
@@ -987,13 +1274,137 @@ public final class StreamParser
     {
       discardNextInteger ();
 
-      if (!isEOL () && !isEOF ()) integers.add ((int) s.nval);
+      if (!isEOL () && !isEOF ())
+      {
+        intLineBuffer = ensureCapacity (intLineBuffer, size + 1);
+        intLineBuffer [size++] = (int) s.nval;
+      }
     }
     while (!isEOL () && !isEOF ());
 
     disableEndOfLineTokens ();
 
-    return integers;
+    return Arrays.copyOf (intLineBuffer, size);
+  }
+
+  /**
+   * Attempt to get the next long from the stream. <br/>
+   * <br/>
+   * Note: This method will return Long.MIN_VALUE if EOF is encountered. Numbers are parsed as doubles internally, so
+   * only longs with a magnitude of at most 2^53 are represented exactly.
+   *
+   * @return The next long in the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next token from the stream, <br/>
+   *           If the next token is not an integer (excluding EOF).
+   */
+  public long getNextLong () throws StreamParserException
+  {
+    assert s != null;
+
+    parseNextToken ();
+
+    checkTokenTypeEquals (TokenType.INTEGER);
+
+    return isEOF () ? Long.MIN_VALUE : (long) s.nval;
+  }
+
+  /**
+   * Attempt to read count longs from the stream into the specified array, starting at offset. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last long to get, then fewer than count longs will be read, and the last
+   * long read will have a value of Long.MIN_VALUE, indicating EOF.
+   *
+   * @param longs
+   *          The array to store the longs in, must not be null.
+   * @param offset
+   *          The index in longs at which to store the first long, must be >= 0.
+   * @param count
+   *          The number of longs to get from the stream, must be > 0, offset + count must be <= longs.length.
+   *
+   * @return The number of longs stored in longs.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not integers (excluding EOF).
+   */
+  public int getNextLongs (final long[] longs, final int offset, final int count) throws StreamParserException
+  {
+    Arguments.checkIsNotNull (longs, "longs");
+    checkArrayRange (longs.length, offset, count, "longs");
+
+    int i = 0;
+
+    while (i < count && !isEOF ())
+    {
+      longs [offset + i++] = getNextLong ();
+    }
+
+    return i;
+  }
+
+  /**
+   * Attempt to get an array of count longs from the stream. <br/>
+   * <br/>
+   * Note: If EOF is encountered before the last long to get, then the length of the array will be smaller than count,
+   * and the last long in the array will have a value of Long.MIN_VALUE, indicating EOF.
+   *
+   * @param count
+   *          The number of longs to get from the stream, must be > 0.
+   *
+   * @return An array of longs from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next count tokens from the stream, <br/>
+   *           If the next count tokens are not integers (excluding EOF).
+   */
+  public long[] getNextLongArray (final int count) throws StreamParserException
+  {
+    Arguments.checkLowerExclusiveBound (count, 0, "count");
+
+    final long[] longs = new long [count];
+    final int read = getNextLongs (longs, 0, count);
+
+    return read == count ? longs : Arrays.copyOf (longs, read);
+  }
+
+  /**
+   * Attempt to get the next remaining (if any) longs on the current line from the stream. <br/>
+   *
+   * @return An array of longs from the stream.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read the next longs from the stream, <br/>
+   *           If the next remaining tokens on the current line are not integers (excluding EOL & EOF).
+   */
+  public long[] getNextRemainingLongArrayOnLine () throws StreamParserException
+  {
+    assert s != null;
+
+    int size = 0;
+
+    enableEndOfLineTokens ();
+
+    do
+    {
+      discardNextInteger ();
+
+      if (!isEOL () && !isEOF ())
+      {
+        longLineBuffer = ensureCapacity (longLineBuffer, size + 1);
+        longLineBuffer [size++] = (long) s.nval;
+      }
+    }
+    while (!isEOL () && !isEOF ());
+
+    disableEndOfLineTokens ();
+
+    return Arrays.copyOf (longLineBuffer, size);
   }
 
   /**
@@ -1306,6 +1717,27 @@ public final class StreamParser
     return unquotedStrings;
   }
 
+  /**
+   * Checks whether any tokens remain in the stream, without consuming the next token.
+   *
+   * @return True if the next token is not EOF, false otherwise.
+   *
+   * @throws StreamParserException
+   *           If the StreamParser could not read the next token from the stream.
+   */
+  public boolean hasNextToken () throws StreamParserException
+  {
+    assert s != null;
+
+    parseNextToken ();
+
+    final boolean hasNextToken = !isEOF ();
+
+    s.pushBack ();
+
+    return hasNextToken;
+  }
+
   /**
    * Gets whether the StreamParser has parsed the EOF token.
    *
@@ -1316,6 +1748,67 @@ public final class StreamParser
     return isEOF ();
   }
 
+  /**
+   * Visit all records of a CSV (comma separated values) stream, without creating a String per field. <br/>
+   * <br/>
+   * Each field is passed to the visitor as a {@link CSVField} view over the parser's internal buffer, together with its
+   * field index and row number. Unlike {@link #withCSVSyntax()} tokenization, empty fields are preserved, spaces inside
+   * unquoted fields are kept, and a doubled quote inside a quoted field represents a literal quote. Comments are
+   * skipped according to {@link #withComments(CommentType, CommentStatus)}. <br/>
+   * <br/>
+   * Note: This method consumes the entire remaining stream, leaving the StreamParser at EOF. It must be called before
+   * any other method parses tokens from the stream.
+   *
+   * @param visitor
+   *          The visitor to receive the fields of each record, must not be null.
+   *
+   * @return The number of records visited.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read from the stream, <br/>
+   *           If a quoted field is unterminated or followed by anything other than a separator, <br/>
+   *           If the visitor throws a StreamParserException.
+   * @throws IllegalStateException
+   *           If tokens have already been parsed from the stream.
+   */
+  public int visitCSVRecords (final CSVRecordVisitor visitor) throws StreamParserException
+  {
+    return scanCSVRecords (null, visitor);
+  }
+
+  /**
+   * Visit the projected fields of all records of a CSV (comma separated values) stream, skipping all other fields
+   * without unescaping them or creating views of them. <br/>
+   * <br/>
+   * Fields are passed to the visitor with their index in the projection as the field index, and the field count of each
+   * record is the number of projected fields it contained. If the projection is by header name, the first record is
+   * read as the header record, and is not visited. Otherwise identical to {@link #visitCSVRecords(CSVRecordVisitor)}.
+   *
+   * @param projection
+   *          The columns to visit, must not be null.
+   * @param visitor
+   *          The visitor to receive the projected fields of each record, must not be null.
+   *
+   * @return The number of records visited.
+   *
+   * @throws StreamParserException
+   *           <br/>
+   *           If the StreamParser could not read from the stream, <br/>
+   *           If a quoted field is unterminated or followed by anything other than a separator, <br/>
+   *           If a projected header is missing from the header record, <br/>
+   *           If the visitor throws a StreamParserException.
+   * @throws IllegalStateException
+   *           If tokens have already been parsed from the stream.
+   */
+  public int visitCSVRecords (final CSVProjection projection, final CSVRecordVisitor visitor)
+          throws StreamParserException
+  {
+    Arguments.checkIsNotNull (projection, "projection");
+
+    return scanCSVRecords (projection, visitor);
+  }
+
   /**
    * Parse the next token and verify that it is EOF.
    *
@@ -1331,6 +1824,86 @@ public final class StreamParser
     checkTokenTypeEquals (TokenType.END_OF_FILE);
   }
 
+  private int scanCSVRecords (@Nullable final CSVProjection projection, final CSVRecordVisitor visitor)
+          throws StreamParserException
+  {
+    Arguments.checkIsNotNull (visitor, "visitor");
+    Preconditions.checkIsFalse (hasParsedTokens, "Cannot visit CSV records after tokens have been parsed.");
+
+    assert s != null;
+
+    final int recordCount;
+
+    try
+    {
+      final CSVRecordScanner scanner = new CSVRecordScanner (reader, areSlashSlashCommentsEnabled,
+              areSlashStarCommentsEnabled);
+
+      recordCount = projection != null ? scanner.scan (visitor, projection) : scanner.scan (visitor);
+    }
+    catch (final IOException e)
+    {
+      throw new StreamParserException ("Could not read next CSV record.", e);
+    }
+
+    hasParsedTokens = true;
+    s.ttype = StreamTokenizer.TT_EOF;
+
+    return recordCount;
+  }
+
+  private static void checkArrayRange (final int arrayLength,
+                                       final int offset,
+                                       final int count,
+                                       final String arrayName)
+  {
+    Arguments.checkIsNotNegative (offset, "offset");
+    Arguments.checkLowerExclusiveBound (count, 0, "count");
+    Arguments.checkUpperInclusiveBound ((long) offset + count, arrayLength, "offset + count", arrayName + ".length");
+  }
+
+  private static int[] ensureCapacity (final int[] buffer, final int minCapacity)
+  {
+    return minCapacity <= buffer.length ? buffer
+            : Arrays.copyOf (buffer, Math.max (minCapacity, Math.max (INITIAL_LINE_BUFFER_CAPACITY, buffer.length * 2)));
+  }
+
+  private static long[] ensureCapacity (final long[] buffer, final int minCapacity)
+  {
+    return minCapacity <= buffer.length ? buffer
+            : Arrays.copyOf (buffer, Math.max (minCapacity, Math.max (INITIAL_LINE_BUFFER_CAPACITY, buffer.length * 2)));
+  }
+
+  private static double[] ensureCapacity (final double[] buffer, final int minCapacity)
+  {
+    return minCapacity <= buffer.length ? buffer
+            : Arrays.copyOf (buffer, Math.max (minCapacity, Math.max (INITIAL_LINE_BUFFER_CAPACITY, buffer.length * 2)));
+  }
+
+  private static Collection <Integer> toCollection (final int[] array)
+  {
+    final Collection <Integer> collection = new ArrayList <> (array.length);
+
+    for (final int element : array)
+    {
+      collection.add (element);
+    }
+
+    return collection;
+  }
+
+  private static Collection <Double> toCollection (final double[] array)
+  {
+    final Collection <Double> collection = new ArrayList <> (array.length);
+
+    for (final double element : array)
+    {
+      collection.add (element);
+    }
+
+    return collection;
+  }
+
   private void configureComments ()
   {
     if (areSlashStarCommentsEnabled || areSlashSlashCommentsEnabled)
@@ -1355,6 +1928,16 @@ public final class StreamParser
     s.slashStarComments (areSlashStarCommentsEnabled);
   }
 
+  boolean areSlashSlashCommentsEnabled ()
+  {
+    return areSlashSlashCommentsEnabled;
+  }
+
+  boolean areSlashStarCommentsEnabled ()
+  {
+    return areSlashStarCommentsEnabled;
+  }
+
   private void checkTokenContentEquals (final String expectedTokenContent) throws StreamParserException
   {
     assert expectedTokenContent != null;
@@ -1589,6 +2172,8 @@ public final class StreamParser
   {
     assert s != null;
 
+    hasParsedTokens = true;
+
     try
     {
       s.nextToken ();
@@ -1598,6 +2183,8 @@ public final class StreamParser
       throw new StreamParserException (
               "Could not read next token.\n\n" + "Last token successfully parsed: " + getCurrentTokenInfo (), e);
     }
+
+    if (stringTable != null && s.sval != null) s.sval = stringTable.intern (s.sval);
   }
 
   private void setupSyntaxTables ()
@@ -0,0 +1,205 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps a pool of seeds ready by harvesting an {@link EntropySource} on a background daemon thread, so that reseeding
+ * never has to wait for slow or blocking sources.
+ * <p/>
+ * Whenever the source fails, the harvester retries with an exponentially increasing delay, while consumers keep
+ * receiving the seeds that are still pooled, & receive null once the pool has run dry.
+ * <p/>
+ * Thread-safe.
+ */
+public final class EntropyHarvester implements Closeable
+{
+  public static final int DEFAULT_POOL_SIZE = 16;
+  private static final Logger log = LoggerFactory.getLogger (EntropyHarvester.class);
+  private static final long MIN_RETRY_DELAY_MILLISECONDS = 1000;
+  private static final long MAX_RETRY_DELAY_MILLISECONDS = 5 * 60 * 1000;
+  private final EntropySource source;
+  private final int seedSize;
+  private final BlockingQueue <byte[]> seeds;
+  private final Thread thread;
+  private volatile boolean isClosed = false;
+
+  /**
+   * Starts harvesting seeds of the specified size from the specified source, into a pool of default size.
+   *
+   * @param source
+   *          The entropy source, must not be null.
+   * @param seedSize
+   *          The number of bytes per seed, must be > 0.
+   */
+  public static EntropyHarvester start (final EntropySource source, final int seedSize)
+  {
+    return start (source, seedSize, DEFAULT_POOL_SIZE);
+  }
+
+  /**
+   * Starts harvesting seeds of the specified size from the specified source, into a pool of the specified size.
+   *
+   * @param source
+   *          The entropy source, must not be null.
+   * @param seedSize
+   *          The number of bytes per seed, must be > 0.
+   * @param poolSize
+   *          The maximum number of pooled seeds, must be > 0. Harvesting pauses while the pool is full.
+   */
+  public static EntropyHarvester start (final EntropySource source, final int seedSize, final int poolSize)
+  {
+    Arguments.checkIsNotNull (source, "source");
+    Arguments.checkLowerInclusiveBound (seedSize, 1, "seedSize");
+    Arguments.checkLowerInclusiveBound (poolSize, 1, "poolSize");
+
+    final EntropyHarvester harvester = new EntropyHarvester (source, seedSize, poolSize);
+
+    harvester.thread.start ();
+
+    return harvester;
+  }
+
+  /**
+   * Removes a seed from the pool without blocking.
+   *
+   * @return A seed, or null if the pool is currently empty.
+   */
+  @Nullable
+  public byte[] poll ()
+  {
+    return seeds.poll ();
+  }
+
+  /**
+   * Removes a seed from the pool, waiting for up to the specified time for one to be harvested.
+   *
+   * @return A seed, or null if none was harvested in time.
+   */
+  @Nullable
+  public byte[] poll (final long timeout, final TimeUnit unit) throws InterruptedException
+  {
+    Arguments.checkIsNotNegative (timeout, "timeout");
+    Arguments.checkIsNotNull (unit, "unit");
+
+    return seeds.poll (timeout, unit);
+  }
+
+  /**
+   * @return The number of seeds that are currently pooled.
+   */
+  public int getAvailableSeedCount ()
+  {
+    return seeds.size ();
+  }
+
+  public int getSeedSize ()
+  {
+    return seedSize;
+  }
+
+  public EntropySource getSource ()
+  {
+    return source;
+  }
+
+  /**
+   * Stops harvesting. Seeds that are still pooled remain available. Idempotent.
+   */
+  @Override
+  public void close ()
+  {
+    isClosed = true;
+    thread.interrupt ();
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Source: %2$s | Seed size: %3$s | Available seeds: %4$s | Closed: %5$s",
+                          getClass ().getSimpleName (), source, seedSize, seeds.size (), isClosed);
+  }
+
+  private void run ()
+  {
+    long retryDelayMilliseconds = MIN_RETRY_DELAY_MILLISECONDS;
+
+    while (!isClosed)
+    {
+      try
+      {
+        final byte[] seed = new byte [seedSize];
+
+        try
+        {
+          source.nextBytes (seed);
+        }
+        catch (final Exception e)
+        {
+          log.warn ("Could not harvest entropy from [{}], retrying in {} ms.", source, retryDelayMilliseconds, e);
+
+          Thread.sleep (retryDelayMilliseconds);
+          retryDelayMilliseconds = Math.min (retryDelayMilliseconds * 2, MAX_RETRY_DELAY_MILLISECONDS);
+
+          continue;
+        }
+
+        retryDelayMilliseconds = MIN_RETRY_DELAY_MILLISECONDS;
+        seeds.put (seed);
+      }
+      catch (final InterruptedException e)
+      {
+        break;
+      }
+    }
+  }
+
+  private EntropyHarvester (final EntropySource source, final int seedSize, final int poolSize)
+  {
+    this.source = source;
+    this.seedSize = seedSize;
+
+    seeds = new ArrayBlockingQueue <> (poolSize);
+    thread = new Thread (new Runnable ()
+    {
+      @Override
+      public void run ()
+      {
+        EntropyHarvester.this.run ();
+      }
+    }, getClass ().getSimpleName ());
+
+    thread.setDaemon (true);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import java.io.IOException;
+
+/**
+ * A source of seed material for cryptographically secure pseudo random number generators.
+ * <p/>
+ * Obtaining entropy may be slow or may block, e.g., when downloading true random bytes from a remote server, so
+ * entropy sources should be consumed in the background through an {@link EntropyHarvester}.
+ */
+public interface EntropySource
+{
+  /**
+   * Fills the specified array with entropy, blocking as long as necessary.
+   *
+   * @param bytes
+   *          The array to fill, must not be null.
+   *
+   * @throws IOException
+   *           If the entropy cannot be obtained.
+   */
+  void nextBytes (final byte[] bytes) throws IOException;
+}
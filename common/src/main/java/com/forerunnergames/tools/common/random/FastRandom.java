@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fast, non-cryptographic pseudo random number generator, implementing the xoshiro256** algorithm by David Blackman
+ * & Sebastiano Vigna (http://prng.di.unimi.it), with 256 bits of state, seeded through SplitMix64.
+ * <p/>
+ * Intended for simulations & AI rollouts that need very many random numbers, & must never be used where an adversary
+ * could benefit from predicting them, e.g., for player-facing dice, for which
+ * {@link com.forerunnergames.tools.common.Randomness} must be used instead.
+ * <p/>
+ * Not thread-safe: parallel tasks should each use their own generator, obtained from {@link #split()} or
+ * {@link #jump()}.
+ */
+public final class FastRandom extends Random
+{
+  private static final long serialVersionUID = 1L;
+  private static final AtomicLong SEED_UNIQUIFIER = new AtomicLong (0x5DEECE66DL);
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private static final long[] JUMP = { 0x180EC6D33CFD0ABAL, 0xD5A61266F0C9392CL, 0xA9582618E03FC9AAL,
+          0x39ABDC4529B1661CL };
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
+  private static final float FLOAT_UNIT = 0x1.0p-24f;
+  // Initialized by setSeed, which is called by the superclass constructor, so these must not have initializers.
+  private long s0;
+  private long s1;
+  private long s2;
+  private long s3;
+
+  /**
+   * Creates a generator with a seed that is very likely to be distinct from the seed of any other generator.
+   */
+  public FastRandom ()
+  {
+    this (mix64 (SEED_UNIQUIFIER.addAndGet (GOLDEN_GAMMA) ^ System.nanoTime ()));
+  }
+
+  /**
+   * Creates a generator that always produces the same sequence for the same seed.
+   */
+  public FastRandom (final long seed)
+  {
+    super (seed);
+  }
+
+  private FastRandom (final long s0, final long s1, final long s2, final long s3)
+  {
+    super (0);
+
+    this.s0 = s0;
+    this.s1 = s1;
+    this.s2 = s2;
+    this.s3 = s3;
+  }
+
+  /**
+   * Expands the seed into the full 256-bit state with SplitMix64.
+   */
+  @Override
+  public synchronized void setSeed (final long seed)
+  {
+    super.setSeed (seed);
+
+    long x = seed;
+
+    s0 = mix64 (x += GOLDEN_GAMMA);
+    s1 = mix64 (x += GOLDEN_GAMMA);
+    s2 = mix64 (x += GOLDEN_GAMMA);
+    s3 = mix64 (x + GOLDEN_GAMMA);
+  }
+
+  @Override
+  public long nextLong ()
+  {
+    final long result = Long.rotateLeft (s1 * 5, 7) * 9;
+    final long t = s1 << 17;
+
+    s2 ^= s0;
+    s3 ^= s1;
+    s1 ^= s2;
+    s0 ^= s3;
+    s2 ^= t;
+    s3 = Long.rotateLeft (s3, 45);
+
+    return result;
+  }
+
+  @Override
+  public int nextInt ()
+  {
+    return (int) (nextLong () >>> 32);
+  }
+
+  /**
+   * Generates an unbiased random integer in [0, bound) with Lemire's nearly divisionless method, which needs a division
+   * only in the rare case that a sample has to be rejected.
+   *
+   * @param bound
+   *          The exclusive upper bound, must be positive.
+   */
+  @Override
+  public int nextInt (final int bound)
+  {
+    Arguments.checkLowerInclusiveBound (bound, 1, "bound");
+
+    long product = (nextLong () >>> 32) * bound;
+    long low = product & 0xFFFFFFFFL;
+
+    if (low < bound)
+    {
+      final long threshold = (0x100000000L - bound) % bound;
+
+      while (low < threshold)
+      {
+        product = (nextLong () >>> 32) * bound;
+        low = product & 0xFFFFFFFFL;
+      }
+    }
+
+    return (int) (product >>> 32);
+  }
+
+  @Override
+  public double nextDouble ()
+  {
+    return (nextLong () >>> 11) * DOUBLE_UNIT;
+  }
+
+  @Override
+  public float nextFloat ()
+  {
+    return (nextLong () >>> 40) * FLOAT_UNIT;
+  }
+
+  @Override
+  public boolean nextBoolean ()
+  {
+    return nextLong () < 0;
+  }
+
+  /**
+   * Samples the standard normal distribution with the {@link Ziggurat} method, instead of the synchronized polar method
+   * of {@link Random}.
+   */
+  @Override
+  public double nextGaussian ()
+  {
+    return Ziggurat.nextGaussian (this);
+  }
+
+  /**
+   * @return An exponentially distributed value with a rate (& mean) of 1.0, sampled with the {@link Ziggurat} method.
+   */
+  public double nextExponential ()
+  {
+    return Ziggurat.nextExponential (this);
+  }
+
+  @Override
+  public void nextBytes (final byte[] bytes)
+  {
+    Arguments.checkIsNotNull (bytes, "bytes");
+
+    int i = 0;
+
+    while (i < bytes.length)
+    {
+      long random = nextLong ();
+
+      for (int n = Math.min (bytes.length - i, 8); n > 0; --n)
+      {
+        bytes [i++] = (byte) random;
+        random >>>= 8;
+      }
+    }
+  }
+
+  /**
+   * Creates a new generator, seeded from this one, for use by another task or thread. Both generators can be used
+   * independently from then on.
+   */
+  public FastRandom split ()
+  {
+    return new FastRandom (nextLong ());
+  }
+
+  /**
+   * Creates a new generator that continues this generator's sequence, & advances this generator by 2^128 steps, so
+   * that the two sequences are guaranteed not to overlap for 2^128 numbers. Calling this repeatedly yields up to 2^128
+   * non-overlapping generators, e.g., one per parallel task.
+   */
+  public FastRandom jump ()
+  {
+    final FastRandom copy = new FastRandom (s0, s1, s2, s3);
+    long j0 = 0;
+    long j1 = 0;
+    long j2 = 0;
+    long j3 = 0;
+
+    for (final long jump : JUMP)
+    {
+      for (int bit = 0; bit < 64; ++bit)
+      {
+        if ((jump & 1L << bit) != 0)
+        {
+          j0 ^= s0;
+          j1 ^= s1;
+          j2 ^= s2;
+          j3 ^= s3;
+        }
+
+        nextLong ();
+      }
+    }
+
+    s0 = j0;
+    s1 = j1;
+    s2 = j2;
+    s3 = j3;
+
+    return copy;
+  }
+
+  @Override
+  protected int next (final int bits)
+  {
+    return (int) (nextLong () >>> 64 - bits);
+  }
+
+  /**
+   * The SplitMix64 output function (David Stafford's Mix13 variant).
+   */
+  static long mix64 (final long z)
+  {
+    long x = z;
+
+    x = (x ^ x >>> 30) * 0xBF58476D1CE4E5B9L;
+    x = (x ^ x >>> 27) * 0x94D049BB133111EBL;
+
+    return x ^ x >>> 31;
+  }
+}
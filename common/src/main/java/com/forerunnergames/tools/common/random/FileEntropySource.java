@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.annotation.Nullable;
+
+/**
+ * Obtains entropy by reading a file, typically a device such as /dev/urandom, which works offline.
+ * <p/>
+ * Regular files are read cyclically, starting over from the beginning whenever the end is reached, so that a fixed file
+ * of random bytes can be used in tests.
+ */
+public final class FileEntropySource implements EntropySource
+{
+  private static final File URANDOM = new File ("/dev/urandom");
+  private final File file;
+  @Nullable
+  private InputStream input;
+
+  /**
+   * @return An entropy source reading from /dev/urandom, which is available on Linux, macOS & other Unix-like systems.
+   */
+  public static FileEntropySource urandom ()
+  {
+    return new FileEntropySource (URANDOM);
+  }
+
+  /**
+   * @param file
+   *          The file to read from, must not be null. It is only opened once entropy is requested.
+   */
+  public FileEntropySource (final File file)
+  {
+    Arguments.checkIsNotNull (file, "file");
+
+    this.file = file;
+  }
+
+  @Override
+  public synchronized void nextBytes (final byte[] bytes) throws IOException
+  {
+    Arguments.checkIsNotNull (bytes, "bytes");
+
+    int offset = 0;
+    boolean hasStartedOver = false;
+
+    while (offset < bytes.length)
+    {
+      if (input == null) input = new FileInputStream (file);
+
+      final int bytesRead = input.read (bytes, offset, bytes.length - offset);
+
+      if (bytesRead > 0)
+      {
+        offset += bytesRead;
+        hasStartedOver = false;
+
+        continue;
+      }
+
+      input.close ();
+      input = null;
+
+      if (hasStartedOver) throw new EOFException ("Cannot read entropy from empty file [" + file + "].");
+
+      hasStartedOver = true;
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: File: %2$s", getClass ().getSimpleName (), file);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import ch.fourmilab.randomx.RandomHotBits;
+
+import java.io.IOException;
+
+/**
+ * Obtains true random entropy from HotBits (https://www.fourmilab.ch/hotbits), which requires internet access, & blocks
+ * while downloading.
+ * <p/>
+ * Blocks are downloaded only on demand, without prefetching, because the source is meant to be consumed in the
+ * background by an {@link EntropyHarvester} anyway, & HotBits entropy is scarce, so the block size should match the
+ * number of bytes the harvester actually pools.
+ */
+public final class HotBitsEntropySource implements EntropySource
+{
+  private final RandomHotBits hotBits;
+
+  /**
+   * @param blockSize
+   *          The number of bytes to download per request, must be > 0 and <= {@link RandomHotBits#MAX_BLOCK_SIZE}.
+   */
+  public HotBitsEntropySource (final int blockSize)
+  {
+    Arguments.checkLowerExclusiveBound (blockSize, 0, "blockSize");
+    Arguments.checkUpperInclusiveBound (blockSize, RandomHotBits.MAX_BLOCK_SIZE, "blockSize",
+                                        "RandomHotBits.MAX_BLOCK_SIZE");
+
+    hotBits = new RandomHotBits (blockSize, false);
+  }
+
+  @Override
+  public void nextBytes (final byte[] bytes) throws IOException
+  {
+    Arguments.checkIsNotNull (bytes, "bytes");
+
+    try
+    {
+      hotBits.nextByte (bytes);
+    }
+    catch (final RuntimeException e)
+    {
+      throw new IOException ("Cannot obtain HotBits entropy.", e);
+    }
+  }
+
+  @Override
+  public String toString ()
+  {
+    return getClass ().getSimpleName ();
+  }
+}
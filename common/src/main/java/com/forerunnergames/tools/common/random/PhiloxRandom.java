@@ -0,0 +1,264 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import com.google.common.primitives.UnsignedLongs;
+
+import java.util.Random;
+
+/**
+ * A counter-based pseudo random number generator, implementing the Philox4x32-10 algorithm by Salmon, Moraes, Dror &
+ * Shaw ("Parallel Random Numbers: As Easy as 1, 2, 3", SC 2011), as specified by the Random123 library.
+ * <p/>
+ * Every output is a pure function of (seed, stream id, position): the seed is the key of the cipher, & the stream id &
+ * the position of the output form its counter. Any worker can therefore jump straight to its own stream, & to any
+ * position within it, with {@link #forStream(long)} & {@link #seek(long)}, in constant time, & a parallel run that
+ * assigns one stream per task is reproduced exactly regardless of thread scheduling. Each stream has 2^64 positions,
+ * each of which is one 32-bit output.
+ * <p/>
+ * Not cryptographically secure, & not thread-safe: each thread should use its own stream.
+ */
+public final class PhiloxRandom extends Random
+{
+  private static final long serialVersionUID = 1L;
+  private static final int ROUNDS = 10;
+  private static final long M0 = 0xD2511F53L;
+  private static final long M1 = 0xCD9E8D57L;
+  private static final int W0 = 0x9E3779B9;
+  private static final int W1 = 0xBB67AE85;
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
+  private static final float FLOAT_UNIT = 0x1.0p-24f;
+  // Initialized by setSeed, which is called by the superclass constructor, so these must not have initializers.
+  private long seed;
+  private long streamId;
+  private long position;
+  private int[] block;
+  private long blockIndex;
+  private boolean isBlockValid;
+
+  public PhiloxRandom (final long seed)
+  {
+    this (seed, 0, 0);
+  }
+
+  public PhiloxRandom (final long seed, final long streamId)
+  {
+    this (seed, streamId, 0);
+  }
+
+  public PhiloxRandom (final long seed, final long streamId, final long position)
+  {
+    super (seed);
+
+    this.streamId = streamId;
+    this.position = position;
+  }
+
+  /**
+   * Computes one block of four 32-bit outputs, i.e., the outputs at positions 4 * blockIndex through
+   * 4 * blockIndex + 3 of the specified stream.
+   */
+  static void computeBlock (final long seed, final long streamId, final long blockIndex, final int[] output)
+  {
+    int c0 = (int) blockIndex;
+    int c1 = (int) (blockIndex >>> 32);
+    int c2 = (int) streamId;
+    int c3 = (int) (streamId >>> 32);
+    int k0 = (int) seed;
+    int k1 = (int) (seed >>> 32);
+
+    for (int round = 0; round < ROUNDS; ++round)
+    {
+      if (round > 0)
+      {
+        k0 += W0;
+        k1 += W1;
+      }
+
+      final long product0 = M0 * (c0 & 0xFFFFFFFFL);
+      final long product1 = M1 * (c2 & 0xFFFFFFFFL);
+      final int newC0 = (int) (product1 >>> 32) ^ c1 ^ k0;
+      final int newC2 = (int) (product0 >>> 32) ^ c3 ^ k1;
+
+      c1 = (int) product1;
+      c3 = (int) product0;
+      c0 = newC0;
+      c2 = newC2;
+    }
+
+    output [0] = c0;
+    output [1] = c1;
+    output [2] = c2;
+    output [3] = c3;
+  }
+
+  /**
+   * Sets the seed, & rewinds to the first position of the current stream.
+   */
+  @Override
+  public synchronized void setSeed (final long seed)
+  {
+    super.setSeed (seed);
+
+    this.seed = seed;
+
+    position = 0;
+    isBlockValid = false;
+  }
+
+  /**
+   * @return A new generator with the same seed, at the first position of the specified stream.
+   */
+  public PhiloxRandom forStream (final long streamId)
+  {
+    return new PhiloxRandom (seed, streamId, 0);
+  }
+
+  /**
+   * Jumps to the specified position of the current stream, in constant time.
+   *
+   * @param position
+   *          The number of 32-bit outputs preceding the next output, interpreted as an unsigned 64-bit number.
+   */
+  public void seek (final long position)
+  {
+    this.position = position;
+  }
+
+  public long getPosition ()
+  {
+    return position;
+  }
+
+  public long getStreamId ()
+  {
+    return streamId;
+  }
+
+  public long getSeed ()
+  {
+    return seed;
+  }
+
+  @Override
+  public int nextInt ()
+  {
+    final long index = position >>> 2;
+
+    if (!isBlockValid || index != blockIndex)
+    {
+      if (block == null) block = new int [4];
+
+      computeBlock (seed, streamId, index, block);
+      blockIndex = index;
+      isBlockValid = true;
+    }
+
+    return block [(int) (position++ & 3)];
+  }
+
+  /**
+   * Generates an unbiased random integer in [0, bound) with Lemire's nearly divisionless method.
+   *
+   * @param bound
+   *          The exclusive upper bound, must be positive.
+   */
+  @Override
+  public int nextInt (final int bound)
+  {
+    Arguments.checkLowerInclusiveBound (bound, 1, "bound");
+
+    long product = (nextInt () & 0xFFFFFFFFL) * bound;
+    long low = product & 0xFFFFFFFFL;
+
+    if (low < bound)
+    {
+      final long threshold = (0x100000000L - bound) % bound;
+
+      while (low < threshold)
+      {
+        product = (nextInt () & 0xFFFFFFFFL) * bound;
+        low = product & 0xFFFFFFFFL;
+      }
+    }
+
+    return (int) (product >>> 32);
+  }
+
+  @Override
+  public long nextLong ()
+  {
+    return (long) nextInt () << 32 | nextInt () & 0xFFFFFFFFL;
+  }
+
+  @Override
+  public double nextDouble ()
+  {
+    return (nextLong () >>> 11) * DOUBLE_UNIT;
+  }
+
+  @Override
+  public float nextFloat ()
+  {
+    return (nextInt () >>> 8) * FLOAT_UNIT;
+  }
+
+  @Override
+  public boolean nextBoolean ()
+  {
+    return nextInt () < 0;
+  }
+
+  /**
+   * Samples the standard normal distribution with the {@link Ziggurat} method, instead of the synchronized polar method
+   * of {@link Random}.
+   */
+  @Override
+  public double nextGaussian ()
+  {
+    return Ziggurat.nextGaussian (this);
+  }
+
+  /**
+   * @return An exponentially distributed value with a rate (& mean) of 1.0, sampled with the {@link Ziggurat} method.
+   */
+  public double nextExponential ()
+  {
+    return Ziggurat.nextExponential (this);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Seed: %2$s | Stream id: %3$s | Position: %4$s", getClass ().getSimpleName (), seed,
+                          streamId, UnsignedLongs.toString (position));
+  }
+
+  @Override
+  protected int next (final int bits)
+  {
+    return nextInt () >>> 32 - bits;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import com.forerunnergames.tools.common.Arguments;
+
+import java.security.SecureRandom;
+
+/**
+ * Obtains entropy from the seed generation algorithm of the platform's default {@link SecureRandom} implementation.
+ */
+public final class SystemEntropySource implements EntropySource
+{
+  private final SecureRandom random = new SecureRandom ();
+
+  @Override
+  public void nextBytes (final byte[] bytes)
+  {
+    Arguments.checkIsNotNull (bytes, "bytes");
+
+    final byte[] seed = random.generateSeed (bytes.length);
+
+    System.arraycopy (seed, 0, bytes, 0, seed.length);
+  }
+
+  @Override
+  public String toString ()
+  {
+    return String.format ("%1$s: Algorithm: %2$s", getClass ().getSimpleName (), random.getAlgorithm ());
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package ch.fourmilab.randomx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RandomHotBitsTest
+{
+  @Test
+  public void testNextBytesSpansBlocks ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (4, false);
+    final byte[] bytes = new byte [12];
+
+    hotBits.nextBytes (bytes, 1, 10);
+
+    assertArrayEquals (new byte [] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 0 }, bytes);
+    assertEquals (3, hotBits.getFetchCount ());
+  }
+
+  @Test
+  public void testNextBitsAreBigEndianAcrossBlocks ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (3, false);
+
+    assertEquals (0x01, hotBits.nextByte ());
+    assertEquals (0x0203, hotBits.nextShort ());
+    assertEquals (0x04050607, hotBits.nextInt ());
+    assertEquals (0x08090A0B0C0D0E0FL, hotBits.nextLong ());
+    assertEquals (5, hotBits.getFetchCount ());
+  }
+
+  @Test
+  public void testPrefetchedBlocksContinueSequence ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (4, true);
+    final byte[] bytes = new byte [10];
+
+    hotBits.nextBytes (bytes, 0, bytes.length);
+
+    assertArrayEquals (new byte [] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, bytes);
+    assertTrue (hotBits.getFetchThreadNames ().contains ("RandomHotBits-prefetch"));
+  }
+
+  @Test
+  public void testShortBlocksAreUsedUp ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (4, false);
+
+    hotBits.setShortBlockSize (1);
+
+    assertEquals (0x01020304, hotBits.nextInt ());
+    assertEquals (4, hotBits.getFetchCount ());
+  }
+
+  @Test (expected = RuntimeException.class)
+  public void testEmptyBlockFails ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (4, false);
+
+    hotBits.setShortBlockSize (0);
+    hotBits.nextByte ();
+  }
+
+  @Test
+  public void testPrefetchFailureSurfacesOnHandOff ()
+  {
+    final OfflineHotBits hotBits = new OfflineHotBits (2, true);
+
+    hotBits.setFetchCountBeforeFailing (1);
+    hotBits.nextByte ();
+    hotBits.nextByte ();
+
+    try
+    {
+      hotBits.nextByte ();
+      fail ("Expected the failed prefetch to be rethrown.");
+    }
+    catch (final RuntimeException e)
+    {
+      assertTrue (e.getCause () instanceof IOException);
+      assertEquals ("Offline.", e.getCause ().getMessage ());
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testBlockSizeExceedingMaximumFails ()
+  {
+    new RandomHotBits (RandomHotBits.MAX_BLOCK_SIZE + 1, false);
+  }
+
+  private static final class OfflineHotBits extends RandomHotBits
+  {
+    private final List <String> fetchThreadNames = Collections.synchronizedList (new ArrayList <String> ());
+    private volatile int shortBlockSize = -1;
+    private volatile int fetchCountBeforeFailing = Integer.MAX_VALUE;
+    private byte next = 0;
+
+    OfflineHotBits (final int blockSize, final boolean prefetch)
+    {
+      super (blockSize, prefetch);
+    }
+
+    @Override
+    protected synchronized byte[] fetchBlock (final int size) throws IOException
+    {
+      if (fetchThreadNames.size () >= fetchCountBeforeFailing) throw new IOException ("Offline.");
+
+      fetchThreadNames.add (Thread.currentThread ().getName ());
+
+      final byte[] block = new byte [shortBlockSize >= 0 ? shortBlockSize : size];
+
+      for (int i = 0; i < block.length; ++i)
+      {
+        block [i] = ++next;
+      }
+
+      return block;
+    }
+
+    int getFetchCount ()
+    {
+      return fetchThreadNames.size ();
+    }
+
+    List <String> getFetchThreadNames ()
+    {
+      return fetchThreadNames;
+    }
+
+    void setShortBlockSize (final int shortBlockSize)
+    {
+      this.shortBlockSize = shortBlockSize;
+    }
+
+    void setFetchCountBeforeFailing (final int fetchCountBeforeFailing)
+    {
+      this.fetchCountBeforeFailing = fetchCountBeforeFailing;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package ch.fourmilab.randomx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class RandomXTest
+{
+  @Test
+  public void testNextIntsMatchesNextInt ()
+  {
+    final RandomX expected = new CountingRandom ();
+    final int[] ints = new int [2000];
+
+    new CountingRandom ().nextInts (ints, 0, ints.length);
+
+    for (final int value : ints)
+    {
+      assertEquals (expected.nextInt (), value);
+    }
+  }
+
+  @Test
+  public void testNextLongsMatchesNextLong ()
+  {
+    final RandomX expected = new CountingRandom ();
+    final long[] longs = new long [1000];
+
+    new CountingRandom ().nextLongs (longs, 0, longs.length);
+
+    for (final long value : longs)
+    {
+      assertEquals (expected.nextLong (), value);
+    }
+  }
+
+  @Test
+  public void testNextBytesFillsOnlyRange ()
+  {
+    final byte[] bytes = new byte [6];
+
+    new CountingRandom ().nextBytes (bytes, 2, 3);
+
+    assertArrayEquals (new byte [] { 0, 0, 1, 2, 3, 0 }, bytes);
+  }
+
+  @Test
+  public void testNextBytesFillsDirectByteBuffer ()
+  {
+    final ByteBuffer buffer = ByteBuffer.allocateDirect (5000);
+
+    new CountingRandom ().nextBytes (buffer);
+
+    assertEquals (buffer.limit (), buffer.position ());
+    assertEquals ((byte) 5000, buffer.get (4999));
+  }
+
+  @Test (expected = IndexOutOfBoundsException.class)
+  public void testNextIntsOutOfRangeFails ()
+  {
+    new CountingRandom ().nextInts (new int [4], 2, 3);
+  }
+
+  private static final class CountingRandom extends RandomX
+  {
+    private byte next = 0;
+
+    @Override
+    public byte nextByte ()
+    {
+      return ++next;
+    }
+  }
+}
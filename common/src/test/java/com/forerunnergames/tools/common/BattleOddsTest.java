@@ -0,0 +1,141 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class BattleOddsTest
+{
+  private static final double EPSILON = 1e-12;
+  private final BattleOdds odds = BattleOdds.standard ();
+
+  @Test
+  public void testRoundProbabilitiesMatchKnownValues ()
+  {
+    assertEquals (21.0 / 36, odds.getRoundProbability (1, 1, 1), EPSILON);
+    assertEquals (125.0 / 216, odds.getRoundProbability (2, 1, 0), EPSILON);
+    assertEquals (855.0 / 1296, odds.getRoundProbability (3, 1, 0), EPSILON);
+    assertEquals (55.0 / 216, odds.getRoundProbability (1, 2, 0), EPSILON);
+    assertEquals (295.0 / 1296, odds.getRoundProbability (2, 2, 0), EPSILON);
+    assertEquals (420.0 / 1296, odds.getRoundProbability (2, 2, 1), EPSILON);
+    assertEquals (581.0 / 1296, odds.getRoundProbability (2, 2, 2), EPSILON);
+    assertEquals (2890.0 / 7776, odds.getRoundProbability (3, 2, 0), EPSILON);
+    assertEquals (2611.0 / 7776, odds.getRoundProbability (3, 2, 1), EPSILON);
+    assertEquals (2275.0 / 7776, odds.getRoundProbability (3, 2, 2), EPSILON);
+  }
+
+  @Test
+  public void testRoundDistributionsSumToOne ()
+  {
+    for (int attackerDice = 1; attackerDice <= 3; ++attackerDice)
+    {
+      for (int defenderDice = 1; defenderDice <= 2; ++defenderDice)
+      {
+        assertEquals (1.0, sum (odds.getRoundDistribution (attackerDice, defenderDice)), EPSILON);
+      }
+    }
+  }
+
+  @Test
+  public void testAttackerWinProbabilityMatchesSingleRound ()
+  {
+    assertEquals (15.0 / 36, odds.getAttackerWinProbability (1, 1), EPSILON);
+    assertEquals (1.0, odds.getAttackerWinProbability (1, 0), EPSILON);
+    assertEquals (0.0, odds.getAttackerWinProbability (0, 1), EPSILON);
+  }
+
+  @Test
+  public void testAttackerWinProbabilityMatchesRecurrence ()
+  {
+    // 2 vs 1: Win the first round, or lose it & then win 1 vs 1.
+    final double expected = 125.0 / 216 + 91.0 / 216 * 15.0 / 36;
+
+    assertEquals (expected, odds.getAttackerWinProbability (2, 1), EPSILON);
+  }
+
+  @Test
+  public void testAttackerWinProbabilityNeverDecreasesWithAttackerArmies ()
+  {
+    double previous = 0.0;
+
+    for (int attackerArmies = 1; attackerArmies <= 100; ++attackerArmies)
+    {
+      final double probability = odds.getAttackerWinProbability (attackerArmies, 10);
+
+      assertTrue (probability >= previous);
+
+      previous = probability;
+    }
+
+    assertTrue (previous > 0.999);
+  }
+
+  @Test
+  public void testFinalStateDistributionAgreesWithWinProbability ()
+  {
+    final double[][] finalStates = odds.getFinalStateDistribution (12, 9);
+    double attackerWins = 0.0;
+    double total = 0.0;
+
+    for (int a = 0; a <= 12; ++a)
+    {
+      for (int d = 0; d <= 9; ++d)
+      {
+        if (a > 0 && d > 0) assertEquals (0.0, finalStates [a][d], 0.0);
+        if (d == 0) attackerWins += finalStates [a][d];
+
+        total += finalStates [a][d];
+      }
+    }
+
+    assertEquals (1.0, total, EPSILON);
+    assertEquals (odds.getAttackerWinProbability (12, 9), attackerWins, EPSILON);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testTooManyAttackerDiceFails ()
+  {
+    odds.getRoundProbability (4, 2, 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testTooManyTotalDiceFails ()
+  {
+    new BattleOdds (5, 4);
+  }
+
+  private static double sum (final double[] values)
+  {
+    double sum = 0.0;
+
+    for (final double value : values)
+    {
+      sum += value;
+    }
+
+    return sum;
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.forerunnergames.tools.common.graph.DefaultGraphModel;
+import com.forerunnergames.tools.common.graph.GraphModel;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+public class BattleSimulatorTest
+{
+  @Test
+  public void testSingleBattleAgreesWithExactOdds ()
+  {
+    final BattleSimulator simulator = BattleSimulator.builder ().withSeed (42).withTargetHalfWidth (0.002, 1.96)
+            .build ();
+    final BattleSimulator.Result result = simulator.simulate (10, 8);
+    final double expected = BattleOdds.standard ().getAttackerWinProbability (10, 8);
+
+    assertTrue (result.hasConverged ());
+    assertEquals (expected, result.getWinProbability (), 2 * result.getConfidenceHalfWidth ());
+  }
+
+  @Test
+  public void testChainAgreesWithExactOdds ()
+  {
+    final BattleOdds odds = BattleOdds.standard ();
+    final double[][] firstBattle = odds.getFinalStateDistribution (12, 4);
+    double expected = 0.0;
+
+    // After conquering the first territory with a armies left, one army stays behind.
+    for (int a = 2; a <= 12; ++a)
+    {
+      expected += firstBattle [a][0] * odds.getAttackerWinProbability (a - 1, 5);
+    }
+
+    final BattleSimulator.Result result = BattleSimulator.builder ().withSeed (7).withTargetHalfWidth (0.002, 1.96)
+            .build ().simulate (12, 4, 5);
+
+    assertEquals (expected, result.getWinProbability (), 2 * result.getConfidenceHalfWidth ());
+  }
+
+  @Test
+  public void testHistogramsAccountForEveryRollout ()
+  {
+    final BattleSimulator.Result result = BattleSimulator.builder ().withSeed (1).withRollouts (1000, 50000)
+            .withBatchSize (10000).build ().simulate (6, 2, 2, 2);
+
+    long conquered = 0;
+    long remaining = 0;
+
+    for (final long count : result.getConqueredTerritoriesHistogram ())
+    {
+      conquered += count;
+    }
+
+    for (final long count : result.getRemainingArmiesHistogram ())
+    {
+      remaining += count;
+    }
+
+    assertEquals (result.getRolloutCount (), conquered);
+    assertEquals (result.getRolloutCount (), remaining);
+    assertEquals (4, result.getConqueredTerritoriesHistogram ().length);
+    assertEquals (7, result.getRemainingArmiesHistogram ().length);
+  }
+
+  @Test
+  public void testSameSeedGivesSameResultOnAnyPool ()
+  {
+    final BattleSimulator.Result a = BattleSimulator.builder ().withSeed (99).withRollouts (1, 200000).build ()
+            .simulate (8, 3, 3);
+    final ForkJoinPool pool = new ForkJoinPool (1);
+    final BattleSimulator.Result b;
+
+    try
+    {
+      b = BattleSimulator.builder ().withSeed (99).withRollouts (1, 200000).withPool (pool).build ().simulate (8, 3, 3);
+    }
+    finally
+    {
+      pool.shutdown ();
+    }
+
+    assertEquals (a.getRolloutCount (), b.getRolloutCount ());
+    assertArrayEquals (a.getConqueredTerritoriesHistogram (), b.getConqueredTerritoriesHistogram ());
+    assertArrayEquals (a.getRemainingArmiesHistogram (), b.getRemainingArmiesHistogram ());
+  }
+
+  @Test
+  public void testStopsAtMaxRolloutsWhenTargetIsUnreachable ()
+  {
+    final BattleSimulator.Result result = BattleSimulator.builder ().withSeed (3).withRollouts (1, 20000)
+            .withBatchSize (5000).withTargetHalfWidth (1e-6, 1.96).build ().simulate (5, 5);
+
+    assertFalse (result.hasConverged ());
+    assertEquals (20000, result.getRolloutCount ());
+  }
+
+  @Test
+  public void testDefenderArmiesAlongPath ()
+  {
+    final GraphModel <String> graph = DefaultGraphModel.<String> builder ().setAdjacent ("A", "B")
+            .setAdjacent ("B", "C").setAdjacent ("C", "D").build ();
+    final int[] defenderArmies = BattleSimulator
+            .defenderArmiesAlong (graph, ImmutableList.of ("A", "B", "C", "D"),
+                                  ImmutableMap.of ("A", 10, "B", 3, "C", 1, "D", 4));
+
+    assertArrayEquals (new int [] { 3, 1, 4 }, defenderArmies);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testDefenderArmiesAlongNonAdjacentPathFails ()
+  {
+    final GraphModel <String> graph = DefaultGraphModel.<String> builder ().setAdjacent ("A", "B")
+            .setAdjacent ("C", "D").build ();
+
+    BattleSimulator.defenderArmiesAlong (graph, ImmutableList.of ("A", "B", "D"),
+                                         ImmutableMap.of ("A", 10, "B", 3, "C", 1, "D", 4));
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class DiceRollerTest
+{
+  @Test
+  public void testScriptedRollsAreRecycled ()
+  {
+    final DiceRoller roller = new DiceRoller (DiceRollSources.scripted (6, 1, 3));
+    final int[] rolls = new int [5];
+
+    roller.rollDice (rolls, 0, rolls.length);
+
+    assertArrayEquals (new int [] { 6, 1, 3, 6, 1 }, rolls);
+    assertEquals (3, roller.rollDie ());
+  }
+
+  @Test
+  public void testScriptedRollersAreIndependent ()
+  {
+    final DiceRoller first = new DiceRoller (DiceRollSources.scripted (1, 2));
+    final DiceRoller second = new DiceRoller (DiceRollSources.scripted (5, 6));
+
+    assertEquals (1, first.rollDie ());
+    assertEquals (5, second.rollDie ());
+    assertEquals (2, first.rollDie ());
+    assertEquals (6, second.rollDie ());
+  }
+
+  @Test
+  public void testRollSortedDiceIsSortedDescending ()
+  {
+    final int[] rolls = new int [4];
+
+    new DiceRoller (DiceRollSources.scripted (2, 6, 1, 4)).rollSortedDice (rolls, 0, rolls.length);
+
+    assertArrayEquals (new int [] { 6, 4, 2, 1 }, rolls);
+  }
+
+  @Test
+  public void testRecordedRollsReplayExactly ()
+  {
+    final RecordingDiceRollSource recording = DiceRollSources.recording (DiceRollSources.fast ());
+    final DiceRoller roller = new DiceRoller (recording);
+    final int[] rolls = new int [1000];
+
+    roller.rollDice (rolls, 0, rolls.length);
+
+    final int sum = roller.rollSum (3);
+    final int[] replayedRolls = new int [rolls.length];
+    final DiceRoller replayer = new DiceRoller (recording.replay ());
+
+    replayer.rollDice (replayedRolls, 0, replayedRolls.length);
+
+    assertEquals (rolls.length + 3, recording.getRecordedRollCount ());
+    assertArrayEquals (rolls, replayedRolls);
+    assertEquals (sum, replayer.rollSum (3));
+  }
+
+  @Test
+  public void testRollSumRollsAllDiceAtOnce ()
+  {
+    final RecordingDiceRollSource recording = DiceRollSources.recording (DiceRollSources.scripted (2));
+    final int[] rollCalls = new int [1];
+    final DiceRoller roller = new DiceRoller (new DiceRollSource ()
+    {
+      @Override
+      public void roll (final int[] rolls, final int offset, final int dieCount, final int facesPerDie)
+      {
+        ++rollCalls [0];
+        recording.roll (rolls, offset, dieCount, facesPerDie);
+      }
+    });
+
+    assertEquals (4, roller.rollSum (2));
+    assertEquals (200, roller.rollSum (100));
+    assertEquals (2, rollCalls [0]);
+    assertEquals (102, recording.getRecordedRollCount ());
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testReplayBeyondRecordingFails ()
+  {
+    final DiceRoller roller = new DiceRoller (DiceRollSources.replay (1, 2));
+
+    roller.rollSum (3);
+  }
+
+  @Test
+  public void testSameSeedRollsSameDice ()
+  {
+    final int[] first = new int [100];
+    final int[] second = new int [100];
+
+    new DiceRoller (DiceRollSources.fast (42)).rollDice (first, 0, first.length);
+    new DiceRoller (DiceRollSources.fast (42)).rollDice (second, 0, second.length);
+
+    assertArrayEquals (first, second);
+  }
+
+  @Test
+  public void testCryptographicRollsAreFaces ()
+  {
+    final DiceRoller roller = DiceRoller.cryptographic ();
+
+    for (final int roll : roller.rollDice (1000))
+    {
+      assertTrue (roll >= 1 && roll <= 6);
+    }
+
+    final int[] rolls = new int [1000];
+
+    roller.rollDice (rolls, 0, rolls.length);
+    Arrays.sort (rolls);
+
+    assertEquals (1, rolls [0]);
+    assertEquals (6, rolls [rolls.length - 1]);
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testScriptedRollExceedingFacesFails ()
+  {
+    new DiceRoller (DiceRollSources.scripted (7)).rollDie ();
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testRollingTooManyDiceForArrayFails ()
+  {
+    DiceRoller.cryptographic ().rollDice (new int [2], 1, 2);
+  }
+}
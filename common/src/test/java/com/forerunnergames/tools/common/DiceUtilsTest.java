@@ -0,0 +1,80 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DiceUtilsTest
+{
+  @Test
+  public void testRollDiceFillsOnlyRangeWithFaces ()
+  {
+    final int[] rolls = new int [12];
+
+    DiceUtils.rollDice (rolls, 1, 10);
+
+    assertEquals (0, rolls [0]);
+    assertEquals (0, rolls [11]);
+
+    for (int i = 1; i <= 10; ++i)
+    {
+      assertTrue (rolls [i] >= 1 && rolls [i] <= 6);
+    }
+  }
+
+  @Test
+  public void testRollSortedDiceIsSortedDescending ()
+  {
+    final int[] rolls = new int [5];
+
+    for (int tries = 0; tries < 1000; ++tries)
+    {
+      DiceUtils.rollSortedDice (rolls, 0, rolls.length);
+
+      for (int i = 1; i < rolls.length; ++i)
+      {
+        assertTrue (rolls [i - 1] >= rolls [i]);
+      }
+    }
+  }
+
+  @Test
+  public void testRollSumIsWithinRange ()
+  {
+    for (int tries = 0; tries < 1000; ++tries)
+    {
+      final int sum = DiceUtils.rollSum (3);
+
+      assertTrue (sum >= 3 && sum <= 18);
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testRollDiceWithZeroDiceFails ()
+  {
+    DiceUtils.rollDice (new int [1], 0, 0);
+  }
+}
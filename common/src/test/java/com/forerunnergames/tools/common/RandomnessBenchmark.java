@@ -0,0 +1,173 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how random draws scale across threads, comparing the thread-confined generators of {@link Randomness}
+ * against the single shared {@link SecureRandom} that Randomness used before, as a baseline. Each generator draws on 1
+ * thread, then on N threads (one per available processor by default), & the draws per second of each are reported.
+ * <p/>
+ * Not part of the test suite, because it takes several seconds & its results depend on the machine. Run it with:
+ *
+ * <pre>
+ * java com.forerunnergames.tools.common.RandomnessBenchmark [threadCount] [drawsPerThread]
+ * </pre>
+ */
+public final class RandomnessBenchmark
+{
+  private static final Logger log = LoggerFactory.getLogger (RandomnessBenchmark.class);
+  private static final int DEFAULT_DRAWS_PER_THREAD = 1000000;
+  private static final int WARM_UP_DRAWS_PER_THREAD = 100000;
+
+  private interface Generator
+  {
+    int getRandomIntegerFrom (final int inclusiveLowerBound, final int inclusiveUpperBound);
+  }
+
+  public static void main (final String... args) throws Exception
+  {
+    final int threadCount = args.length > 0 ? Integer.parseInt (args [0])
+            : Math.max (2, Runtime.getRuntime ().availableProcessors ());
+    final int drawsPerThread = args.length > 1 ? Integer.parseInt (args [1]) : DEFAULT_DRAWS_PER_THREAD;
+
+    Arguments.checkLowerInclusiveBound (threadCount, 1, "threadCount");
+    Arguments.checkLowerInclusiveBound (drawsPerThread, 1, "drawsPerThread");
+
+    final ExecutorService executor = Executors.newFixedThreadPool (threadCount);
+
+    try
+    {
+      run ("Thread-confined generators", threadConfinedGenerator (), threadCount, drawsPerThread, executor);
+      run ("Shared SecureRandom (baseline)", sharedSecureRandomGenerator (), threadCount, drawsPerThread, executor);
+    }
+    finally
+    {
+      executor.shutdown ();
+    }
+  }
+
+  private static void run (final String name,
+                           final Generator generator,
+                           final int threadCount,
+                           final int drawsPerThread,
+                           final ExecutorService executor) throws Exception
+  {
+    measureDrawsPerSecond (generator, threadCount, WARM_UP_DRAWS_PER_THREAD, executor);
+
+    final double singleThreadDrawsPerSecond = measureDrawsPerSecond (generator, 1, drawsPerThread, executor);
+    final double multiThreadDrawsPerSecond = measureDrawsPerSecond (generator, threadCount, drawsPerThread, executor);
+
+    log.info ("{}: 1 thread: {} draws per second | {} threads: {} draws per second | Speedup: {}", name,
+              (long) singleThreadDrawsPerSecond, threadCount, (long) multiThreadDrawsPerSecond,
+              String.format ("%.2fx", multiThreadDrawsPerSecond / singleThreadDrawsPerSecond));
+  }
+
+  private static double measureDrawsPerSecond (final Generator generator,
+                                               final int threadCount,
+                                               final int drawsPerThread,
+                                               final ExecutorService executor) throws Exception
+  {
+    final List <Future <Long>> results = new ArrayList <> (threadCount);
+    final long startNanos = System.nanoTime ();
+
+    for (int thread = 0; thread < threadCount; ++thread)
+    {
+      results.add (executor.submit (new Callable <Long> ()
+      {
+        @Override
+        public Long call ()
+        {
+          long sum = 0;
+
+          for (int draw = 0; draw < drawsPerThread; ++draw)
+          {
+            sum += generator.getRandomIntegerFrom (1, 6);
+          }
+
+          return sum;
+        }
+      }));
+    }
+
+    long sum = 0;
+
+    for (final Future <Long> result : results)
+    {
+      sum += result.get ();
+    }
+
+    final double seconds = (System.nanoTime () - startNanos) / 1e9;
+
+    // Every draw is from 1 to 6, so the sum can only be out of range if the generator is broken.
+    Preconditions.checkIsTrue (sum >= (long) threadCount * drawsPerThread, "Invalid random draws.");
+
+    return threadCount * (double) drawsPerThread / seconds;
+  }
+
+  private static Generator threadConfinedGenerator ()
+  {
+    return new Generator ()
+    {
+      @Override
+      public int getRandomIntegerFrom (final int inclusiveLowerBound, final int inclusiveUpperBound)
+      {
+        return Randomness.getRandomIntegerFrom (inclusiveLowerBound, inclusiveUpperBound);
+      }
+    };
+  }
+
+  /**
+   * @return A generator drawing from one SecureRandom shared by all threads, as Randomness did before its generators
+   *         became thread-confined.
+   */
+  private static Generator sharedSecureRandomGenerator () throws NoSuchAlgorithmException
+  {
+    final SecureRandom random = SecureRandom.getInstance ("SHA1PRNG");
+
+    return new Generator ()
+    {
+      @Override
+      public int getRandomIntegerFrom (final int inclusiveLowerBound, final int inclusiveUpperBound)
+      {
+        return random.nextInt (inclusiveUpperBound - inclusiveLowerBound + 1) + inclusiveLowerBound;
+      }
+    };
+  }
+
+  private RandomnessBenchmark ()
+  {
+    Classes.instantiationNotAllowed ();
+  }
+}
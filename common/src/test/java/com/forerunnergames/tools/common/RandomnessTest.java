@@ -26,13 +26,34 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import static org.junit.Assert.assertThat;
 
+import com.forerunnergames.tools.common.random.EntropyHarvester;
+import com.forerunnergames.tools.common.random.EntropySource;
+import com.forerunnergames.tools.common.random.FileEntropySource;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Test;
 
 public class RandomnessTest
 {
+  private static final long HARVEST_TIMEOUT_MILLISECONDS = 10000;
+
   @Test (expected = IllegalArgumentException.class)
   public void testGetRandomIntegerWithExtremeUpperBoundFails ()
   {
@@ -108,4 +129,209 @@ public class RandomnessTest
       assertThat (randomInt, is (lessThanOrEqualTo (Integer.MAX_VALUE - 1)));
     }
   }
+
+  @Test
+  public void testEachThreadUsesItsOwnGenerator () throws InterruptedException
+  {
+    final Random[][] generators = new Random [4][2];
+    final Thread[] threads = new Thread [generators.length];
+
+    for (int i = 0; i < threads.length; ++i)
+    {
+      final Random[] threadGenerators = generators [i];
+
+      threads [i] = new Thread (new Runnable ()
+      {
+        @Override
+        public void run ()
+        {
+          threadGenerators [0] = Randomness.useCsprng (0);
+          threadGenerators [1] = Randomness.useCsprng (0);
+        }
+      });
+
+      threads [i].start ();
+    }
+
+    final Set <Random> distinctGenerators = Collections.newSetFromMap (new IdentityHashMap <Random, Boolean> ());
+
+    for (int i = 0; i < threads.length; ++i)
+    {
+      threads [i].join ();
+
+      assertThat (generators [i][0], is (notNullValue ()));
+      assertThat (generators [i][1], is (sameInstance (generators [i][0])));
+
+      distinctGenerators.add (generators [i][0]);
+    }
+
+    distinctGenerators.add (Randomness.useCsprng (0));
+
+    assertThat (distinctGenerators.size (), is (threads.length + 1));
+  }
+
+  @Test
+  public void testGetRandomElementFromCollectionsIsUniform ()
+  {
+    final List <Integer> list = Arrays.asList (0, 1, 2, 3);
+    final Collection <Integer> linkedList = new LinkedList <> (list);
+    final int[] listCounts = new int [4];
+    final int[] linkedListCounts = new int [4];
+    final int[] iterableCounts = new int [4];
+
+    for (int tries = 0; tries < 4000; ++tries)
+    {
+      ++listCounts [Randomness.getRandomElementFrom (list)];
+      ++linkedListCounts [Randomness.getRandomElementFrom (linkedList)];
+      ++iterableCounts [Randomness.getRandomElementFrom ((Iterable <Integer>) list)];
+    }
+
+    for (int i = 0; i < 4; ++i)
+    {
+      assertThat (listCounts [i], is (greaterThanOrEqualTo (800)));
+      assertThat (linkedListCounts [i], is (greaterThanOrEqualTo (800)));
+      assertThat (iterableCounts [i], is (greaterThanOrEqualTo (800)));
+    }
+  }
+
+  @Test
+  public void testGetRandomElementsFromReturnsDistinctElements ()
+  {
+    final List <Integer> list = new ArrayList <> ();
+
+    for (int i = 0; i < 100; ++i)
+    {
+      list.add (i);
+    }
+
+    for (int tries = 0; tries < 100; ++tries)
+    {
+      final List <Integer> elements = Randomness.getRandomElementsFrom (list, 10);
+
+      assertThat (elements.size (), is (equalTo (10)));
+      assertThat (new HashSet <> (elements).size (), is (equalTo (10)));
+    }
+
+    assertThat (new HashSet <> (Randomness.getRandomElementsFrom (new HashSet <> (list), 100)).size (),
+                is (equalTo (100)));
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testGetRandomElementsFromWithTooLargeCountFails ()
+  {
+    Randomness.getRandomElementsFrom (Arrays.asList (1, 2), 3);
+  }
+
+  @Test
+  public void testGetRandomIntegersAreWithinRangeAndCoverIt ()
+  {
+    final int[] values = Randomness.getRandomIntegersFrom (1, 6, 60000);
+    final int[] counts = new int [7];
+
+    for (final int value : values)
+    {
+      assertThat (value, is (greaterThanOrEqualTo (1)));
+      assertThat (value, is (lessThanOrEqualTo (6)));
+
+      ++counts [value];
+    }
+
+    for (int face = 1; face <= 6; ++face)
+    {
+      assertThat (counts [face], is (greaterThanOrEqualTo (9000)));
+      assertThat (counts [face], is (lessThanOrEqualTo (11000)));
+    }
+  }
+
+  @Test
+  public void testGetRandomIntegersFillsOnlyRange ()
+  {
+    final int[] values = { -1, -1, -1, -1, -1 };
+
+    Randomness.getRandomIntegersFrom (3, 3, values, 1, 3);
+
+    assertThat (values [0], is (equalTo (-1)));
+    assertThat (values [1], is (equalTo (3)));
+    assertThat (values [2], is (equalTo (3)));
+    assertThat (values [3], is (equalTo (3)));
+    assertThat (values [4], is (equalTo (-1)));
+  }
+
+  @Test
+  public void testGetRandomIntegersWithWidestRangeIsWithinRange ()
+  {
+    for (final int value : Randomness.getRandomIntegersFrom (0, Integer.MAX_VALUE - 1, 10000))
+    {
+      assertThat (value, is (greaterThanOrEqualTo (0)));
+      assertThat (value, is (lessThanOrEqualTo (Integer.MAX_VALUE - 1)));
+    }
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testGetRandomIntegersWithCountExceedingArrayFails ()
+  {
+    Randomness.getRandomIntegersFrom (0, 1, new int [4], 2, 3);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testGetRandomIntegersWithReversedBoundsFails ()
+  {
+    Randomness.getRandomIntegersFrom (2, 1, 10);
+  }
+
+  @Test
+  public void testReleaseModeUsesHarvestedEntropy () throws InterruptedException
+  {
+    final EntropySource previousSource = Randomness.getReleaseEntropySource ();
+    final EntropySource urandom = FileEntropySource.urandom ();
+    final AtomicInteger harvestedSeedCount = new AtomicInteger ();
+
+    Randomness.setReleaseEntropySourceTo (new EntropySource ()
+    {
+      @Override
+      public void nextBytes (final byte[] bytes) throws IOException
+      {
+        urandom.nextBytes (bytes);
+        harvestedSeedCount.incrementAndGet ();
+      }
+    });
+
+    try
+    {
+      Randomness.setModeTo (Randomness.Mode.RELEASE);
+
+      // Once the pool is full, the harvester holds one more seed until a seed is taken from the pool.
+      final int fullPoolSeedCount = EntropyHarvester.DEFAULT_POOL_SIZE + 1;
+
+      awaitAtLeast (fullPoolSeedCount, harvestedSeedCount);
+
+      for (int tries = 0; tries < 30000; ++tries)
+      {
+        final int randomInt = Randomness.getRandomIntegerFrom (1, 6);
+
+        assertThat (randomInt, is (greaterThanOrEqualTo (1)));
+        assertThat (randomInt, is (lessThanOrEqualTo (6)));
+      }
+
+      // Generating 30000 numbers reseeds at least twice, so the pool drains & the harvester refills it.
+      awaitAtLeast (fullPoolSeedCount + 2, harvestedSeedCount);
+
+      assertThat (harvestedSeedCount.get (), is (greaterThanOrEqualTo (fullPoolSeedCount + 2)));
+    }
+    finally
+    {
+      Randomness.setModeTo (Randomness.Mode.DEBUG);
+      Randomness.setReleaseEntropySourceTo (previousSource);
+    }
+  }
+
+  private static void awaitAtLeast (final int count, final AtomicInteger counter) throws InterruptedException
+  {
+    final long deadlineMillis = System.currentTimeMillis () + HARVEST_TIMEOUT_MILLISECONDS;
+
+    while (counter.get () < count && System.currentTimeMillis () < deadlineMillis)
+    {
+      Thread.sleep (10);
+    }
+  }
 }
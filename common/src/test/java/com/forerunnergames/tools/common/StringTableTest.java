@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.forerunnergames.tools.common.assets.AbstractAsset;
+import com.forerunnergames.tools.common.id.IdGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class StringTableTest
+{
+  @Test
+  public void testInternCharRangeReturnsCanonicalInstance ()
+  {
+    final StringTable table = new StringTable (16);
+    final char[] chars = "xxAlaskaxx".toCharArray ();
+    final String first = table.intern (chars, 2, 6);
+
+    assertEquals ("Alaska", first);
+    assertSame (first, table.intern (chars, 2, 6));
+    assertSame (first, table.intern (new StringBuilder ("Alaska")));
+    assertSame (first, table.intern (new String ("Alaska")));
+  }
+
+  @Test
+  public void testAssetNamesAreInternedOnlyWhenRequested ()
+  {
+    final StringTable table = new StringTable (16);
+    final String canonicalName = table.intern ("Alaska");
+    final String name = new String ("Alaska");
+
+    assertSame (name, new TestAsset (name).getName ());
+    assertSame (canonicalName, new TestAsset (name, table).getName ());
+  }
+
+  @Test
+  public void testCapacityIsRoundedUpToPowerOfTwo ()
+  {
+    assertEquals (16, new StringTable (10).capacity ());
+    assertEquals (1, new StringTable (1).capacity ());
+  }
+
+  @Test
+  public void testTableIsBounded ()
+  {
+    final StringTable table = new StringTable (4);
+
+    for (int i = 0; i < 1000; ++i)
+    {
+      assertEquals ("name" + i, table.intern ("name" + i));
+    }
+
+    assertEquals (4, table.capacity ());
+  }
+
+  @Test
+  public void testConcurrentInterningReturnsEqualStrings () throws Exception
+  {
+    final StringTable table = new StringTable (64);
+    final ExecutorService executor = Executors.newFixedThreadPool (4);
+    final List <Future <Boolean>> results = new ArrayList <> ();
+
+    for (int thread = 0; thread < 4; ++thread)
+    {
+      results.add (executor.submit (new Callable <Boolean> ()
+      {
+        @Override
+        public Boolean call ()
+        {
+          boolean allEqual = true;
+
+          for (int i = 0; i < 100000; ++i)
+          {
+            final String expected = "unit" + i % 100;
+
+            allEqual &= expected.equals (table.intern (expected.toCharArray (), 0, expected.length ()));
+          }
+
+          return allEqual;
+        }
+      }));
+    }
+
+    for (final Future <Boolean> result : results)
+    {
+      assertTrue (result.get ());
+    }
+
+    executor.shutdown ();
+  }
+
+  private static final class TestAsset extends AbstractAsset
+  {
+    TestAsset (final String name)
+    {
+      super (name, IdGenerator.generateUniqueId ());
+    }
+
+    TestAsset (final String name, final StringTable nameTable)
+    {
+      super (name, IdGenerator.generateUniqueId (), nameTable);
+    }
+  }
+}
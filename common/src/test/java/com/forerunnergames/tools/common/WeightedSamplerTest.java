@@ -0,0 +1,129 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.forerunnergames.tools.common.random.FastRandom;
+
+import org.junit.Test;
+
+public class WeightedSamplerTest
+{
+  @Test
+  public void testProbabilitiesMatchWeights ()
+  {
+    final WeightedSampler sampler = new WeightedSampler (1, 2, 3, 4);
+
+    assertEquals (4, sampler.size ());
+    assertEquals (0.1, sampler.getProbability (0), 1e-12);
+    assertEquals (0.2, sampler.getProbability (1), 1e-12);
+    assertEquals (0.3, sampler.getProbability (2), 1e-12);
+    assertEquals (0.4, sampler.getProbability (3), 1e-12);
+  }
+
+  @Test
+  public void testSampleFrequenciesMatchWeights ()
+  {
+    final WeightedSampler sampler = new WeightedSampler (1, 2, 3, 4);
+    final int[] samples = new int [100000];
+    final int[] counts = new int [4];
+
+    sampler.sample (samples, 0, samples.length, new FastRandom (42));
+
+    for (final int sample : samples)
+    {
+      ++counts [sample];
+    }
+
+    for (int i = 0; i < counts.length; ++i)
+    {
+      assertEquals (sampler.getProbability (i), counts [i] / (double) samples.length, 0.01);
+    }
+  }
+
+  @Test
+  public void testZeroWeightIsNeverSampled ()
+  {
+    final WeightedSampler sampler = new WeightedSampler (0, 5, 0, 1);
+
+    for (int i = 0; i < 10000; ++i)
+    {
+      final int sample = sampler.sample ();
+
+      assertTrue (sample == 1 || sample == 3);
+    }
+  }
+
+  @Test
+  public void testRebuildReplacesWeights ()
+  {
+    final WeightedSampler sampler = new WeightedSampler (1, 1, 1, 1);
+
+    sampler.rebuild (0, 0, 1);
+
+    assertEquals (3, sampler.size ());
+
+    final int[] samples = new int [1000];
+
+    sampler.sample (samples, 0, samples.length);
+
+    for (final int sample : samples)
+    {
+      assertEquals (2, sample);
+    }
+  }
+
+  @Test
+  public void testBulkSampleRespectsOffsetAndCount ()
+  {
+    final WeightedSampler sampler = new WeightedSampler (0, 1);
+    final int[] samples = { -1, -1, -1, -1 };
+
+    sampler.sample (samples, 1, 2, new FastRandom (1));
+
+    assertEquals (-1, samples [0]);
+    assertEquals (1, samples [1]);
+    assertEquals (1, samples [2]);
+    assertEquals (-1, samples [3]);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testAllZeroWeightsFails ()
+  {
+    new WeightedSampler (0, 0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNegativeWeightFails ()
+  {
+    new WeightedSampler (1, -1);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNaNWeightFails ()
+  {
+    new WeightedSampler (1, Double.NaN);
+  }
+}
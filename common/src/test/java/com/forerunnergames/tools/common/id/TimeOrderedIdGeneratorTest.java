@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.id;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TimeOrderedIdGeneratorTest
+{
+  @Test
+  public void testValuesAreUniqueAcrossThreads () throws Exception
+  {
+    final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator (1);
+    final Set <Id> ids = Collections.newSetFromMap (new ConcurrentHashMap <Id, Boolean> ());
+    final int threadCount = 4;
+    final int idsPerThread = 250000;
+    final ExecutorService executor = Executors.newFixedThreadPool (threadCount);
+
+    try
+    {
+      final Callable <Void> task = new Callable <Void> ()
+      {
+        @Override
+        public Void call ()
+        {
+          for (int i = 0; i < idsPerThread; ++i)
+          {
+            ids.add (generator.generateUniqueId ());
+          }
+
+          return null;
+        }
+      };
+
+      final Future <?>[] futures = new Future <?> [threadCount];
+
+      for (int i = 0; i < threadCount; ++i)
+      {
+        futures [i] = executor.submit (task);
+      }
+
+      for (final Future <?> future : futures)
+      {
+        future.get (1, TimeUnit.MINUTES);
+      }
+    }
+    finally
+    {
+      executor.shutdown ();
+    }
+
+    assertEquals (threadCount * idsPerThread, ids.size ());
+  }
+
+  @Test
+  public void testValuesIncreaseWithinThread ()
+  {
+    final TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator (2);
+    Id previous = generator.generateUniqueId ();
+
+    for (int i = 0; i < 100000; ++i)
+    {
+      final Id id = generator.generateUniqueId ();
+
+      assertTrue (id.compareTo (previous) > 0);
+
+      previous = id;
+    }
+  }
+
+  @Test
+  public void testValuesAreVersion7UuidsWithTimestampAndNodeId ()
+  {
+    final long before = System.currentTimeMillis ();
+    final Id id = new TimeOrderedIdGenerator (TimeOrderedIdGenerator.MAX_NODE_ID).generateUniqueId ();
+    final long after = System.currentTimeMillis ();
+
+    assertEquals (7, id.value ().version ());
+    assertEquals (2, id.value ().variant ());
+    assertEquals (TimeOrderedIdGenerator.MAX_NODE_ID, TimeOrderedIdGenerator.nodeIdOf (id));
+    assertTrue (TimeOrderedIdGenerator.timestampOf (id) >= before);
+    assertTrue (TimeOrderedIdGenerator.timestampOf (id) <= after);
+  }
+
+  @Test
+  public void testGeneratorsWithDifferentNodeIdsNeverCollide ()
+  {
+    final Id first = new TimeOrderedIdGenerator (3).generateUniqueId ();
+    final Id second = new TimeOrderedIdGenerator (4).generateUniqueId ();
+
+    assertEquals (3, TimeOrderedIdGenerator.nodeIdOf (first));
+    assertEquals (4, TimeOrderedIdGenerator.nodeIdOf (second));
+    assertTrue (first.isNot (second));
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNodeIdAboveMaximumFails ()
+  {
+    new TimeOrderedIdGenerator (TimeOrderedIdGenerator.MAX_NODE_ID + 1);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncLoaderTest
+{
+  private final AsyncLoader loader = AsyncLoader.builder ().withThreadCount (2).withChunkSize (7).build ();
+  private final List <File> files = new ArrayList <> ();
+
+  @Before
+  public void setUp () throws IOException
+  {
+    for (int i = 0; i < 3; ++i)
+    {
+      final File file = File.createTempFile ("AsyncLoaderTest", ".txt");
+
+      Files.write (file.toPath (), ("file " + i + " \"content\"\n").getBytes (StandardCharsets.UTF_8));
+      files.add (file);
+    }
+  }
+
+  @After
+  public void tearDown () throws IOException
+  {
+    loader.shutdown ();
+
+    for (final File file : files)
+    {
+      Files.delete (file.toPath ());
+    }
+  }
+
+  @Test
+  public void testLoadFilesPreservesOrder () throws InterruptedException, ExecutionException
+  {
+    final List <String> contents = loader.loadFiles (files, StandardCharsets.UTF_8).get ();
+
+    assertEquals (Arrays.asList ("file 0 \"content\"\n", "file 1 \"content\"\n", "file 2 \"content\"\n"), contents);
+  }
+
+  @Test
+  public void testStreamFileInChunks () throws InterruptedException, ExecutionException
+  {
+    final List <Integer> chunkSizes = new ArrayList <> ();
+
+    final long byteCount = loader.streamFile (files.get (0), new AsyncLoader.ChunkConsumer ()
+    {
+      @Override
+      public void accept (final ByteBuffer chunk)
+      {
+        chunkSizes.add (chunk.remaining ());
+      }
+    }).get ();
+
+    assertEquals (17L, byteCount);
+    assertEquals (Arrays.asList (7, 7, 3), chunkSizes);
+  }
+
+  @Test (expected = ExecutionException.class)
+  public void testLoadMissingFileFails () throws InterruptedException, ExecutionException
+  {
+    loader.loadFile (new File (files.get (0).getPath () + ".missing"), StandardCharsets.UTF_8).get ();
+  }
+}
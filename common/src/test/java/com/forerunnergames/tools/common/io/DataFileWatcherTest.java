@@ -0,0 +1,197 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DataFileWatcherTest
+{
+  private static final long TIMEOUT_MILLISECONDS = 10000;
+  private File directory;
+  private File file;
+  private DataFileWatcher watcher;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    directory = Files.createTempDirectory ("DataFileWatcherTest").toFile ();
+    file = new File (directory, "costs.txt");
+    write ("1 2 3");
+    watcher = DataFileWatcher.create (50, TimeUnit.MILLISECONDS);
+  }
+
+  @After
+  public void tearDown () throws IOException
+  {
+    watcher.close ();
+    Files.deleteIfExists (file.toPath ());
+    Files.delete (directory.toPath ());
+  }
+
+  @Test
+  public void testChangedFileIsReloaded () throws IOException, InterruptedException
+  {
+    final DataFileWatcher.Reloadable <Integer> sum = watcher.watch (file, new SumLoader ());
+
+    assertEquals (Integer.valueOf (6), sum.get ());
+
+    write ("4 5 6");
+    awaitReloadCount (sum, 1);
+
+    assertEquals (Integer.valueOf (15), sum.get ());
+  }
+
+  @Test
+  public void testChangeDuringInitialLoadIsReloaded () throws IOException, InterruptedException
+  {
+    final DataFileWatcher.Reloadable <Integer> sum = watcher.watch (file, new DataFileWatcher.Loader <Integer> ()
+    {
+      private final SumLoader loader = new SumLoader ();
+      private volatile boolean isFirstLoad = true;
+
+      @Override
+      public Integer load (final File file) throws IOException
+      {
+        final Integer snapshot = loader.load (file);
+
+        if (isFirstLoad) write ("4 5 6");
+
+        isFirstLoad = false;
+
+        return snapshot;
+      }
+    });
+
+    awaitReloadCount (sum, 1);
+
+    assertEquals (Integer.valueOf (15), sum.get ());
+  }
+
+  @Test
+  public void testFailedReloadKeepsPreviousSnapshot () throws IOException, InterruptedException
+  {
+    final DataFileWatcher.Reloadable <Integer> sum = watcher.watch (file, new SumLoader ());
+
+    write ("4 five 6");
+    Thread.sleep (500);
+
+    assertEquals (0, sum.getReloadCount ());
+    assertEquals (Integer.valueOf (6), sum.get ());
+
+    write ("10");
+    awaitReloadCount (sum, 1);
+
+    assertEquals (Integer.valueOf (10), sum.get ());
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testWatchSameFileTwiceFails () throws IOException
+  {
+    watcher.watch (file, new SumLoader ());
+    watcher.watch (file, new SumLoader ());
+  }
+
+  @Test
+  public void testWatchCanBeRetriedAfterFailedRegistration () throws IOException
+  {
+    final File subdirectory = new File (directory, "missing");
+    final File missingFile = new File (subdirectory, "costs.txt");
+    final DataFileWatcher.Loader <Integer> loader = new DataFileWatcher.Loader <Integer> ()
+    {
+      @Override
+      public Integer load (final File file)
+      {
+        return 0;
+      }
+    };
+
+    try
+    {
+      watcher.watch (missingFile, loader);
+      fail ("Expected watching a file in a missing directory to fail.");
+    }
+    catch (final IOException e)
+    {
+      // Expected, the directory of the file cannot be registered.
+    }
+
+    Files.createDirectory (subdirectory.toPath ());
+
+    try
+    {
+      assertEquals (Integer.valueOf (0), watcher.watch (missingFile, loader).get ());
+    }
+    finally
+    {
+      Files.delete (subdirectory.toPath ());
+    }
+  }
+
+  private void write (final String content) throws IOException
+  {
+    Files.write (file.toPath (), content.getBytes (StandardCharsets.UTF_8));
+  }
+
+  private static void awaitReloadCount (final DataFileWatcher.Reloadable <?> reloadable, final long count)
+          throws InterruptedException
+  {
+    final long deadline = System.currentTimeMillis () + TIMEOUT_MILLISECONDS;
+
+    while (reloadable.getReloadCount () < count && System.currentTimeMillis () < deadline)
+    {
+      Thread.sleep (10);
+    }
+
+    assertEquals (count, reloadable.getReloadCount ());
+  }
+
+  private static final class SumLoader implements DataFileWatcher.Loader <Integer>
+  {
+    @Override
+    public Integer load (final File file)
+    {
+      final StreamParser parser = new StreamParser (file);
+      int sum = 0;
+
+      while (parser.hasNextToken ())
+      {
+        sum += parser.getNextInteger ();
+      }
+
+      parser.close ();
+
+      return sum;
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class IncrementalStreamParserTest
+{
+  private static final String INPUT = "alpha -12.5 \"quoted \\\"string\\\" ü€\" / 3abc\r\n"
+          + "// line comment\n" + "x /* block\n comment */ y 7\n" + "\"unterminated\n" + "last";
+
+  @Test
+  public void testSingleByteChunksMatchSingleChunk ()
+  {
+    assertEquals (parse (INPUT, Integer.MAX_VALUE), parse (INPUT, 1));
+  }
+
+  @Test
+  public void testTokens ()
+  {
+    final List <String> expected = new ArrayList <> ();
+
+    expected.add ("W:alpha");
+    expected.add ("N:-12.5");
+    expected.add ("Q:quoted \"string\" ü€");
+    expected.add ("C:/");
+    expected.add ("N:3.0");
+    expected.add ("W:abc");
+    expected.add ("EOL");
+    expected.add ("EOL");
+    expected.add ("W:x");
+    expected.add ("W:y");
+    expected.add ("N:7.0");
+    expected.add ("EOL");
+    expected.add ("Q:unterminated");
+    expected.add ("EOL");
+    expected.add ("W:last");
+    expected.add ("EOF");
+
+    assertEquals (expected, parse (INPUT, 3));
+  }
+
+  @Test
+  public void testCSVSyntax ()
+  {
+    final List <String> expected = new ArrayList <> ();
+
+    expected.add ("W:a");
+    expected.add ("W:b");
+    expected.add ("N:1.0");
+    expected.add ("Q:c,d");
+    expected.add ("EOL");
+    expected.add ("EOF");
+
+    final RecordingVisitor visitor = new RecordingVisitor ();
+    final IncrementalStreamParser parser = new IncrementalStreamParser (visitor).withCSVSyntax ();
+
+    parser.feed (ByteBuffer.wrap ("a b,1,\"c,d\"\n".getBytes (StandardCharsets.UTF_8)));
+    parser.finish ();
+
+    assertEquals (expected, visitor.events);
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testFeedAfterFinishThrowsException ()
+  {
+    final IncrementalStreamParser parser = new IncrementalStreamParser (new RecordingVisitor ());
+
+    parser.finish ();
+    parser.feed (ByteBuffer.allocate (1));
+  }
+
+  private static List <String> parse (final String input, final int chunkSize)
+  {
+    final RecordingVisitor visitor = new RecordingVisitor ();
+    final IncrementalStreamParser parser = new IncrementalStreamParser (visitor)
+            .withComments (StreamParser.CommentType.SLASH_SLASH, StreamParser.CommentStatus.ENABLED)
+            .withComments (StreamParser.CommentType.SLASH_STAR, StreamParser.CommentStatus.ENABLED);
+    final byte[] bytes = input.getBytes (StandardCharsets.UTF_8);
+
+    for (int offset = 0; offset < bytes.length; offset += chunkSize)
+    {
+      parser.feed (ByteBuffer.wrap (bytes, offset, Math.min (chunkSize, bytes.length - offset)));
+    }
+
+    parser.finish ();
+
+    return visitor.events;
+  }
+
+  private static final class RecordingVisitor implements TokenVisitor
+  {
+    private final List <String> events = new ArrayList <> ();
+
+    @Override
+    public void visitNumber (final double value)
+    {
+      events.add ("N:" + value);
+    }
+
+    @Override
+    public void visitUnquotedString (final CharSequence unquotedString)
+    {
+      events.add ("W:" + unquotedString);
+    }
+
+    @Override
+    public void visitQuotedString (final CharSequence quotedString)
+    {
+      events.add ("Q:" + quotedString);
+    }
+
+    @Override
+    public void visitCharacter (final char c)
+    {
+      events.add ("C:" + c);
+    }
+
+    @Override
+    public void visitEndOfLine ()
+    {
+      events.add ("EOL");
+    }
+
+    @Override
+    public void visitEndOfFile ()
+    {
+      events.add ("EOF");
+    }
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JarResourceIndexTest
+{
+  private File jar;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    jar = File.createTempFile ("JarResourceIndexTest", ".jar");
+    writeJar ("data/", "data/maps/classic.txt", "data/units/infantry.csv", "data/units/cavalry.csv", "data/readme.txt");
+  }
+
+  @After
+  public void tearDown () throws IOException
+  {
+    Files.delete (jar.toPath ());
+  }
+
+  @Test
+  public void testChildDirectoryAndFileNames ()
+  {
+    final JarResourceIndex index = JarResourceIndex.forJar (jarUri ("data/"));
+
+    assertEquals (Arrays.asList ("maps", "units"), index.getChildDirectoryNames ("/data/"));
+    assertEquals (Arrays.asList ("cavalry.csv", "infantry.csv"), index.getChildFileNames ("data/units"));
+    assertEquals (Collections.singletonList ("data"), index.getChildDirectoryNames (""));
+    assertTrue (index.hasDirectory ("data/maps"));
+    assertFalse (index.hasDirectory ("data/missing"));
+    assertEquals (Collections.<String> emptyList (), index.getChildFileNames ("data/missing"));
+  }
+
+  @Test
+  public void testFindFilePaths ()
+  {
+    final JarResourceIndex index = JarResourceIndex.forJar (jar.toURI ());
+
+    assertEquals (Arrays.asList ("data/units/cavalry.csv", "data/units/infantry.csv"),
+                  index.findFilePaths ("data/**.csv"));
+    assertEquals (Collections.singletonList ("data/readme.txt"), index.findFilePaths ("data/*.txt"));
+    assertEquals (Arrays.asList ("data/maps/classic.txt", "data/readme.txt"),
+                  index.findFilePaths ("data/{maps/*,readme}.txt"));
+  }
+
+  @Test
+  public void testIndexIsSharedUntilJarChanges () throws IOException
+  {
+    final JarResourceIndex index = JarResourceIndex.forJar (jar.toURI ());
+
+    assertTrue (index == JarResourceIndex.forJar (jarUri ("data/units/")));
+
+    writeJar ("data/scenarios/first.txt");
+    assertTrue (jar.setLastModified (jar.lastModified () + 2000));
+
+    final JarResourceIndex changedIndex = JarResourceIndex.forJar (jar.toURI ());
+
+    assertFalse (index == changedIndex);
+    assertEquals (Collections.singletonList ("scenarios"), changedIndex.getChildDirectoryNames ("data"));
+  }
+
+  private URI jarUri (final String entry)
+  {
+    return URI.create ("jar:" + jar.toURI () + "!/" + entry);
+  }
+
+  private void writeJar (final String... entries) throws IOException
+  {
+    try (final JarOutputStream output = new JarOutputStream (new FileOutputStream (jar)))
+    {
+      for (final String entry : entries)
+      {
+        output.putNextEntry (new JarEntry (entry));
+        output.closeEntry ();
+      }
+    }
+  }
+}
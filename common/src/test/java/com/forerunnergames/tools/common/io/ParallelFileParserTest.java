@@ -0,0 +1,224 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFileParserTest
+{
+  private static final int LINE_COUNT = 1000;
+  private static final int MAX_RECORDS_PARSED_AHEAD = 100;
+  private final ForkJoinPool pool = new ForkJoinPool (4);
+  private File file;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    final StringBuilder content = new StringBuilder ();
+
+    for (int i = 0; i < LINE_COUNT; ++i)
+    {
+      content.append ("\"name /* ").append (i).append ("\" ").append (i).append ('\n');
+
+      if (i % 10 == 0) content.append ("/* comment\n").append (i).append (" \"unused\"\n*/\n");
+    }
+
+    file = File.createTempFile ("ParallelFileParserTest", ".txt");
+    Files.write (file.toPath (), content.toString ().getBytes (StandardCharsets.UTF_8));
+  }
+
+  @After
+  public void tearDown () throws IOException
+  {
+    pool.shutdownNow ();
+    Files.delete (file.toPath ());
+  }
+
+  @Test
+  public void testParseInOriginalOrderMatchesSequentialParse ()
+  {
+    final List <Integer> records = newParser ().parse (new LineParser ());
+
+    assertEquals (expectedRecords (), records);
+  }
+
+  @Test
+  public void testParseUnorderedDeliversAllRecords ()
+  {
+    final List <Integer> records = new ArrayList <> ();
+
+    final int recordCount = newParser ()
+            .parse (new LineParser (), ParallelFileParser.RecordOrder.UNORDERED,
+                    new ParallelFileParser.RecordConsumer <Integer> ()
+                    {
+                      @Override
+                      public void accept (final Integer record)
+                      {
+                        records.add (record);
+                      }
+                    });
+
+    Collections.sort (records);
+
+    assertEquals (LINE_COUNT, recordCount);
+    assertEquals (expectedRecords (), records);
+  }
+
+  @Test
+  public void testParseInOriginalOrderReleasesDeliveredChunks ()
+  {
+    final AtomicInteger parsedCount = new AtomicInteger ();
+    final List <WeakReference <Record>> deliveredRecords = new ArrayList <> ();
+    final int[] releasedCount = new int [1];
+
+    // Kept reachable for as long as the records, to tell whether garbage collection actually ran once it is released.
+    final Object[] control = { new Object () };
+    final WeakReference <Object> controlReference = new WeakReference <> (control [0]);
+
+    newParser ().parse (new ParallelFileParser.RecordParser <Record> ()
+    {
+      @Override
+      public Record parseRecord (final StreamParser parser)
+      {
+        final Record record = new Record (new LineParser ().parseRecord (parser));
+
+        parsedCount.incrementAndGet ();
+
+        return record;
+      }
+    }, ParallelFileParser.RecordOrder.ORIGINAL, new ParallelFileParser.RecordConsumer <Record> ()
+    {
+      @Override
+      public void accept (final Record record)
+      {
+        deliveredRecords.add (new WeakReference <> (record));
+
+        // Only a few chunks of a few lines each may be parsed ahead of delivery.
+        assertTrue (parsedCount.get () - deliveredRecords.size () <= MAX_RECORDS_PARSED_AHEAD);
+
+        if (record.value < LINE_COUNT - 1) return;
+
+        control [0] = null;
+
+        for (int tries = 0; tries < 10 && (releasedCount [0] < LINE_COUNT / 2 || controlReference.get () != null);
+             ++tries)
+        {
+          System.gc ();
+          releasedCount [0] = countReleased (deliveredRecords.subList (0, LINE_COUNT / 2));
+        }
+      }
+    });
+
+    assertEquals (LINE_COUNT, deliveredRecords.size ());
+
+    // The JVM may ignore System.gc (), in which case nothing can be concluded.
+    assumeTrue (controlReference.get () == null);
+
+    assertEquals (LINE_COUNT / 2, releasedCount [0]);
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testParseWithFailingRecordParserFails ()
+  {
+    newParser ().parse (new ParallelFileParser.RecordParser <Integer> ()
+    {
+      @Override
+      public Integer parseRecord (final StreamParser parser)
+      {
+        return parser.getNextInteger ();
+      }
+    });
+  }
+
+  private ParallelFileParser newParser ()
+  {
+    return ParallelFileParser.builder (file)
+            .withComments (StreamParser.CommentType.SLASH_STAR, StreamParser.CommentStatus.ENABLED).withChunkSize (64)
+            .withPool (pool).build ();
+  }
+
+  private static int countReleased (final List <WeakReference <Record>> records)
+  {
+    int count = 0;
+
+    for (final WeakReference <Record> record : records)
+    {
+      if (record.get () == null) ++count;
+    }
+
+    return count;
+  }
+
+  private static List <Integer> expectedRecords ()
+  {
+    final List <Integer> expected = new ArrayList <> ();
+
+    for (int i = 0; i < LINE_COUNT; ++i)
+    {
+      expected.add (i);
+    }
+
+    return expected;
+  }
+
+  private static final class Record
+  {
+    private final int value;
+
+    Record (final int value)
+    {
+      this.value = value;
+    }
+  }
+
+  private static final class LineParser implements ParallelFileParser.RecordParser <Integer>
+  {
+    @Override
+    public Integer parseRecord (final StreamParser parser)
+    {
+      final String name = parser.getNextQuotedString ();
+      final int value = parser.getNextInteger ();
+
+      assertEquals ("name /* " + value, name);
+
+      return value;
+    }
+  }
+}
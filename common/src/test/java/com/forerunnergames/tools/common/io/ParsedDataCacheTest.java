@@ -0,0 +1,208 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParsedDataCacheTest
+{
+  private static final int CACHE_HEADER_BYTES = 36; // Magic, format version, codec version, source length & hash.
+  private File source;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    source = File.createTempFile ("ParsedDataCacheTest", ".txt");
+    write ("\"one\" 1\n\"two\" 2\n");
+  }
+
+  @After
+  public void tearDown () throws IOException
+  {
+    Files.deleteIfExists (source.toPath ());
+    Files.deleteIfExists (ParsedDataCache.cacheFileFor (source).toPath ());
+  }
+
+  @Test
+  public void testSecondLoadReadsCacheFile ()
+  {
+    final NamesCodec codec = new NamesCodec (1);
+
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (1, codec.parseCount);
+    assertTrue (ParsedDataCache.cacheFileFor (source).isFile ());
+  }
+
+  @Test
+  public void testChangedSourceInvalidatesCacheFile () throws IOException
+  {
+    final NamesCodec codec = new NamesCodec (1);
+
+    ParsedDataCache.load (source, codec);
+    write ("\"one\" 1\n\"six\" 6\n");
+
+    assertEquals (expected ("one", "six"), ParsedDataCache.load (source, codec));
+    assertEquals (2, codec.parseCount);
+  }
+
+  @Test
+  public void testChangedCodecVersionInvalidatesCacheFile ()
+  {
+    ParsedDataCache.load (source, new NamesCodec (1));
+
+    final NamesCodec codec = new NamesCodec (2);
+
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (1, codec.parseCount);
+  }
+
+  @Test
+  public void testCorruptCacheFileIsIgnored () throws IOException
+  {
+    ParsedDataCache.load (source, new NamesCodec (1));
+
+    final File cacheFile = ParsedDataCache.cacheFileFor (source);
+    final byte[] bytes = Files.readAllBytes (cacheFile.toPath ());
+
+    Files.write (cacheFile.toPath (), Arrays.copyOf (bytes, bytes.length - 3));
+
+    final NamesCodec codec = new NamesCodec (1);
+
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (1, codec.parseCount);
+  }
+
+  @Test
+  public void testCacheFileRejectedByCodecIsIgnored () throws IOException
+  {
+    ParsedDataCache.load (source, new NamesCodec (1));
+
+    final File cacheFile = ParsedDataCache.cacheFileFor (source);
+    final byte[] bytes = Files.readAllBytes (cacheFile.toPath ());
+
+    // Overwrite the number of names, the first value written by the codec after the header, with -1.
+    Arrays.fill (bytes, CACHE_HEADER_BYTES, CACHE_HEADER_BYTES + 4, (byte) 0xFF);
+    Files.write (cacheFile.toPath (), bytes);
+
+    final NamesCodec codec = new NamesCodec (1);
+
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (1, codec.parseCount);
+    assertEquals (expected ("one", "two"), ParsedDataCache.load (source, codec));
+    assertEquals (1, codec.parseCount);
+  }
+
+  private void write (final String content) throws IOException
+  {
+    Files.write (source.toPath (), content.getBytes (StandardCharsets.UTF_8));
+  }
+
+  private static List <String> expected (final String... names)
+  {
+    final List <String> expected = new ArrayList <> ();
+
+    for (final String name : names)
+    {
+      expected.add (name);
+    }
+
+    return expected;
+  }
+
+  private static final class NamesCodec implements ParsedDataCache.Codec <List <String>>
+  {
+    private final int version;
+    private int parseCount;
+
+    NamesCodec (final int version)
+    {
+      this.version = version;
+    }
+
+    @Override
+    public int getVersion ()
+    {
+      return version;
+    }
+
+    @Override
+    public List <String> parse (final File source)
+    {
+      ++parseCount;
+
+      final StreamParser parser = new StreamParser (source);
+      final List <String> names = new ArrayList <> ();
+
+      while (parser.hasNextToken ())
+      {
+        names.add (parser.getNextQuotedString ());
+        parser.discardNextToken ();
+      }
+
+      parser.close ();
+
+      return names;
+    }
+
+    @Override
+    public void write (final List <String> value, final DataOutput output) throws IOException
+    {
+      output.writeInt (value.size ());
+
+      for (final String name : value)
+      {
+        output.writeUTF (name);
+      }
+    }
+
+    @Override
+    public List <String> read (final DataInput input) throws IOException
+    {
+      final int size = input.readInt ();
+      final List <String> names = new ArrayList <> (size);
+
+      for (int i = 0; i < size; ++i)
+      {
+        names.add (input.readUTF ());
+      }
+
+      return names;
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import com.forerunnergames.tools.common.io.RowSchema.ColumnType;
+
+import java.io.StringReader;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RowSchemaTest
+{
+  private static final String INPUT = "\"Infantry\" 1 x 1.5\n\"Cavalry\" 5 y 2.25\n\"Artillery\" 10 z 4.75\n";
+  private final RowSchema schema = RowSchema.builder ()
+          .withColumns (ColumnType.QUOTED_STRING, ColumnType.INTEGER, ColumnType.SKIPPED, ColumnType.DOUBLE).build ();
+
+  @Test
+  public void testMapToConstructor ()
+  {
+    final List <Unit> units = schema.mapToConstructor (Unit.class).mapAll (new StreamParser (new StringReader (INPUT)));
+
+    assertEquals ("[Infantry 1 1.5, Cavalry 5 2.25, Artillery 10 4.75]", units.toString ());
+  }
+
+  @Test
+  public void testMapToSetters ()
+  {
+    final List <Unit> units = schema.mapToSetters (Unit.class, "setName", "setCost", "setStrength")
+            .mapAll (new StreamParser (new StringReader (INPUT)));
+
+    assertEquals ("[Infantry 1 1.5, Cavalry 5 2.25, Artillery 10 4.75]", units.toString ());
+  }
+
+  @Test
+  public void testReadColumns ()
+  {
+    final ColumnTable table = schema.readColumns (new StreamParser (new StringReader (INPUT)));
+
+    assertEquals (3, table.getRowCount ());
+    assertArrayEquals (new String[] { "Infantry", "Cavalry", "Artillery" }, table.getStrings (0));
+    assertArrayEquals (new int[] { 1, 5, 10 }, table.getIntegers (1));
+    assertArrayEquals (new double[] { 1.5, 2.25, 4.75 }, table.getDoubles (3), 0.0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testMapToConstructorWithMismatchedTypesFails ()
+  {
+    RowSchema.builder ().withColumns (ColumnType.INTEGER, ColumnType.INTEGER).build ().mapToConstructor (Unit.class);
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testMapRowNotMatchingSchemaFails ()
+  {
+    schema.mapToConstructor (Unit.class).map (new StreamParser (new StringReader ("1 \"Infantry\" x 1.5")));
+  }
+
+  public static final class Unit
+  {
+    private String name;
+    private int cost;
+    private double strength;
+
+    public Unit ()
+    {
+    }
+
+    public Unit (final String name, final int cost, final double strength)
+    {
+      this.name = name;
+      this.cost = cost;
+      this.strength = strength;
+    }
+
+    public void setName (final String name)
+    {
+      this.name = name;
+    }
+
+    public void setCost (final int cost)
+    {
+      this.cost = cost;
+    }
+
+    public void setStrength (final double strength)
+    {
+      this.strength = strength;
+    }
+
+    @Override
+    public String toString ()
+    {
+      return name + " " + cost + " " + strength;
+    }
+  }
+}
@@ -0,0 +1,371 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+import com.forerunnergames.tools.common.StringTable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class StreamParserTest
+{
+  @Test
+  public void testGetNextIntegersIntoArray ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("1 2 3 4 5"));
+    final int[] integers = new int [6];
+
+    final int read = parser.getNextIntegers (integers, 1, 4);
+
+    assertEquals (4, read);
+    assertArrayEquals (new int [] { 0, 1, 2, 3, 4, 0 }, integers);
+  }
+
+  @Test
+  public void testGetNextIntegerArrayStopsAtEndOfFile ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("7 8"));
+
+    assertArrayEquals (new int [] { 7, 8, Integer.MIN_VALUE }, parser.getNextIntegerArray (5));
+  }
+
+  @Test
+  public void testGetNextRemainingIntegerArrayOnLine ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("1 2 3\n4 5\n"));
+
+    assertArrayEquals (new int [] { 1, 2, 3 }, parser.getNextRemainingIntegerArrayOnLine ());
+    assertArrayEquals (new int [] { 4, 5 }, parser.getNextRemainingIntegerArrayOnLine ());
+  }
+
+  @Test
+  public void testGetNextRemainingIntegersOnLineMatchesArray ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("10 20 30\n"));
+
+    assertEquals (Arrays.asList (10, 20, 30), parser.getNextRemainingIntegersOnLine ());
+  }
+
+  @Test
+  public void testGetNextLongArray ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("4294967296 -3"));
+
+    assertArrayEquals (new long [] { 4294967296L, -3L }, parser.getNextLongArray (2));
+  }
+
+  @Test
+  public void testGetNextRemainingDoubleArrayOnLine ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("1.5 2.25\n3.5"));
+
+    assertArrayEquals (new double [] { 1.5, 2.25 }, parser.getNextRemainingDoubleArrayOnLine (), 0.0);
+    assertArrayEquals (new double [] { 3.5 }, parser.getNextRemainingDoubleArrayOnLine (), 0.0);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testGetNextIntegersIntoTooSmallArrayFails ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("1 2 3"));
+
+    parser.getNextIntegers (new int [2], 1, 2);
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testGetNextIntegerArrayWithDoubleFails ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("1 2.5"));
+
+    parser.getNextIntegerArray (2);
+  }
+
+  @Test
+  public void testMappedFileParsesSameAsReader () throws IOException
+  {
+    final File file = createTempFile ("territory \"Þórshöfn\" 42 3.5\nlast 7\n");
+
+    try
+    {
+      final StreamParser parser = StreamParser.fromMappedFile (file);
+
+      assertEquals ("territory", parser.getNextUnquotedString ());
+      assertEquals ("Þórshöfn", parser.getNextQuotedString ());
+      assertEquals (42, parser.getNextInteger ());
+      assertEquals (3.5, parser.getNextDouble (), 0.0);
+      parser.discardNextLine ();
+      assertEquals ("last 7", parser.getNextLine ());
+      parser.verifyEndOfFile ();
+      parser.close ();
+    }
+    finally
+    {
+      Files.delete (file.toPath ());
+    }
+  }
+
+  @Test
+  public void testMappedFileStartingPastEndFailsWithoutLeakingFile () throws IOException
+  {
+    final File openFiles = new File ("/proc/self/fd");
+
+    assumeTrue (openFiles.isDirectory ());
+
+    final File file = createTempFile ("abc");
+
+    try
+    {
+      final int openFileCount = openFiles.list ().length;
+
+      try
+      {
+        new MappedFileReader (file, 4, -1, StandardCharsets.UTF_8).close ();
+        fail ("Expected starting past the end of the file to fail.");
+      }
+      catch (final IllegalArgumentException e)
+      {
+        assertEquals (openFileCount, openFiles.list ().length);
+      }
+    }
+    finally
+    {
+      Files.delete (file.toPath ());
+    }
+  }
+
+  @Test
+  public void testMappedEmptyFileIsEndOfFile () throws IOException
+  {
+    final File file = createTempFile ("");
+
+    try
+    {
+      final StreamParser parser = StreamParser.fromMappedFile (file);
+
+      parser.verifyEndOfFile ();
+      parser.close ();
+    }
+    finally
+    {
+      Files.delete (file.toPath ());
+    }
+  }
+
+  @Test
+  public void testVisitCSVRecords ()
+  {
+    final StreamParser parser = new StreamParser (
+            new StringReader ("name, armies ,note\r\n\n\"Alaska, North\",3,\"say \"\"hi\"\"\"\nKamchatka,,\n"));
+    final RecordingVisitor visitor = new RecordingVisitor ();
+
+    assertEquals (3, parser.visitCSVRecords (visitor));
+    assertEquals (Arrays.asList ("0:0:name", "0:1:armies", "0:2:note", "0|3", "1:0:Alaska, North", "1:1:3",
+                                 "1:2:say \"hi\"", "1|3", "2:0:Kamchatka", "2:1:", "2:2:", "2|3"),
+                  visitor.events);
+    assertTrue (parser.isEndOfFile ());
+  }
+
+  @Test
+  public void testVisitCSVRecordsSkipsEnabledComments ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("// header\na,b // trailing\n/* block\n*/c,d"))
+            .withComments (StreamParser.CommentType.SLASH_SLASH, StreamParser.CommentStatus.ENABLED)
+            .withComments (StreamParser.CommentType.SLASH_STAR, StreamParser.CommentStatus.ENABLED);
+    final RecordingVisitor visitor = new RecordingVisitor ();
+
+    parser.visitCSVRecords (visitor);
+
+    assertEquals (Arrays.asList ("0:0:a", "0:1:b", "0|2", "1:0:c", "1:1:d", "1|2"), visitor.events);
+  }
+
+  @Test
+  public void testVisitCSVRecordsWithFieldLargerThanBuffer ()
+  {
+    final StringBuilder longField = new StringBuilder ();
+
+    for (int i = 0; i < 20000; ++i)
+    {
+      longField.append ((char) ('a' + i % 26));
+    }
+
+    final StreamParser parser = new StreamParser (new StringReader ("1,\"" + longField + "\",2\n"));
+    final RecordingVisitor visitor = new RecordingVisitor ();
+
+    parser.visitCSVRecords (visitor);
+
+    assertEquals (Arrays.asList ("0:0:1", "0:1:" + longField, "0:2:2", "0|3"), visitor.events);
+  }
+
+  @Test
+  public void testCSVFieldNumberParsing ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("-42,9223372036854775807,-12.375,1e3"));
+    final List <Object> values = new ArrayList <> ();
+
+    parser.visitCSVRecords (new CSVRecordVisitor ()
+    {
+      @Override
+      public void visitField (final int rowNumber, final int fieldIndex, final CSVField field)
+      {
+        switch (fieldIndex)
+        {
+          case 0:
+          {
+            values.add (field.toInt ());
+            break;
+          }
+          case 1:
+          {
+            values.add (field.toLong ());
+            break;
+          }
+          default:
+          {
+            values.add (field.toDouble ());
+            break;
+          }
+        }
+      }
+
+      @Override
+      public void visitEndOfRecord (final int rowNumber, final int fieldCount)
+      {
+      }
+    });
+
+    assertEquals (Arrays.<Object> asList (-42, Long.MAX_VALUE, -12.375, 1000.0), values);
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testVisitCSVRecordsWithUnterminatedQuoteFails ()
+  {
+    new StreamParser (new StringReader ("a,\"b\n")).visitCSVRecords (new RecordingVisitor ());
+  }
+
+  @Test
+  public void testVisitCSVRecordsWithCharacterAfterClosingQuoteFails ()
+  {
+    try
+    {
+      new StreamParser (new StringReader ("a,\"b\"c\n")).visitCSVRecords (new RecordingVisitor ());
+      fail ("Expected a StreamParserException.");
+    }
+    catch (final StreamParserException e)
+    {
+      assertTrue (e.getMessage (), e.getMessage ().contains ("[c] after CSV field [b]"));
+    }
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testVisitCSVRecordsWithCharacterAfterClosingQuoteOfSkippedFieldFails ()
+  {
+    new StreamParser (new StringReader ("a,\"b\"c\n")).visitCSVRecords (CSVProjection.ofColumns (0),
+                                                                        new RecordingVisitor ());
+  }
+
+  @Test (expected = IllegalStateException.class)
+  public void testVisitCSVRecordsAfterParsingTokensFails ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("a,b\nc,d"));
+
+    parser.discardNextToken ();
+    parser.visitCSVRecords (new RecordingVisitor ());
+  }
+
+  @Test
+  public void testVisitCSVRecordsProjectedByColumns ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("a,\"x,\n\"\"y\",b,c\nd,e\n"));
+    final RecordingVisitor visitor = new RecordingVisitor ();
+
+    assertEquals (2, parser.visitCSVRecords (CSVProjection.ofColumns (3, 0), visitor));
+    assertEquals (Arrays.asList ("0:1:a", "0:0:c", "0|2", "1:1:d", "1|1"), visitor.events);
+  }
+
+  @Test
+  public void testVisitCSVRecordsProjectedByHeaders ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("id,name,unused,cost\n1,\"A, B\",\"z\",5\n"));
+    final RecordingVisitor visitor = new RecordingVisitor ();
+
+    assertEquals (1, parser.visitCSVRecords (CSVProjection.ofHeaders ("cost", "name"), visitor));
+    assertEquals (Arrays.asList ("0:1:A, B", "0:0:5", "0|2"), visitor.events);
+  }
+
+  @Test (expected = StreamParserException.class)
+  public void testVisitCSVRecordsProjectedByMissingHeaderFails ()
+  {
+    new StreamParser (new StringReader ("id,name\n1,a\n")).visitCSVRecords (CSVProjection.ofHeaders ("cost"),
+                                                                           new RecordingVisitor ());
+  }
+
+  @Test
+  public void testStringTokensAreInternedInStringTable ()
+  {
+    final StreamParser parser = new StreamParser (new StringReader ("Alaska \"Alaska\" Alaska"))
+            .withStringTable (new StringTable (16));
+    final String first = parser.getNextUnquotedString ();
+
+    assertTrue (first == parser.getNextQuotedString ());
+    assertTrue (first == parser.getNextUnquotedString ());
+  }
+
+  private static final class RecordingVisitor implements CSVRecordVisitor
+  {
+    final List <String> events = new ArrayList <> ();
+
+    @Override
+    public void visitField (final int rowNumber, final int fieldIndex, final CSVField field)
+    {
+      events.add (rowNumber + ":" + fieldIndex + ":" + field);
+    }
+
+    @Override
+    public void visitEndOfRecord (final int rowNumber, final int fieldCount)
+    {
+      events.add (rowNumber + "|" + fieldCount);
+    }
+  }
+
+  private static File createTempFile (final String content) throws IOException
+  {
+    final File file = File.createTempFile ("StreamParserTest", ".txt");
+
+    Files.write (file.toPath (), content.getBytes (StandardCharsets.UTF_8));
+
+    return file;
+  }
+}
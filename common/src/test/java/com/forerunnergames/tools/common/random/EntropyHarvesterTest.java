@@ -0,0 +1,114 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EntropyHarvesterTest
+{
+  private File file;
+
+  @Before
+  public void setUp () throws IOException
+  {
+    file = File.createTempFile ("EntropyHarvesterTest", ".bin");
+    Files.write (file.toPath (), new byte [] { 1, 2, 3 });
+  }
+
+  @After
+  public void tearDown ()
+  {
+    file.delete ();
+  }
+
+  @Test
+  public void testFileEntropySourceReadsCyclically () throws IOException
+  {
+    final byte[] bytes = new byte [7];
+
+    new FileEntropySource (file).nextBytes (bytes);
+
+    assertArrayEquals (new byte [] { 1, 2, 3, 1, 2, 3, 1 }, bytes);
+  }
+
+  @Test (expected = IOException.class)
+  public void testFileEntropySourceFailsOnEmptyFile () throws IOException
+  {
+    Files.write (file.toPath (), new byte [0]);
+
+    new FileEntropySource (file).nextBytes (new byte [1]);
+  }
+
+  @Test
+  public void testHarvesterPoolsSeedsFromSource () throws InterruptedException
+  {
+    try (final EntropyHarvester harvester = EntropyHarvester.start (new FileEntropySource (file), 4, 2))
+    {
+      final byte[] seed = harvester.poll (10, TimeUnit.SECONDS);
+
+      assertNotNull (seed);
+      assertEquals (4, seed.length);
+      assertArrayEquals (new byte [] { 1, 2, 3, 1 }, seed);
+    }
+  }
+
+  @Test
+  public void testHarvesterDoesNotBlockWhenSourceFails () throws InterruptedException
+  {
+    final EntropySource failingSource = new EntropySource ()
+    {
+      @Override
+      public void nextBytes (final byte[] bytes) throws IOException
+      {
+        throw new IOException ("Offline.");
+      }
+    };
+
+    try (final EntropyHarvester harvester = EntropyHarvester.start (failingSource, 8))
+    {
+      assertNull (harvester.poll ());
+      assertNull (harvester.poll (100, TimeUnit.MILLISECONDS));
+    }
+  }
+
+  @Test
+  public void testUrandomProvidesSeeds () throws InterruptedException
+  {
+    try (final EntropyHarvester harvester = EntropyHarvester.start (FileEntropySource.urandom (), 8))
+    {
+      assertNotNull (harvester.poll (10, TimeUnit.SECONDS));
+    }
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+
+import com.forerunnergames.tools.common.Randomness;
+
+import org.junit.Test;
+
+public class FastRandomTest
+{
+  @Test
+  public void testSameSeedProducesSameSequence ()
+  {
+    final FastRandom a = new FastRandom (42);
+    final FastRandom b = new FastRandom (42);
+
+    for (int i = 0; i < 1000; ++i)
+    {
+      assertEquals (a.nextLong (), b.nextLong ());
+    }
+  }
+
+  @Test
+  public void testSetSeedRestartsSequence ()
+  {
+    final FastRandom random = new FastRandom (7);
+    final long first = random.nextLong ();
+
+    random.nextLong ();
+    random.setSeed (7);
+
+    assertEquals (first, random.nextLong ());
+  }
+
+  @Test
+  public void testNextIntWithBoundIsUniform ()
+  {
+    final FastRandom random = new FastRandom (1);
+    final int[] counts = new int [6];
+    final int draws = 600000;
+
+    for (int i = 0; i < draws; ++i)
+    {
+      ++counts [random.nextInt (6)];
+    }
+
+    for (final int count : counts)
+    {
+      assertThat (count, is (greaterThan (draws / 6 - 2000)));
+      assertThat (count, is (lessThan (draws / 6 + 2000)));
+    }
+  }
+
+  @Test
+  public void testNextDoubleIsWithinUnitInterval ()
+  {
+    final FastRandom random = new FastRandom (3);
+
+    for (int i = 0; i < 10000; ++i)
+    {
+      final double d = random.nextDouble ();
+
+      assertThat (d >= 0.0 && d < 1.0, is (true));
+    }
+  }
+
+  @Test
+  public void testJumpAndSplitProduceDifferentSequences ()
+  {
+    final FastRandom random = new FastRandom (5);
+    final FastRandom copy = new FastRandom (5);
+    final FastRandom jumped = random.jump ();
+
+    assertEquals (copy.nextLong (), jumped.nextLong ());
+
+    final FastRandom split = random.split ();
+
+    assertFalse (random.nextLong () == split.nextLong ());
+    assertFalse (random.nextLong () == jumped.nextLong ());
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void testNextIntWithNonPositiveBoundFails ()
+  {
+    new FastRandom ().nextInt (0);
+  }
+
+  @Test
+  public void testRandomnessCreatesDistinctlySeededGenerators ()
+  {
+    assertFalse (Randomness.newFastRandom ().nextLong () == Randomness.newFastRandom ().nextLong ());
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PhiloxRandomTest
+{
+  @Test
+  public void testKnownAnswerVectors ()
+  {
+    final int[] output = new int [4];
+
+    // Known-answer vectors of the Random123 library, for philox4x32_10.
+    PhiloxRandom.computeBlock (0, 0, 0, output);
+    assertArrayEquals (new int[] { 0x6627E8D5, 0xE169C58D, 0xBC57AC4C, 0x9B00DBD8 }, output);
+
+    PhiloxRandom.computeBlock (-1, -1, -1, output);
+    assertArrayEquals (new int[] { 0x408F276D, 0x41C83B0E, 0xA20BC7C6, 0x6D5451FD }, output);
+  }
+
+  @Test
+  public void testSeekReproducesOutput ()
+  {
+    final PhiloxRandom random = new PhiloxRandom (123, 9);
+    final int[] outputs = new int [100];
+
+    for (int i = 0; i < outputs.length; ++i)
+    {
+      outputs [i] = random.nextInt ();
+    }
+
+    random.seek (37);
+
+    assertEquals (outputs [37], random.nextInt ());
+    assertEquals (outputs [38], random.nextInt ());
+    assertEquals (outputs [41], new PhiloxRandom (123, 9, 41).nextInt ());
+    assertEquals (39, random.getPosition ());
+  }
+
+  @Test
+  public void testStreamsAreIndependentOfOrderOfUse ()
+  {
+    final PhiloxRandom base = new PhiloxRandom (5);
+    final PhiloxRandom stream2 = base.forStream (2);
+    final long first = stream2.nextLong ();
+
+    base.forStream (1).nextLong ();
+
+    assertEquals (first, new PhiloxRandom (5, 2).nextLong ());
+    assertEquals (2, stream2.getStreamId ());
+  }
+
+  @Test
+  public void testSetSeedRewinds ()
+  {
+    final PhiloxRandom random = new PhiloxRandom (8, 3);
+    final long first = random.nextLong ();
+
+    random.setSeed (8);
+
+    assertEquals (first, random.nextLong ());
+  }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright © 2011 - 2013 Aaron Mahan
+ * Copyright © 2013 - 2016 Forerunner Games, LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.forerunnergames.tools.common.random;
+
+import static org.junit.Assert.assertEquals;
+
+import com.forerunnergames.tools.common.Randomness;
+
+import ch.fourmilab.randomx.RandomX;
+
+import org.junit.Test;
+
+public class ZigguratTest
+{
+  private static final int SAMPLE_COUNT = 1000000;
+
+  @Test
+  public void testGaussianMatchesStandardNormalDistribution ()
+  {
+    final double[] values = new double [SAMPLE_COUNT];
+
+    Ziggurat.nextGaussians (new FastRandom (42), values, 0, values.length, 0.0, 1.0);
+
+    assertEquals (0.0, mean (values), 0.005);
+    assertEquals (1.0, variance (values), 0.01);
+    assertEquals (0.6827, fractionWithin (values, -1.0, 1.0), 0.002);
+    assertEquals (0.9545, fractionWithin (values, -2.0, 2.0), 0.001);
+    assertEquals (0.9973, fractionWithin (values, -3.0, 3.0), 0.0005);
+    assertEquals (0.99993666, fractionWithin (values, -4.0, 4.0), 0.00005);
+  }
+
+  @Test
+  public void testExponentialMatchesStandardExponentialDistribution ()
+  {
+    final double[] values = new double [SAMPLE_COUNT];
+
+    Ziggurat.nextExponentials (new FastRandom (42), values, 0, values.length, 1.0);
+
+    assertEquals (1.0, mean (values), 0.005);
+    assertEquals (1.0, variance (values), 0.02);
+    assertEquals (1.0 - Math.exp (-1.0), fractionWithin (values, 0.0, 1.0), 0.002);
+    assertEquals (1.0 - Math.exp (-3.0), fractionWithin (values, 0.0, 3.0), 0.001);
+    assertEquals (1.0 - Math.exp (-8.0), fractionWithin (values, 0.0, 8.0), 0.0002);
+    assertEquals (1.0, fractionWithin (values, 0.0, Double.MAX_VALUE), 0.0);
+  }
+
+  @Test
+  public void testBulkSamplesApplyMeanAndStandardDeviation ()
+  {
+    final double[] values = new double [SAMPLE_COUNT];
+
+    Ziggurat.nextGaussians (new PhiloxRandom (7), values, 0, values.length, 10.0, 2.0);
+
+    assertEquals (10.0, mean (values), 0.01);
+    assertEquals (4.0, variance (values), 0.04);
+  }
+
+  @Test
+  public void testRandomXGaussian ()
+  {
+    final FastRandom source = new FastRandom (3);
+    final RandomX random = new RandomX ()
+    {
+      @Override
+      public byte nextByte ()
+      {
+        return (byte) source.nextInt ();
+      }
+    };
+
+    final double[] values = new double [100000];
+
+    random.nextGaussians (values, 0, values.length, 0.0, 1.0);
+
+    assertEquals (0.0, mean (values), 0.02);
+    assertEquals (1.0, variance (values), 0.03);
+  }
+
+  @Test
+  public void testRandomnessGaussians ()
+  {
+    final double[] values = new double [100000];
+
+    Randomness.getRandomGaussians (values, 0, values.length, 0.0, 1.0);
+
+    assertEquals (0.0, mean (values), 0.02);
+    assertEquals (1.0, variance (values), 0.03);
+  }
+
+  private static double mean (final double[] values)
+  {
+    double sum = 0;
+
+    for (final double value : values)
+    {
+      sum += value;
+    }
+
+    return sum / values.length;
+  }
+
+  private static double variance (final double[] values)
+  {
+    final double mean = mean (values);
+    double sum = 0;
+
+    for (final double value : values)
+    {
+      sum += (value - mean) * (value - mean);
+    }
+
+    return sum / values.length;
+  }
+
+  private static double fractionWithin (final double[] values, final double min, final double max)
+  {
+    int count = 0;
+
+    for (final double value : values)
+    {
+      if (value >= min && value <= max) ++count;
+    }
+
+    return count / (double) values.length;
+  }
+}